@@ -0,0 +1,24 @@
+#!/bin/sh
+# Compiles VCRTS and runs its JUnit 5 tests with the JUnit console launcher.
+#
+# Usage:
+#   JUNIT_JAR=/path/to/junit-platform-console-standalone-1.10.2.jar ./run-tests.sh
+#
+# Needs JDK 21 or later on the PATH and the standalone console launcher jar
+# (org.junit.platform:junit-platform-console-standalone, 1.10 or later),
+# which bundles the Jupiter API and engine. Classes go to build/, and the
+# tests run against a throwaway data directory, so the tracked data files
+# are never touched.
+set -e
+cd "$(dirname "$0")"
+: "${JUNIT_JAR:?set JUNIT_JAR to the junit-platform-console-standalone jar}"
+
+rm -rf build
+mkdir -p build/main build/test
+javac -d build/main $(find src/main -name '*.java')
+javac -d build/test -cp "build/main:$JUNIT_JAR" $(find src/test -name '*.java')
+
+data=$(mktemp -d)
+trap 'rm -rf "$data"' EXIT
+java -Dvcrts.data.dir="$data" -jar "$JUNIT_JAR" execute \
+    --class-path "build/main:build/test" --scan-class-path
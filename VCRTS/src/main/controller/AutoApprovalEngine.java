@@ -0,0 +1,262 @@
+package controller;
+
+import dao.UserDAO;
+import models.Request;
+import models.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Configurable rules engine that decides pending requests without a human.
+ * A request is approved when every rule passes, rejected when any rule rejects
+ * it, and otherwise left in the queue for the Cloud Controller to review.
+ */
+public class AutoApprovalEngine {
+
+    public enum Decision { APPROVE, REJECT, MANUAL }
+
+    /**
+     * The outcome of evaluating one request.
+     */
+    public static class Result {
+        private final Decision decision;
+        private final String ruleName;
+
+        Result(Decision decision, String ruleName) {
+            this.decision = decision;
+            this.ruleName = ruleName;
+        }
+
+        public Decision getDecision() { return decision; }
+
+        /**
+         * Returns the rule that rejected the request or sent it to manual review,
+         * or null if the request was approved.
+         */
+        public String getRuleName() { return ruleName; }
+    }
+
+    // Standard 17-character VIN; the letters I, O and Q are never used
+    public static final String DEFAULT_VIN_PATTERN = "[A-HJ-NPR-Z0-9]{17}";
+    public static final Duration DEFAULT_MAX_JOB_DURATION = Duration.ofHours(8);
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final List<AutoApprovalRule> rules = new CopyOnWriteArrayList<>();
+    private volatile boolean enabled = true;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Creates an engine with no rules. Use {@link #createDefault()} for the
+     * standard rule set.
+     */
+    public AutoApprovalEngine() {
+    }
+
+    /**
+     * Creates an engine with the standard rules: known owner, valid VIN,
+     * job duration under the default threshold and deadline not yet passed.
+     */
+    public static AutoApprovalEngine createDefault() {
+        AutoApprovalEngine engine = new AutoApprovalEngine();
+        engine.addRule(new KnownOwnerRule(new UserDAO()));
+        engine.addRule(new VinFormatRule(DEFAULT_VIN_PATTERN));
+        engine.addRule(new MaxJobDurationRule(DEFAULT_MAX_JOB_DURATION));
+        engine.addRule(new DeadlineNotPassedRule());
+        return engine;
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); }
+
+    public void addRule(AutoApprovalRule rule) {
+        rules.add(rule);
+    }
+
+    public void removeRule(AutoApprovalRule rule) {
+        rules.remove(rule);
+    }
+
+    public List<AutoApprovalRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Prepares every rule for a new batch of requests.
+     */
+    public void beginBatch() {
+        for (AutoApprovalRule rule : rules) {
+            rule.beginBatch();
+        }
+    }
+
+    /**
+     * Evaluates a request against all rules. A rejection wins over a manual
+     * review, which wins over an approval.
+     *
+     * @param request The pending request.
+     * @return The combined decision and the rule responsible for it.
+     */
+    public Result evaluate(Request request) {
+        Result manual = null;
+        for (AutoApprovalRule rule : rules) {
+            Decision decision = rule.evaluate(request);
+            if (decision == Decision.REJECT) {
+                return new Result(Decision.REJECT, rule.getName());
+            }
+            if (decision == Decision.MANUAL && manual == null) {
+                manual = new Result(Decision.MANUAL, rule.getName());
+            }
+        }
+        return manual != null ? manual : new Result(Decision.APPROVE, null);
+    }
+
+    /**
+     * Splits request data into its pipe-delimited fields.
+     */
+    private static String[] fields(Request request) {
+        return request.getRequestData() != null ? request.getRequestData().split("\\|") : new String[0];
+    }
+
+    /**
+     * Rejects requests whose owner is not a registered user or does not match
+     * the submitting client. Users are loaded once per batch.
+     */
+    public static class KnownOwnerRule implements AutoApprovalRule {
+        private final UserDAO userDAO;
+        private volatile Set<Integer> knownUserIds = new HashSet<>();
+
+        public KnownOwnerRule(UserDAO userDAO) {
+            this.userDAO = userDAO;
+        }
+
+        @Override
+        public String getName() { return "known owner"; }
+
+        @Override
+        public void beginBatch() {
+            Set<Integer> userIds = new HashSet<>();
+            for (User user : userDAO.getAllUsers()) {
+                userIds.add(user.getUserId());
+            }
+            knownUserIds = userIds;
+        }
+
+        @Override
+        public Decision evaluate(Request request) {
+            String[] parts = fields(request);
+            // Vehicle data starts with the owner ID; job data has it in the third field
+            int ownerIndex = Request.TYPE_ADD_JOB.equals(request.getRequestType()) ? 2 : 0;
+            if (parts.length <= ownerIndex) {
+                return Decision.MANUAL;
+            }
+            try {
+                int ownerId = Integer.parseInt(parts[ownerIndex].trim());
+                if (ownerId != request.getClientId() || !knownUserIds.contains(ownerId)) {
+                    return Decision.REJECT;
+                }
+                return Decision.APPROVE;
+            } catch (NumberFormatException e) {
+                return Decision.REJECT;
+            }
+        }
+    }
+
+    /**
+     * Sends vehicle registrations whose VIN does not match the configured
+     * format to manual review. It never rejects: existing records use short
+     * in-house identifiers as VINs, so a non-standard VIN is not proof of a
+     * bad registration.
+     */
+    public static class VinFormatRule implements AutoApprovalRule {
+        private final Pattern vinPattern;
+
+        public VinFormatRule(String vinRegex) {
+            this.vinPattern = Pattern.compile(vinRegex);
+        }
+
+        @Override
+        public String getName() { return "VIN format"; }
+
+        @Override
+        public Decision evaluate(Request request) {
+            if (!Request.TYPE_REGISTER_VEHICLE.equals(request.getRequestType())) {
+                return Decision.APPROVE;
+            }
+            String[] parts = fields(request);
+            if (parts.length < 6) {
+                return Decision.MANUAL;
+            }
+            String vin = parts[4].trim().toUpperCase();
+            return vinPattern.matcher(vin).matches() ? Decision.APPROVE : Decision.MANUAL;
+        }
+    }
+
+    /**
+     * Sends jobs longer than the threshold to manual review.
+     */
+    public static class MaxJobDurationRule implements AutoApprovalRule {
+        private final Duration maxDuration;
+
+        public MaxJobDurationRule(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+
+        @Override
+        public String getName() { return "duration under " + maxDuration.toHours() + "h"; }
+
+        @Override
+        public Decision evaluate(Request request) {
+            if (!Request.TYPE_ADD_JOB.equals(request.getRequestType())) {
+                return Decision.APPROVE;
+            }
+            String[] parts = fields(request);
+            if (parts.length < 6) {
+                return Decision.MANUAL;
+            }
+            try {
+                // Duration format: HH:mm:ss
+                Duration duration = Duration.ofSeconds(LocalTime.parse(parts[3].trim()).toSecondOfDay());
+                return duration.compareTo(maxDuration) <= 0 ? Decision.APPROVE : Decision.MANUAL;
+            } catch (DateTimeParseException e) {
+                return Decision.MANUAL;
+            }
+        }
+    }
+
+    /**
+     * Rejects jobs whose deadline is already in the past.
+     */
+    public static class DeadlineNotPassedRule implements AutoApprovalRule {
+
+        @Override
+        public String getName() { return "deadline not passed"; }
+
+        @Override
+        public Decision evaluate(Request request) {
+            if (!Request.TYPE_ADD_JOB.equals(request.getRequestType())) {
+                return Decision.APPROVE;
+            }
+            String[] parts = fields(request);
+            if (parts.length < 6) {
+                return Decision.MANUAL;
+            }
+            try {
+                // Deadline format: yyyy-MM-dd
+                LocalDate deadline = LocalDate.parse(parts[4].trim());
+                return deadline.isBefore(LocalDate.now()) ? Decision.REJECT : Decision.APPROVE;
+            } catch (DateTimeParseException e) {
+                return Decision.MANUAL;
+            }
+        }
+    }
+}
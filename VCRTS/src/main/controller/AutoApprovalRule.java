@@ -0,0 +1,30 @@
+package controller;
+
+import models.Request;
+
+/**
+ * A single check applied by the {@link AutoApprovalEngine} to a pending request.
+ */
+public interface AutoApprovalRule {
+
+    /**
+     * Returns a short name for the rule, used in response messages and logs.
+     */
+    String getName();
+
+    /**
+     * Called once before a batch of requests is evaluated, so the rule can
+     * load any lookup data it needs a single time per batch.
+     */
+    default void beginBatch() {
+    }
+
+    /**
+     * Evaluates the rule against a request.
+     *
+     * @param request The pending request.
+     * @return APPROVE if the request passes, REJECT if it must be refused,
+     *         or MANUAL if a human should decide.
+     */
+    AutoApprovalEngine.Decision evaluate(Request request);
+}
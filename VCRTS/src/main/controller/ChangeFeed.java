@@ -0,0 +1,188 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory feed of recent changes to requests, jobs and vehicles.
+ * <p>
+ * Every change gets the next sequence number and is kept in a fixed-size ring
+ * buffer. A client remembers the last sequence it has seen and asks for
+ * anything newer, blocking until a change arrives or the timeout passes. A
+ * client that has fallen further behind than the buffer holds, or whose
+ * cursor is from an earlier run of the server, is told to resync by
+ * reloading its lists.
+ */
+public class ChangeFeed {
+    public static final String ENTITY_REQUEST = "request";
+    public static final String ENTITY_JOB = "job";
+    public static final String ENTITY_VEHICLE = "vehicle";
+
+    // A single item was created or its status changed; the payload is the item
+    public static final String ACTION_UPSERT = "upsert";
+    // Items of this entity changed in ways not described by the feed; reload the list
+    public static final String ACTION_RELOAD = "reload";
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * One recorded change.
+     */
+    public static final class Change {
+        private final long seq;
+        private final String entity;
+        private final String action;
+        private final String key;
+        private final int ownerId;
+        private final Object payload;
+
+        public Change(long seq, String entity, String action, String key, int ownerId, Object payload) {
+            this.seq = seq;
+            this.entity = entity;
+            this.action = action;
+            this.key = key;
+            this.ownerId = ownerId;
+            this.payload = payload;
+        }
+
+        public long getSeq() { return seq; }
+
+        public String getEntity() { return entity; }
+
+        public String getAction() { return action; }
+
+        /** The item's ID (request ID, job ID or VIN), or null for a reload. */
+        public String getKey() { return key; }
+
+        /** The client or owner the item belongs to, or 0 if it is not tied to one. */
+        public int getOwnerId() { return ownerId; }
+
+        /** The changed Request, Job or Vehicle, or null for a reload. */
+        public Object getPayload() { return payload; }
+    }
+
+    /**
+     * The result of a poll: the changes after the caller's cursor, and the
+     * cursor to pass next time.
+     */
+    public static final class Batch {
+        private final List<Change> changes;
+        private final long lastSeq;
+        private final boolean resync;
+
+        public Batch(List<Change> changes, long lastSeq, boolean resync) {
+            this.changes = changes;
+            this.lastSeq = lastSeq;
+            this.resync = resync;
+        }
+
+        public List<Change> getChanges() { return changes; }
+
+        public long getLastSeq() { return lastSeq; }
+
+        /** True if the caller missed changes and must reload everything. */
+        public boolean isResync() { return resync; }
+    }
+
+    private final Change[] ring;
+    // Sequence numbers start from the clock so cursors from a previous run are detected
+    private final long firstSeq = System.currentTimeMillis() * 1000;
+    private long lastSeq = firstSeq;
+
+    // A lock rather than synchronized so long-polling virtual threads do not pin their carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeFeed(int capacity) {
+        this.ring = new Change[capacity];
+    }
+
+    /**
+     * Records a change and wakes up any waiting pollers.
+     *
+     * @return The change's sequence number.
+     */
+    public long publish(String entity, String action, String key, int ownerId, Object payload) {
+        lock.lock();
+        try {
+            long seq = ++lastSeq;
+            ring[(int) (seq % ring.length)] = new Change(seq, entity, action, key, ownerId, payload);
+            changed.signalAll();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the newest change.
+     */
+    public long getLastSeq() {
+        lock.lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for changes after a cursor.
+     *
+     * @param afterSeq The last sequence number the caller has seen, or 0 to start fresh.
+     * @param timeoutMillis How long to wait for a change.
+     * @return The new changes, possibly empty if the timeout passed.
+     */
+    public Batch poll(long afterSeq, long timeoutMillis) throws InterruptedException {
+        return poll(afterSeq, timeoutMillis, change -> true);
+    }
+
+    /**
+     * Waits for changes after a cursor that match a filter. Changes that do not
+     * match still advance the returned cursor.
+     *
+     * @param afterSeq The last sequence number the caller has seen, or 0 to start fresh.
+     * @param timeoutMillis How long to wait for a matching change.
+     * @param filter Selects the changes the caller is interested in.
+     * @return The matching changes, possibly empty if the timeout passed.
+     */
+    public Batch poll(long afterSeq, long timeoutMillis, Predicate<Change> filter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            long cursor = afterSeq;
+            while (true) {
+                long oldestSeq = Math.max(firstSeq + 1, lastSeq - ring.length + 1);
+                if (cursor < oldestSeq - 1 || cursor > lastSeq) {
+                    return new Batch(Collections.emptyList(), lastSeq, true);
+                }
+
+                List<Change> matches = new ArrayList<>();
+                for (long seq = cursor + 1; seq <= lastSeq; seq++) {
+                    Change change = ring[(int) (seq % ring.length)];
+                    if (filter.test(change)) {
+                        matches.add(change);
+                    }
+                }
+                cursor = lastSeq;
+
+                long remaining = deadline - System.nanoTime();
+                if (!matches.isEmpty() || remaining <= 0) {
+                    return new Batch(matches, cursor, false);
+                }
+                changed.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
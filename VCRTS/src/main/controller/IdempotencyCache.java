@@ -0,0 +1,139 @@
+package controller;
+
+import models.Request;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers recently submitted idempotency keys so a retried or double-clicked
+ * submission maps back to the request it already created.
+ * <p>
+ * Entries expire after a fixed time and the oldest are dropped once the cache
+ * is full, so memory stays bounded however many keys clients send. A retry
+ * that arrives while the first attempt is still in progress waits for it
+ * rather than creating a second request.
+ */
+public class IdempotencyCache {
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final class Entry {
+        final String key;
+        final long expiresAt;
+        final CompletableFuture<Request> original = new CompletableFuture<>();
+
+        Entry(String key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Entries in the order they were claimed, for expiry and eviction
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_MILLIS);
+    }
+
+    public IdempotencyCache(int capacity, long ttlMillis) {
+        this.capacity = Math.max(1, capacity);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * A caller's hold on a key. The first caller for a key owns it and must
+     * either {@link #complete} or {@link #release} it; later callers wait for
+     * the owner's outcome with {@link #awaitOriginal()}.
+     */
+    public final class Claim {
+        private final Entry entry;
+        private final boolean owner;
+
+        private Claim(Entry entry, boolean owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        public boolean isOwner() { return owner; }
+
+        /**
+         * Waits for the owner to finish.
+         *
+         * @return The request created under this key, or null if the owner
+         *         released it and the caller should claim the key again.
+         */
+        public Request awaitOriginal() {
+            return entry.original.join();
+        }
+
+        /**
+         * Records the request created under this key and wakes any waiting retries.
+         */
+        public void complete(Request request) {
+            entry.original.complete(request);
+        }
+
+        /**
+         * Gives up the key after the submission failed, so a retry is treated
+         * as a new submission.
+         */
+        public void release() {
+            entries.remove(entry.key, entry);
+            entry.original.complete(null);
+        }
+    }
+
+    /**
+     * Claims a key for a submission.
+     *
+     * @param key The client-scoped idempotency key.
+     * @return A claim that either owns the key or waits on its owner.
+     */
+    public Claim claim(String key) {
+        long now = System.nanoTime();
+        purge(now);
+
+        Entry fresh = new Entry(key, now + ttlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                order.add(fresh);
+                return new Claim(fresh, true);
+            }
+            if (existing.expiresAt - now > 0) {
+                return new Claim(existing, false);
+            }
+            // Expired but not purged yet; replace it
+            entries.remove(key, existing);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops expired entries, then the oldest ones while the cache is over
+     * capacity. A retry already waiting on a dropped entry still gets its outcome.
+     */
+    private void purge(long now) {
+        Entry head;
+        while ((head = order.peek()) != null) {
+            boolean live = entries.get(head.key) == head;
+            if (live && head.expiresAt - now > 0 && entries.size() < capacity) {
+                break;
+            }
+            if (order.remove(head) && live) {
+                entries.remove(head.key, head);
+            }
+        }
+    }
+}
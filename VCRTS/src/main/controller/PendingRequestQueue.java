@@ -0,0 +1,415 @@
+package controller;
+
+import models.Request;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The pending-request queue, split into priority lanes. Requests are handed
+ * out in weighted-fair order: each lane gets a share of the places in line in
+ * proportion to its weight, and requests within a lane stay in submission
+ * order. Urgent work goes first without starving the other lanes.
+ * <p>
+ * A request's lane comes from its type, how close its deadline is and the
+ * client's tier. Requests move up one lane for every aging step they wait,
+ * but aging stops at the normal lane: only a request's own urgency puts it
+ * in the urgent lane, so old requests cannot crowd out the 6/3/1 split. A
+ * bulk request still reaches the normal lane after one step, and every
+ * lane gets its share, so nothing waits indefinitely.
+ */
+public class PendingRequestQueue {
+
+    /**
+     * Priority lanes, most urgent first.
+     */
+    public enum Priority {
+        URGENT(6), NORMAL(3), BULK(1);
+
+        private final int weight;
+
+        Priority(int weight) {
+            this.weight = weight;
+        }
+
+        public int getWeight() { return weight; }
+    }
+
+    /**
+     * Client tiers. Priority clients' requests start one lane higher.
+     */
+    public enum ClientTier { PRIORITY, STANDARD }
+
+    // Jobs due within this many days go in the urgent lane
+    public static final int DEFAULT_URGENT_DEADLINE_DAYS = 1;
+    public static final long DEFAULT_AGING_STEP_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    // How long a computed order is reused when nothing is added or removed
+    private static final long ORDER_REFRESH_MILLIS = 1000;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final class Entry {
+        final Request request;
+        final Priority basePriority;
+        final long submittedMillis;
+
+        Entry(Request request, Priority basePriority, long submittedMillis) {
+            this.request = request;
+            this.basePriority = basePriority;
+            this.submittedMillis = submittedMillis;
+        }
+    }
+
+    // Keyed by request ID, which also gives submission order
+    private final TreeMap<Integer, Entry> entries = new TreeMap<>();
+    private final Map<Integer, ClientTier> clientTiers = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Room held for admitted submissions that have not been added yet; guarded by lock
+    private int reserved;
+
+    private volatile int urgentDeadlineDays = DEFAULT_URGENT_DEADLINE_DAYS;
+    private volatile long agingStepMillis = DEFAULT_AGING_STEP_MILLIS;
+
+    // The last computed order, reused by readers until it goes stale
+    private volatile List<Request> order = Collections.emptyList();
+    private volatile Map<Integer, Priority> priorities = Collections.emptyMap();
+    private volatile long orderComputedAt;
+    private volatile boolean dirty;
+    // Set when the urgent deadline changes, so queued requests get their lanes worked out again
+    private volatile boolean reclassify;
+
+    public PendingRequestQueue() {
+    }
+
+    public PendingRequestQueue(Collection<Request> requests) {
+        addAll(requests);
+    }
+
+    public int getUrgentDeadlineDays() { return urgentDeadlineDays; }
+
+    /**
+     * Sets how soon a job must be due to go in the urgent lane. Requests
+     * already queued are put in their lanes again under the new setting.
+     */
+    public void setUrgentDeadlineDays(int days) {
+        urgentDeadlineDays = Math.max(0, days);
+        reclassify = true;
+        dirty = true;
+    }
+
+    public long getAgingStepMillis() { return agingStepMillis; }
+    public void setAgingStepMillis(long millis) { agingStepMillis = Math.max(1, millis); dirty = true; }
+
+    /**
+     * Sets a client's tier. Requests already queued keep the lane they were
+     * given until the urgent deadline is next changed.
+     */
+    public void setClientTier(int clientId, ClientTier tier) {
+        if (tier == ClientTier.STANDARD) {
+            clientTiers.remove(clientId);
+        } else {
+            clientTiers.put(clientId, tier);
+        }
+    }
+
+    public ClientTier getClientTier(int clientId) {
+        return clientTiers.getOrDefault(clientId, ClientTier.STANDARD);
+    }
+
+    /**
+     * Adds a request. A request that is already queued is left where it is.
+     */
+    public void add(Request request) {
+        addAll(Collections.singletonList(request));
+    }
+
+    /**
+     * Adds several requests, such as ones returned to the queue after a failed
+     * approval. Each goes back to its place by request ID.
+     */
+    public void addAll(Collection<Request> requests) {
+        lock.lock();
+        try {
+            for (Request request : requests) {
+                entries.putIfAbsent(request.getRequestId(),
+                        new Entry(request, classify(request), submittedMillis(request)));
+            }
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves room for one more request. The check and the reservation are
+     * made under the queue lock, so concurrent submissions checked against
+     * the same limit cannot together overfill the queue. A reservation must
+     * be followed by {@link #addReserved(Request)} or {@link #release()}.
+     *
+     * @param limit How many requests may be queued or reserved at once.
+     * @return true if there was room.
+     */
+    public boolean tryReserve(int limit) {
+        lock.lock();
+        try {
+            if (entries.size() + reserved >= limit) {
+                return false;
+            }
+            reserved++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a request in the room reserved for it.
+     */
+    public void addReserved(Request request) {
+        lock.lock();
+        try {
+            reserved = Math.max(0, reserved - 1);
+            add(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back reserved room that will not be used.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            reserved = Math.max(0, reserved - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a request.
+     *
+     * @return true if it was queued, so exactly one caller can claim it.
+     */
+    public boolean remove(Request request) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(request.getRequestId());
+            if (entry == null || entry.request != request) {
+                return false;
+            }
+            entries.remove(request.getRequestId());
+            dirty = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the queued requests in the order they should be handled.
+     *
+     * @return An unmodifiable list.
+     */
+    public List<Request> snapshot() {
+        refreshOrder();
+        return order;
+    }
+
+    /**
+     * Gets the lane a queued request is currently in.
+     *
+     * @return The priority, or null if the request is not queued.
+     */
+    public Priority priorityOf(Request request) {
+        refreshOrder();
+        return priorities.get(request.getRequestId());
+    }
+
+    /**
+     * Counts queued requests per lane.
+     */
+    public Map<Priority, Integer> countByPriority() {
+        refreshOrder();
+        Map<Priority, Integer> counts = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            counts.put(priority, 0);
+        }
+        for (Priority priority : priorities.values()) {
+            counts.merge(priority, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Recomputes the order if the queue changed or requests may have aged
+     * into a higher lane since it was last computed.
+     */
+    private void refreshOrder() {
+        long now = System.currentTimeMillis();
+        if (!dirty && now - orderComputedAt < ORDER_REFRESH_MILLIS) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (!dirty && now - orderComputedAt < ORDER_REFRESH_MILLIS) {
+                return;
+            }
+            if (reclassify) {
+                reclassify = false;
+                entries.replaceAll((id, entry) -> new Entry(entry.request, classify(entry.request), entry.submittedMillis));
+            }
+
+            Map<Priority, List<Request>> lanes = new EnumMap<>(Priority.class);
+            for (Priority priority : Priority.values()) {
+                lanes.put(priority, new ArrayList<>());
+            }
+            Map<Integer, Priority> current = new HashMap<>();
+            for (Entry entry : entries.values()) {
+                Priority priority = age(entry, now);
+                lanes.get(priority).add(entry.request);
+                current.put(entry.request.getRequestId(), priority);
+            }
+
+            order = Collections.unmodifiableList(interleave(lanes));
+            priorities = current;
+            orderComputedAt = now;
+            dirty = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges the lanes by smooth weighted round-robin: every turn each
+     * non-empty lane earns its weight, and the lane with the most credit
+     * gives up its next request and pays back the total.
+     */
+    private static List<Request> interleave(Map<Priority, List<Request>> lanes) {
+        List<Request> merged = new ArrayList<>();
+        Map<Priority, Iterator<Request>> iterators = new EnumMap<>(Priority.class);
+        Map<Priority, Integer> credit = new EnumMap<>(Priority.class);
+        for (Map.Entry<Priority, List<Request>> lane : lanes.entrySet()) {
+            if (!lane.getValue().isEmpty()) {
+                iterators.put(lane.getKey(), lane.getValue().iterator());
+                credit.put(lane.getKey(), 0);
+            }
+        }
+
+        while (!iterators.isEmpty()) {
+            Set<Priority> active = iterators.keySet();
+            int total = 0;
+            Priority best = null;
+            for (Priority priority : active) {
+                int earned = credit.get(priority) + priority.getWeight();
+                credit.put(priority, earned);
+                total += priority.getWeight();
+                if (best == null || earned > credit.get(best)) {
+                    best = priority;
+                }
+            }
+            credit.put(best, credit.get(best) - total);
+
+            Iterator<Request> next = iterators.get(best);
+            merged.add(next.next());
+            if (!next.hasNext()) {
+                iterators.remove(best);
+                credit.remove(best);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Moves a request up one lane for every aging step it has waited, up to
+     * the normal lane.
+     */
+    private Priority age(Entry entry, long now) {
+        int base = entry.basePriority.ordinal();
+        int ceiling = Math.min(base, Priority.NORMAL.ordinal());
+        long steps = Math.max(0, now - entry.submittedMillis) / agingStepMillis;
+        int lane = (int) Math.max(ceiling, base - Math.min(steps, Priority.values().length));
+        return Priority.values()[lane];
+    }
+
+    /**
+     * Picks the starting lane: jobs due soon are urgent, other jobs normal and
+     * vehicle registrations bulk, one lane higher for priority clients.
+     */
+    private Priority classify(Request request) {
+        Priority priority;
+        if (Request.TYPE_ADD_JOB.equals(request.getRequestType())) {
+            priority = isDueSoon(request) ? Priority.URGENT : Priority.NORMAL;
+        } else if (Request.TYPE_REGISTER_VEHICLE.equals(request.getRequestType())) {
+            priority = Priority.BULK;
+        } else {
+            priority = Priority.NORMAL;
+        }
+
+        if (getClientTier(request.getClientId()) == ClientTier.PRIORITY && priority.ordinal() > 0) {
+            priority = Priority.values()[priority.ordinal() - 1];
+        }
+        return priority;
+    }
+
+    /**
+     * Checks a job request's deadline field (jobId|jobName|jobOwnerId|duration|deadline|status).
+     */
+    private boolean isDueSoon(Request request) {
+        String[] parts = request.getRequestData() != null ? request.getRequestData().split("\\|") : new String[0];
+        if (parts.length < 5) {
+            return false;
+        }
+        try {
+            LocalDate deadline = LocalDate.parse(parts[4].trim());
+            return ChronoUnit.DAYS.between(LocalDate.now(), deadline) <= urgentDeadlineDays;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Uses the request's own timestamp so waiting time carries over a restart.
+     */
+    static long submittedMillis(Request request) {
+        try {
+            return LocalDateTime.parse(request.getTimestamp(), TIMESTAMP_FORMATTER)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return System.currentTimeMillis();
+        }
+    }
+}
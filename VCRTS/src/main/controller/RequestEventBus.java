@@ -0,0 +1,64 @@
+package controller;
+
+import models.Request;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers request submissions and status changes to subscribers keyed by client ID.
+ * Publishing only touches the resolved client's listeners, so clients with
+ * nothing happening cost nothing.
+ */
+public class RequestEventBus {
+    private static final Logger logger = Logger.getLogger(RequestEventBus.class.getName());
+
+    private final Map<Integer, List<RequestStatusListener>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a listener for status changes to one client's requests.
+     *
+     * @param clientId The client whose requests to watch.
+     * @param listener The listener to notify.
+     */
+    public void subscribe(int clientId, RequestStatusListener listener) {
+        subscribers.computeIfAbsent(clientId, id -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #subscribe}.
+     *
+     * @param clientId The client the listener was registered for.
+     * @param listener The listener to remove.
+     */
+    public void unsubscribe(int clientId, RequestStatusListener listener) {
+        subscribers.computeIfPresent(clientId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Notifies the listeners of the request's client. A failing listener is
+     * logged and does not stop delivery to the others.
+     *
+     * @param request The request whose status changed.
+     */
+    public void publish(Request request) {
+        List<RequestStatusListener> listeners = subscribers.get(request.getClientId());
+        if (listeners == null) {
+            return;
+        }
+        for (RequestStatusListener listener : listeners) {
+            try {
+                listener.onStatusChanged(request);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Request status listener failed for request #" + request.getRequestId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package controller;
+
+import models.Request;
+
+/**
+ * Receives status changes for requests published on the {@link RequestEventBus}.
+ */
+@FunctionalInterface
+public interface RequestStatusListener {
+
+    /**
+     * Called when a request is submitted (status PENDING), and again after it
+     * leaves the pending state and its outcome is saved. Runs on the thread that
+     * changed the request, so implementations should return quickly and hand UI
+     * work to the event dispatch thread.
+     *
+     * @param request The request, with its current status and response message.
+     */
+    void onStatusChanged(Request request);
+}
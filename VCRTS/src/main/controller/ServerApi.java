@@ -0,0 +1,84 @@
+package controller;
+
+import models.Job;
+import models.Request;
+import models.Vehicle;
+
+import java.util.List;
+
+/**
+ * Operations the Cloud Controller offers to vehicle owners, job owners and
+ * the request panel. {@link ServerController} implements it in-process; a
+ * network client stub implements it for frames running in another JVM.
+ */
+public interface ServerApi {
+
+    /**
+     * Submits a request from a client to the server.
+     *
+     * @param request The request to submit.
+     * @return true if submitted successfully, false otherwise.
+     */
+    boolean submitRequest(Request request);
+
+    /**
+     * Gets all requests waiting for a decision.
+     *
+     * @return A list of pending requests.
+     */
+    List<Request> getPendingRequests();
+
+    /**
+     * Gets all requests, pending and resolved, for a specific client.
+     *
+     * @param clientId The ID of the client.
+     * @return A list of requests for the specified client.
+     */
+    List<Request> getClientRequests(int clientId);
+
+    /**
+     * Approves a pending request.
+     *
+     * @param requestId The ID of the request to approve.
+     * @param responseMessage The response message.
+     * @return true if approved successfully, false otherwise.
+     */
+    boolean approveRequest(int requestId, String responseMessage);
+
+    /**
+     * Rejects a pending request.
+     *
+     * @param requestId The ID of the request to reject.
+     * @param responseMessage The reason for rejection.
+     * @return true if rejected successfully, false otherwise.
+     */
+    boolean rejectRequest(int requestId, String responseMessage);
+
+    /**
+     * Gets the vehicles registered to an owner.
+     *
+     * @param ownerId The ID of the vehicle owner.
+     * @return A list of the owner's vehicles.
+     */
+    List<Vehicle> getVehiclesByOwner(int ownerId);
+
+    /**
+     * Gets a job owner's jobs, filtered by status ("All" returns every job).
+     *
+     * @param clientId The job owner's ID.
+     * @param status The status filter.
+     * @return A list of the client's jobs.
+     */
+    List<Job> getJobsByClient(int clientId, String status);
+
+    /**
+     * Waits for request, job and vehicle changes newer than a cursor. A first
+     * call with cursor 0 returns a resync so the caller loads its lists once.
+     *
+     * @param clientId Only return changes for this client (plus list reloads), or 0 for all.
+     * @param afterSeq The last sequence number the caller has seen.
+     * @param timeoutMillis How long to wait for a change.
+     * @return The changes, or null if the server could not be reached.
+     */
+    ChangeFeed.Batch pollChanges(int clientId, long afterSeq, long timeoutMillis);
+}
@@ -1,5 +1,6 @@
 package controller;
 
+import dao.CloudControllerDAO;
 import dao.JobDAO;
 import dao.RequestDAO;
 import dao.VehicleDAO;
@@ -7,41 +8,176 @@ import models.Job;
 import models.Request;
 import models.Vehicle;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List; // Explicitly import java.util.List
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
  * Controller for managing client-server communication.
  * This is a singleton class to ensure there's only one instance.
  */
-public class ServerController {
+public class ServerController implements ServerApi {
     private static final Logger logger = Logger.getLogger(ServerController.class.getName());
     private static ServerController instance;
     
+    /**
+     * The outcome of a batch approval: the requests that were approved, and
+     * those turned away instead because their job could not meet its deadline.
+     */
+    public static class ApprovalResult {
+        private final List<Integer> approvedIds;
+        private final Map<Integer, String> rejected;
+        
+        ApprovalResult(List<Integer> approvedIds, Map<Integer, String> rejected) {
+            this.approvedIds = approvedIds;
+            this.rejected = rejected;
+        }
+        
+        public List<Integer> getApprovedIds() { return approvedIds; }
+        
+        /**
+         * Returns the requests rejected at admission, mapped to the reason sent to the client.
+         */
+        public Map<Integer, String> getRejected() { return rejected; }
+    }
+    
+    // Worker pool limits: at most this many tasks run at once, and this many more may wait
+    public static final int WORKER_THREADS = 16;
+    public static final int WORKER_QUEUE_CAPACITY = 512;
+    private static final long AUTO_PROCESS_INTERVAL_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    private static final long LIMITER_CLEANUP_INTERVAL_MS = 60000;
+    private static final long EXPIRY_TICK_MS = 1000;
+    private static final int EXPIRY_WHEEL_SLOTS = 512;
+    
+    // How long a request may stay pending before it expires
+    public static final Duration DEFAULT_JOB_REQUEST_TTL = Duration.ofDays(3);
+    public static final Duration DEFAULT_VEHICLE_REQUEST_TTL = Duration.ofDays(1);
+    private static final DateTimeFormatter COMPLETION_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
     private RequestDAO requestDAO;
     private JobDAO jobDAO;
     private VehicleDAO vehicleDAO;
+    private CloudControllerDAO cloudControllerDAO;
+    
+    // In-memory storage for pending requests, in priority lanes
+    private PendingRequestQueue pendingRequests;
+    
+    // Rules used to approve or reject requests without a human
+    private AutoApprovalEngine autoApprovalEngine;
+    
+    // Per-client rate limits and the cap on the pending queue
+    private final SubmissionLimiter submissionLimiter = new SubmissionLimiter();
+    
+    // Whether approved jobs that could not finish by their deadline are turned away
+    private volatile boolean deadlineAdmission = true;
+    
+    // Time-to-live per request type, and the wheel that fires when each pending request is due to expire
+    private final Map<String, Duration> requestTtls = new ConcurrentHashMap<>();
+    private final TimerWheel<Request> expiryWheel = new TimerWheel<>(EXPIRY_TICK_MS, EXPIRY_WHEEL_SLOTS);
+    private final AtomicLong expiredCount = new AtomicLong();
+    
+    // Recent idempotency keys, so retried submissions return the request they already created
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache();
+    
+    // Requests the engine has already sent to manual review
+    private Set<Integer> manualReviewIds;
+    
+    // Bounded pool of virtual-thread workers for submissions, approvals and persistence
+    private ThreadPoolExecutor workers;
     
-    // In-memory storage for pending requests
-    private CopyOnWriteArrayList<Request> pendingRequests;
+    // Triggers the periodic auto-approval pass on the worker pool
+    private ScheduledExecutorService scheduler;
+    private final AtomicBoolean autoProcessing = new AtomicBoolean();
     
-    // Thread for processing requests
-    private RequestProcessorThread processorThread;
+    // Bumped whenever a request is submitted or resolved, so readers can tell if anything changed
+    private final AtomicLong stateVersion = new AtomicLong();
+    
+    // Pushes submissions, approvals and rejections to subscribers for the request's client
+    private final RequestEventBus eventBus = new RequestEventBus();
+    
+    // Per-client change counters, so a client can check for updates without loading its requests
+    private final Map<Integer, AtomicLong> clientVersions = new ConcurrentHashMap<>();
+    
+    // Recent request, job and vehicle changes for long-polling and streaming clients
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    
+    // Last seen versions of the job and vehicle files, to spot changes made outside this controller
+    private volatile long knownJobsVersion;
+    private volatile long knownVehiclesVersion;
     
     // Private constructor (singleton pattern)
     private ServerController() {
         requestDAO = new RequestDAO();
         jobDAO = new JobDAO();
         vehicleDAO = new VehicleDAO();
-        pendingRequests = new CopyOnWriteArrayList<>();
+        cloudControllerDAO = new CloudControllerDAO();
+        
+        // Rebuild the pending queue from the journal, dropping resolved entries
+        List<Request> recoveredRequests = requestDAO.getPendingRequests();
+        requestDAO.compactRequestQueue(recoveredRequests);
+        pendingRequests = new PendingRequestQueue(recoveredRequests);
+        applyPriorityClients(System.getProperty("vcrts.priority.clients"));
+        
+        requestTtls.put(Request.TYPE_ADD_JOB, DEFAULT_JOB_REQUEST_TTL);
+        requestTtls.put(Request.TYPE_REGISTER_VEHICLE, DEFAULT_VEHICLE_REQUEST_TTL);
+        for (Request request : recoveredRequests) {
+            scheduleExpiry(request);
+        }
+        
+        autoApprovalEngine = AutoApprovalEngine.createDefault();
+        manualReviewIds = ConcurrentHashMap.newKeySet();
+        
+        // Seed the request ID sequence from storage before the first submission
+        int lastRequestId = RequestDAO.lastRequestId();
         
-        // Start the request processor thread
-        processorThread = new RequestProcessorThread();
-        processorThread.start();
+        // Virtual threads are cheap to create, but the pool still bounds how many run and wait
+        workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY),
+                Thread.ofVirtual().name("vcrts-worker-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        workers.allowCoreThreadTimeOut(true);
         
-        logger.info("ServerController initialized with request processor thread");
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("vcrts-scheduler").factory());
+        scheduler.scheduleWithFixedDelay(this::scheduleAutoProcessing,
+                AUTO_PROCESS_INTERVAL_MS, AUTO_PROCESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(submissionLimiter::evictIdleBuckets,
+                LIMITER_CLEANUP_INTERVAL_MS, LIMITER_CLEANUP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::expireStaleRequests,
+                EXPIRY_TICK_MS, EXPIRY_TICK_MS, TimeUnit.MILLISECONDS);
+        
+        knownJobsVersion = jobDAO.getDataVersion();
+        knownVehiclesVersion = vehicleDAO.getDataVersion();
+        scheduler.scheduleWithFixedDelay(this::checkDataFiles,
+                AUTO_PROCESS_INTERVAL_MS, AUTO_PROCESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        
+        // Drain queued work before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+        
+        logger.info("ServerController initialized with " + WORKER_THREADS + " workers (last request ID " + lastRequestId
+                + ", " + recoveredRequests.size() + " pending requests recovered)");
     }
     
     /**
@@ -59,16 +195,294 @@ public class ServerController {
      * 
      * @param request The request to submit.
      * @return true if submitted successfully, false otherwise.
+     * @see #submit(Request)
      */
+    @Override
     public boolean submitRequest(Request request) {
-        // Generate a unique ID for the request
-        int requestId = pendingRequests.size() + 1;
-        request.setRequestId(requestId);
+        return submit(request).isAccepted();
+    }
+    
+    /**
+     * Submits a request from a client to the server, subject to the client's
+     * rate limit and the pending queue's capacity. A refused request is marked
+     * rejected with the reason as its response message, and is not stored.
+     * <p>
+     * If the request carries an idempotency key the client has used recently,
+     * nothing new is stored; the request is filled in with the ID and status
+     * of the one created the first time.
+     * 
+     * @param request The request to submit.
+     * @return Whether the request was accepted, and if not, why and when to retry.
+     */
+    public SubmissionLimiter.Result submit(Request request) {
+        String key = request.getIdempotencyKey();
+        if (key == null || key.isEmpty()) {
+            return admitAndStore(request);
+        }
+        
+        // Keys are only unique per client
+        String scopedKey = request.getClientId() + "|" + key;
+        while (true) {
+            IdempotencyCache.Claim claim = idempotencyCache.claim(scopedKey);
+            if (claim.isOwner()) {
+                SubmissionLimiter.Result result = null;
+                try {
+                    result = admitAndStore(request);
+                } finally {
+                    if (result != null && result.isAccepted()) {
+                        claim.complete(request);
+                    } else {
+                        claim.release();
+                    }
+                }
+                return result;
+            }
+            
+            Request original = claim.awaitOriginal();
+            if (original != null) {
+                request.setRequestId(original.getRequestId());
+                request.setStatus(original.getStatus());
+                request.setTimestamp(original.getTimestamp());
+                request.setResponseMessage(original.getResponseMessage());
+                logger.fine("Duplicate submission of request #" + original.getRequestId() + " ignored");
+                return SubmissionLimiter.Result.DUPLICATE;
+            }
+            // The first attempt was refused, so this one gets its own chance
+        }
+    }
+    
+    private SubmissionLimiter.Result admitAndStore(Request request) {
+        // Holds a place in the queue, so concurrent submissions cannot overshoot the cap
+        SubmissionLimiter.Result admission = submissionLimiter.admit(request, pendingRequests);
+        if (!admission.isAccepted()) {
+            request.setStatus(Request.STATUS_REJECTED);
+            request.setResponseMessage(admission.getMessage());
+            logger.fine("Refused " + request.getRequestType() + " request from client " + request.getClientId()
+                    + ": " + admission.getDecision());
+            return admission;
+        }
         
-        // Add to pending requests (in memory)
-        pendingRequests.add(request);
+        int requestId;
+        try {
+            // Take the ID from the shared sequence so it stays stable once the request is stored
+            requestId = RequestDAO.nextRequestId();
+            request.setRequestId(requestId);
+            
+            // Journal the request so it survives a restart, then add it to the pending queue
+            requestDAO.journalSubmitted(request);
+        } catch (RuntimeException e) {
+            pendingRequests.release();
+            throw e;
+        }
+        pendingRequests.addReserved(request);
+        scheduleExpiry(request);
+        stateVersion.incrementAndGet();
+        clientVersion(request.getClientId()).incrementAndGet();
+        eventBus.publish(request);
+        publishRequestChange(request);
         logger.info("Request #" + requestId + " submitted and added to pending queue");
-        return true;
+        return admission;
+    }
+    
+    /**
+     * Sets how the worker pool handles tasks once its queue is full. The default
+     * aborts the task, so the caller's future fails and the client is told the
+     * server is busy.
+     * 
+     * @param handler The rejection policy to use.
+     */
+    public void setRejectionPolicy(RejectedExecutionHandler handler) {
+        workers.setRejectedExecutionHandler(handler);
+    }
+    
+    /**
+     * Gets the number of tasks waiting for a free worker.
+     */
+    public int getWorkerQueueDepth() {
+        return workers.getQueue().size();
+    }
+    
+    /**
+     * Runs a task on the worker pool.
+     * 
+     * @return A future for the task's result. It fails with a
+     *         RejectedExecutionException if the queue is full or the
+     *         controller is shutting down.
+     */
+    private <T> CompletableFuture<T> runOnWorker(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, workers);
+        } catch (RejectedExecutionException e) {
+            logger.warning("Worker pool rejected task: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Submits a request on the worker pool.
+     * 
+     * @param request The request to submit.
+     * @return A future that completes with true if the request was accepted,
+     *         or false if it failed or the server was too busy to take it.
+     */
+    public CompletableFuture<Boolean> submitRequestAsync(Request request) {
+        return runOnWorker(() -> submitRequest(request)).exceptionally(e -> false);
+    }
+    
+    /**
+     * Approves several requests on the worker pool.
+     * 
+     * @see #approveAll(Collection, String)
+     */
+    public CompletableFuture<ApprovalResult> approveAllAsync(Collection<Integer> requestIds, String responseMessage) {
+        return runOnWorker(() -> approveAll(requestIds, responseMessage));
+    }
+    
+    /**
+     * Rejects several requests on the worker pool.
+     * 
+     * @see #rejectAll(Collection, String)
+     */
+    public CompletableFuture<List<Integer>> rejectAllAsync(Collection<Integer> requestIds, String responseMessage) {
+        return runOnWorker(() -> rejectAll(requestIds, responseMessage));
+    }
+    
+    /**
+     * Loads the requests for a client on the worker pool.
+     * 
+     * @see #getClientRequests(int)
+     */
+    public CompletableFuture<List<Request>> getClientRequestsAsync(int clientId) {
+        return runOnWorker(() -> getClientRequests(clientId));
+    }
+    
+    /**
+     * Loads a client's jobs on the worker pool.
+     * 
+     * @see #getJobsByClient(int, String)
+     */
+    public CompletableFuture<List<Job>> getJobsByClientAsync(int clientId, String status) {
+        return runOnWorker(() -> getJobsByClient(clientId, status));
+    }
+    
+    /**
+     * Stops accepting new work and lets queued tasks finish, then flushes the
+     * request journal. Safe to call more than once.
+     */
+    public void shutdown() {
+        if (workers.isShutdown()) {
+            return;
+        }
+        
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                logger.warning("Worker pool did not drain in time; " + workers.getQueue().size() + " task(s) dropped");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        // The workers have stopped, so nothing else will be journaled
+        if (!requestDAO.closeJournal()) {
+            logger.warning("Request journal was not fully written on shutdown");
+        }
+        logger.info("ServerController shut down");
+    }
+    
+    /**
+     * Gets the bus that publishes request status changes to subscribed clients.
+     * 
+     * @return The request event bus.
+     */
+    public RequestEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * Gets the feed of recent request, job and vehicle changes.
+     * 
+     * @return The change feed.
+     */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+    
+    @Override
+    public ChangeFeed.Batch pollChanges(int clientId, long afterSeq, long timeoutMillis) {
+        try {
+            return changeFeed.poll(afterSeq, timeoutMillis,
+                    change -> clientId <= 0 || change.getOwnerId() == 0 || change.getOwnerId() == clientId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ChangeFeed.Batch(new ArrayList<>(), afterSeq, false);
+        }
+    }
+    
+    private void publishRequestChange(Request request) {
+        changeFeed.publish(ChangeFeed.ENTITY_REQUEST, ChangeFeed.ACTION_UPSERT,
+                String.valueOf(request.getRequestId()), request.getClientId(), request);
+    }
+    
+    /**
+     * Publishes a reload to the change feed when the job or vehicle files were
+     * changed by something other than this controller, such as the scheduler
+     * updating job states.
+     */
+    private void checkDataFiles() {
+        long jobsVersion = jobDAO.getDataVersion();
+        if (jobsVersion != knownJobsVersion) {
+            knownJobsVersion = jobsVersion;
+            changeFeed.publish(ChangeFeed.ENTITY_JOB, ChangeFeed.ACTION_RELOAD, null, 0, null);
+        }
+        long vehiclesVersion = vehicleDAO.getDataVersion();
+        if (vehiclesVersion != knownVehiclesVersion) {
+            knownVehiclesVersion = vehiclesVersion;
+            changeFeed.publish(ChangeFeed.ENTITY_VEHICLE, ChangeFeed.ACTION_RELOAD, null, 0, null);
+        }
+    }
+    
+    /**
+     * Gets the pending-request queue, for its priority settings.
+     * 
+     * @return The pending-request queue.
+     */
+    public PendingRequestQueue getPendingQueue() {
+        return pendingRequests;
+    }
+    
+    /**
+     * Gets the rate limiter applied to submissions.
+     * 
+     * @return The submission limiter.
+     */
+    public SubmissionLimiter getSubmissionLimiter() {
+        return submissionLimiter;
+    }
+    
+    /**
+     * Gets the rules engine used by the periodic auto-approval pass.
+     * 
+     * @return The auto-approval engine.
+     */
+    public AutoApprovalEngine getAutoApprovalEngine() {
+        return autoApprovalEngine;
+    }
+    
+    public boolean isDeadlineAdmissionEnabled() {
+        return deadlineAdmission;
+    }
+    
+    /**
+     * Turns deadline admission on or off. While it is on, approving a job
+     * that the current schedule could not finish by its deadline rejects it
+     * instead.
+     */
+    public void setDeadlineAdmissionEnabled(boolean enabled) {
+        deadlineAdmission = enabled;
     }
     
     /**
@@ -76,8 +490,9 @@ public class ServerController {
      * 
      * @return A list of pending requests.
      */
+    @Override
     public List<Request> getPendingRequests() {
-        return new ArrayList<>(pendingRequests);
+        return new ArrayList<>(pendingRequests.snapshot());
     }
     
     /**
@@ -87,10 +502,11 @@ public class ServerController {
      * @param clientId The ID of the client.
      * @return A list of requests for the specified client.
      */
+    @Override
     public List<Request> getClientRequests(int clientId) {
         // Get requests from memory
         List<Request> clientRequests = new ArrayList<>();
-        for (Request request : pendingRequests) {
+        for (Request request : pendingRequests.snapshot()) {
             if (request.getClientId() == clientId) {
                 clientRequests.add(request);
             }
@@ -105,6 +521,65 @@ public class ServerController {
         return clientRequests;
     }
     
+    /**
+     * Gets every request the server knows about: pending ones first, then stored ones.
+     * 
+     * @return A list of all requests.
+     */
+    public List<Request> getAllRequests() {
+        List<Request> allRequests = new ArrayList<>(pendingRequests.snapshot());
+        allRequests.addAll(requestDAO.getAllRequests());
+        return allRequests;
+    }
+    
+    /**
+     * Gets a version number that changes whenever a request is submitted or resolved.
+     * 
+     * @return The current request state version.
+     */
+    public long getStateVersion() {
+        return stateVersion.get();
+    }
+    
+    /**
+     * Gets a version number that changes whenever one of the client's requests
+     * is submitted or resolved.
+     * 
+     * @param clientId The ID of the client.
+     * @return The client's current request version.
+     */
+    public long getClientVersion(int clientId) {
+        AtomicLong version = clientVersions.get(clientId);
+        return version != null ? version.get() : 0;
+    }
+    
+    private AtomicLong clientVersion(int clientId) {
+        return clientVersions.computeIfAbsent(clientId, id -> new AtomicLong());
+    }
+    
+    /**
+     * Gets the vehicles registered to an owner.
+     * 
+     * @param ownerId The ID of the vehicle owner.
+     * @return A list of the owner's vehicles.
+     */
+    @Override
+    public List<Vehicle> getVehiclesByOwner(int ownerId) {
+        return vehicleDAO.getVehiclesByOwner(ownerId);
+    }
+    
+    /**
+     * Gets a job owner's jobs, filtered by status.
+     * 
+     * @param clientId The job owner's ID.
+     * @param status The status filter ("All" returns every job).
+     * @return A list of the client's jobs.
+     */
+    @Override
+    public List<Job> getJobsByClient(int clientId, String status) {
+        return jobDAO.getJobsByClient(clientId, status);
+    }
+    
     /**
      * Approves a request and processes it.
      * 
@@ -112,47 +587,116 @@ public class ServerController {
      * @param responseMessage The response message.
      * @return true if approved successfully, false otherwise.
      */
+    @Override
     public boolean approveRequest(int requestId, String responseMessage) {
-        // Find the request in the pending list
-        Request targetRequest = null;
-        for (Request request : pendingRequests) {
-            if (request.getRequestId() == requestId) {
-                targetRequest = request;
-                break;
+        return approveAll(Collections.singletonList(requestId), responseMessage).getApprovedIds().contains(requestId);
+    }
+    
+    /**
+     * Approves several requests at once. Request data is validated in parallel,
+     * all new vehicles and jobs are written as one batch per file, and the
+     * approved and the rejected outcomes are each persisted in a single append.
+     * The vehicles go in first, so the jobs' deadline check counts them.
+     * 
+     * @param requestIds The IDs of the requests to approve.
+     * @param responseMessage The response message for every approved request.
+     * @return The requests that were approved. Requests that are not pending
+     *         or whose data is invalid stay in the pending queue. With
+     *         deadline admission on, jobs the schedule could not finish by
+     *         their deadline are rejected instead, and are listed in the
+     *         result with the earliest they could complete as the reason.
+     */
+    public ApprovalResult approveAll(Collection<Integer> requestIds, String responseMessage) {
+        List<Request> targets = findPendingRequests(requestIds);
+        
+        // Parse and validate request data in parallel
+        Map<Integer, Vehicle> parsedVehicles = new ConcurrentHashMap<>();
+        Map<Integer, Job> parsedJobs = new ConcurrentHashMap<>();
+        targets.parallelStream().forEach(request -> {
+            if (Request.TYPE_REGISTER_VEHICLE.equals(request.getRequestType())) {
+                Vehicle vehicle = parseVehicleRegistration(request);
+                if (vehicle != null) {
+                    parsedVehicles.put(request.getRequestId(), vehicle);
+                }
+            } else if (Request.TYPE_ADD_JOB.equals(request.getRequestType())) {
+                Job job = parseJobAddition(request);
+                if (job != null) {
+                    parsedJobs.put(request.getRequestId(), job);
+                }
             }
-        }
+        });
         
-        if (targetRequest == null) {
-            return false; // Request not found
+        // Claim the valid requests; a request already taken by another caller is skipped
+        List<Request> vehicleRequests = new ArrayList<>();
+        List<Request> jobRequests = new ArrayList<>();
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        for (Request request : targets) {
+            Vehicle vehicle = parsedVehicles.get(request.getRequestId());
+            Job job = parsedJobs.get(request.getRequestId());
+            if ((vehicle == null && job == null) || !pendingRequests.remove(request)) {
+                continue;
+            }
+            if (vehicle != null) {
+                vehicleRequests.add(request);
+                vehicles.add(vehicle);
+            } else {
+                jobRequests.add(request);
+                jobs.add(job);
+            }
         }
         
-        // Process the request based on its type
-        boolean success = false;
-        
-        if (Request.TYPE_REGISTER_VEHICLE.equals(targetRequest.getRequestType())) {
-            // Parse vehicle data and register it
-            success = processVehicleRegistration(targetRequest);
-        } else if (Request.TYPE_ADD_JOB.equals(targetRequest.getRequestType())) {
-            // Parse job data and add it
-            success = processJobAddition(targetRequest);
+        // Apply the inserts as one write per file, returning requests to the queue on failure
+        List<Request> approvedRequests = new ArrayList<>();
+        if (!vehicles.isEmpty()) {
+            if (vehicleDAO.addVehicles(vehicles)) {
+                approvedRequests.addAll(vehicleRequests);
+                knownVehiclesVersion = vehicleDAO.getDataVersion();
+                for (Vehicle vehicle : vehicles) {
+                    changeFeed.publish(ChangeFeed.ENTITY_VEHICLE, ChangeFeed.ACTION_UPSERT,
+                            vehicle.getVin(), vehicle.getOwnerId(), vehicle);
+                }
+            } else {
+                pendingRequests.addAll(vehicleRequests);
+            }
         }
         
-        if (success) {
-            // Update request status
-            targetRequest.setStatus(Request.STATUS_APPROVED);
-            targetRequest.setResponseMessage(responseMessage);
-            
-            // Save the approved request to database
-            requestDAO.addRequest(targetRequest);
-            
-            // Remove from pending requests
-            pendingRequests.remove(targetRequest);
+        // Jobs go in after the vehicles, so the deadline check counts this batch's vehicles too;
+        // jobs that could only finish late are turned away, they would hold up the queue for nothing
+        Map<Integer, String> lateRejections = new LinkedHashMap<>();
+        if (!jobs.isEmpty()) {
+            CloudControllerDAO.AdmissionResult admission = cloudControllerDAO.admitJobs(jobs, deadlineAdmission);
+            List<Request> lateRequests = new ArrayList<>();
+            List<Request> admittedRequests = new ArrayList<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                Job job = jobs.get(i);
+                Request request = jobRequests.get(i);
+                LocalDateTime completion = admission.getLate().get(job.getJobId());
+                if (completion == null) {
+                    admittedRequests.add(request);
+                    continue;
+                }
+                lateRequests.add(request);
+                lateRejections.put(request.getRequestId(), "Rejected: cannot finish by its deadline of "
+                        + job.getDeadline() + "; the earliest it could complete is "
+                        + completion.format(COMPLETION_FORMATTER) + ".");
+            }
+            resolveAll(lateRequests, Request.STATUS_REJECTED, lateRejections);
             
-            logger.info("Request #" + requestId + " approved and processed");
-            return true;
+            if (admission.isAdded()) {
+                approvedRequests.addAll(admittedRequests);
+                knownJobsVersion = jobDAO.getDataVersion();
+                for (Job job : admission.getAdmitted()) {
+                    changeFeed.publish(ChangeFeed.ENTITY_JOB, ChangeFeed.ACTION_UPSERT,
+                            job.getJobId(), job.getJobOwnerId(), job);
+                }
+            } else {
+                pendingRequests.addAll(admittedRequests);
+            }
         }
         
-        return false;
+        return new ApprovalResult(resolveAll(approvedRequests, Request.STATUS_APPROVED, responseMessage),
+                lateRejections);
     }
     
     /**
@@ -162,47 +706,109 @@ public class ServerController {
      * @param responseMessage The reason for rejection.
      * @return true if rejected successfully, false otherwise.
      */
+    @Override
     public boolean rejectRequest(int requestId, String responseMessage) {
-        // Find the request in the pending list
-        Request targetRequest = null;
-        for (Request request : pendingRequests) {
-            if (request.getRequestId() == requestId) {
-                targetRequest = request;
-                break;
+        return rejectAll(Collections.singletonList(requestId), responseMessage).contains(requestId);
+    }
+    
+    /**
+     * Rejects several requests at once, persisting all outcomes in a single append.
+     * 
+     * @param requestIds The IDs of the requests to reject.
+     * @param responseMessage The reason for rejection.
+     * @return The IDs of the requests that were rejected.
+     */
+    public List<Integer> rejectAll(Collection<Integer> requestIds, String responseMessage) {
+        List<Request> rejectedRequests = new ArrayList<>();
+        for (Request request : findPendingRequests(requestIds)) {
+            if (pendingRequests.remove(request)) {
+                rejectedRequests.add(request);
             }
         }
         
-        if (targetRequest == null) {
-            return false; // Request not found
+        return resolveAll(rejectedRequests, Request.STATUS_REJECTED, responseMessage);
+    }
+    
+    /**
+     * Finds the pending requests with the given IDs, in priority order.
+     */
+    private List<Request> findPendingRequests(Collection<Integer> requestIds) {
+        Set<Integer> ids = new HashSet<>(requestIds);
+        List<Request> found = new ArrayList<>();
+        for (Request request : pendingRequests.snapshot()) {
+            if (ids.contains(request.getRequestId())) {
+                found.add(request);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Sets the final status on already-claimed requests and persists the outcomes.
+     * 
+     * @return The IDs of the resolved requests.
+     */
+    private List<Integer> resolveAll(List<Request> requests, String status, String responseMessage) {
+        for (Request request : requests) {
+            request.setResponseMessage(responseMessage);
+        }
+        return resolveAll(requests, status);
+    }
+    
+    /**
+     * Sets the final status on already-claimed requests, each with its own
+     * response message, and persists the outcomes.
+     * 
+     * @param responseMessages The response message for each request, by request ID.
+     * @return The IDs of the resolved requests.
+     */
+    private List<Integer> resolveAll(List<Request> requests, String status, Map<Integer, String> responseMessages) {
+        for (Request request : requests) {
+            request.setResponseMessage(responseMessages.get(request.getRequestId()));
+        }
+        return resolveAll(requests, status);
+    }
+    
+    private List<Integer> resolveAll(List<Request> requests, String status) {
+        List<Integer> resolvedIds = new ArrayList<>();
+        if (requests.isEmpty()) {
+            return resolvedIds;
         }
         
-        // Update request status
-        targetRequest.setStatus(Request.STATUS_REJECTED);
-        targetRequest.setResponseMessage(responseMessage);
+        for (Request request : requests) {
+            request.setStatus(status);
+            resolvedIds.add(request.getRequestId());
+        }
         
-        // Save the rejected request to database
-        requestDAO.addRequest(targetRequest);
+        // Save all outcomes to the database in one append and close them in the journal
+        requestDAO.addRequests(requests);
+        requestDAO.journalResolvedAll(requests);
+        stateVersion.incrementAndGet();
         
-        // Remove from pending requests
-        pendingRequests.remove(targetRequest);
+        logger.info(requests.size() + " request(s) " + status.toLowerCase() + ": " + resolvedIds);
         
-        logger.info("Request #" + requestId + " rejected");
-        return true;
+        // Tell subscribed clients only after the outcome is saved
+        for (Request request : requests) {
+            clientVersion(request.getClientId()).incrementAndGet();
+            eventBus.publish(request);
+            publishRequestChange(request);
+        }
+        return resolvedIds;
     }
     
     /**
-     * Processes a vehicle registration request.
+     * Parses the vehicle carried by a vehicle registration request.
      * 
-     * @param request The request to process.
-     * @return true if processed successfully, false otherwise.
+     * @param request The request to parse.
+     * @return The vehicle to register, or null if the data is invalid.
      */
-    private boolean processVehicleRegistration(Request request) {
+    private Vehicle parseVehicleRegistration(Request request) {
         try {
             // Parse vehicle data from the request
             // Format: ownerId|model|make|year|vin|residencyTime
             String[] parts = request.getRequestData().split("\\|");
             if (parts.length < 6) {
-                return false; // Invalid data format
+                return null; // Invalid data format
             }
             
             int ownerId = Integer.parseInt(parts[0]);
@@ -212,29 +818,27 @@ public class ServerController {
             String vin = parts[4];
             String residencyTime = parts[5];
             
-            // Create and add the vehicle
-            Vehicle vehicle = new Vehicle(ownerId, model, make, year, vin, residencyTime);
-            return vehicleDAO.addVehicle(vehicle);
+            return new Vehicle(ownerId, model, make, year, vin, residencyTime);
             
         } catch (Exception e) {
             logger.warning("Error processing vehicle registration: " + e.getMessage());
-            return false;
+            return null;
         }
     }
     
     /**
-     * Processes a job addition request.
+     * Parses the job carried by a job addition request.
      * 
-     * @param request The request to process.
-     * @return true if processed successfully, false otherwise.
+     * @param request The request to parse.
+     * @return The job to add, or null if the data is invalid.
      */
-    private boolean processJobAddition(Request request) {
+    private Job parseJobAddition(Request request) {
         try {
             // Parse job data from the request
-            // Format: jobId|jobName|jobOwnerId|duration|deadline|status
+            // Format: jobId|jobName|jobOwnerId|duration|deadline|status[|replicas]
             String[] parts = request.getRequestData().split("\\|");
             if (parts.length < 6) {
-                return false; // Invalid data format
+                return null; // Invalid data format
             }
             
             String jobId = parts[0];
@@ -244,49 +848,202 @@ public class ServerController {
             String deadline = parts[4];
             String status = parts[5];
             
-            // Create and add the job
             Job job = new Job(jobId, jobName, jobOwnerId, duration, deadline, status);
-            return jobDAO.addJob(job);
+            if (parts.length >= 7) {
+                job.setReplicas(Integer.parseInt(parts[6]));
+            }
+            return job;
             
         } catch (Exception e) {
             logger.warning("Error processing job addition: " + e.getMessage());
-            return false;
+            return null;
         }
     }
     
     /**
-     * Thread class for processing requests in background
+     * Runs one auto-approval pass over the pending queue. Requests are evaluated
+     * in priority order, in batches; approvals and rejections for each batch are applied together,
+     * and requests that need a human stay in the queue for the Cloud Controller.
+     * 
+     * @return The number of requests approved or rejected.
      */
-    private class RequestProcessorThread extends Thread {
-        private boolean running = true;
+    public int processPendingRequests() {
+        if (!autoApprovalEngine.isEnabled()) {
+            return 0;
+        }
         
-        public RequestProcessorThread() {
-            setDaemon(true); // Set as daemon thread so it doesn't prevent JVM from exiting
+        // Forget review decisions for requests that have left the queue
+        Set<Integer> pendingIds = new HashSet<>();
+        for (Request request : pendingRequests.snapshot()) {
+            pendingIds.add(request.getRequestId());
         }
+        manualReviewIds.retainAll(pendingIds);
         
-        @Override
-        public void run() {
-            logger.info("Request processor thread started");
+        List<Request> candidates = new ArrayList<>();
+        for (Request request : pendingRequests.snapshot()) {
+            if (!manualReviewIds.contains(request.getRequestId())) {
+                candidates.add(request);
+            }
+        }
+        
+        int processed = 0;
+        int batchSize = autoApprovalEngine.getBatchSize();
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            List<Request> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            autoApprovalEngine.beginBatch();
             
-            while (running) {
-                try {
-                    // This thread could be used for automatic processing of requests
-                    // or for other background tasks related to the server
-                    
-                    // Sleep to avoid excessive CPU usage
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    logger.warning("Request processor thread interrupted: " + e.getMessage());
-                    running = false;
+            List<Integer> approveIds = new ArrayList<>();
+            Map<String, List<Integer>> rejectIdsByRule = new HashMap<>();
+            for (Request request : batch) {
+                boolean knownType = Request.TYPE_REGISTER_VEHICLE.equals(request.getRequestType())
+                        || Request.TYPE_ADD_JOB.equals(request.getRequestType());
+                AutoApprovalEngine.Result result = autoApprovalEngine.evaluate(request);
+                
+                if (knownType && result.getDecision() == AutoApprovalEngine.Decision.APPROVE) {
+                    approveIds.add(request.getRequestId());
+                } else if (knownType && result.getDecision() == AutoApprovalEngine.Decision.REJECT) {
+                    rejectIdsByRule.computeIfAbsent(result.getRuleName(), k -> new ArrayList<>())
+                            .add(request.getRequestId());
+                } else {
+                    manualReviewIds.add(request.getRequestId());
                 }
             }
             
-            logger.info("Request processor thread stopped");
+            ApprovalResult approval = approveAll(approveIds, "Automatically approved: all rules passed.");
+            processed += approval.getApprovedIds().size() + approval.getRejected().size();
+            
+            // Anything that passed the rules but could not be applied goes to a human
+            approveIds.removeAll(approval.getApprovedIds());
+            approveIds.removeAll(approval.getRejected().keySet());
+            manualReviewIds.addAll(approveIds);
+            
+            for (Map.Entry<String, List<Integer>> entry : rejectIdsByRule.entrySet()) {
+                processed += rejectAll(entry.getValue(), "Automatically rejected: failed " + entry.getKey() + " check.").size();
+            }
         }
         
-        public void stopProcessing() {
-            running = false;
-            interrupt();
+        return processed;
+    }
+    
+    /**
+     * Sets how long requests of one type may stay pending before they expire.
+     * Requests already waiting keep their current expiry time, and are checked
+     * against the new value when it comes up.
+     * 
+     * @param requestType The request type.
+     * @param ttl The time-to-live, or null to let requests of this type wait indefinitely.
+     */
+    public void setRequestTtl(String requestType, Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            requestTtls.remove(requestType);
+        } else {
+            requestTtls.put(requestType, ttl);
         }
     }
-}
+    
+    /**
+     * Gets how long requests of one type may stay pending.
+     * 
+     * @return The time-to-live, or null if requests of this type never expire.
+     */
+    public Duration getRequestTtl(String requestType) {
+        return requestTtls.get(requestType);
+    }
+    
+    /**
+     * Gets the number of requests that have expired since the server started.
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+    
+    private void scheduleExpiry(Request request) {
+        Duration ttl = requestTtls.get(request.getRequestType());
+        if (ttl != null) {
+            expiryWheel.schedule(request, PendingRequestQueue.submittedMillis(request) + ttl.toMillis());
+        }
+    }
+    
+    /**
+     * Expires the pending requests whose timers fired on this tick. Each is
+     * rechecked against its type's current TTL, persisted with the EXPIRED
+     * status and published so the owner is notified.
+     */
+    private void expireStaleRequests() {
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, List<Request>> expiredByType = new HashMap<>();
+            for (Request request : expiryWheel.advance(now)) {
+                Duration ttl = requestTtls.get(request.getRequestType());
+                if (ttl == null) {
+                    continue;
+                }
+                long deadline = PendingRequestQueue.submittedMillis(request) + ttl.toMillis();
+                if (deadline > now) {
+                    // The TTL was raised after this timer was set
+                    expiryWheel.schedule(request, deadline);
+                } else if (pendingRequests.remove(request)) {
+                    expiredByType.computeIfAbsent(request.getRequestType(), k -> new ArrayList<>()).add(request);
+                }
+            }
+            
+            for (Map.Entry<String, List<Request>> entry : expiredByType.entrySet()) {
+                Duration ttl = requestTtls.getOrDefault(entry.getKey(), Duration.ZERO);
+                List<Integer> expiredIds = resolveAll(entry.getValue(), Request.STATUS_EXPIRED,
+                        "Expired: not reviewed within " + describe(ttl) + ".");
+                expiredCount.addAndGet(expiredIds.size());
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task, so log it and try again next tick
+            logger.warning("Error expiring stale requests: " + e.getMessage());
+        }
+    }
+    
+    private static String describe(Duration duration) {
+        if (duration.toDays() > 0 && duration.toHours() % 24 == 0) {
+            return duration.toDays() + " day(s)";
+        } else if (duration.toHours() > 0) {
+            return duration.toHours() + " hour(s)";
+        } else if (duration.toMinutes() > 0) {
+            return duration.toMinutes() + " minute(s)";
+        }
+        return duration.getSeconds() + " second(s)";
+    }
+    
+    /**
+     * Marks clients whose requests start in a higher priority lane.
+     * 
+     * @param clientIds A comma-separated list of client IDs, or null.
+     */
+    private void applyPriorityClients(String clientIds) {
+        if (clientIds == null || clientIds.trim().isEmpty()) {
+            return;
+        }
+        for (String clientId : clientIds.split(",")) {
+            try {
+                pendingRequests.setClientTier(Integer.parseInt(clientId.trim()), PendingRequestQueue.ClientTier.PRIORITY);
+            } catch (NumberFormatException e) {
+                logger.warning("Ignoring invalid priority client ID: " + clientId);
+            }
+        }
+    }
+    
+    /**
+     * Queues an auto-approval pass on the worker pool unless one is already running.
+     */
+    private void scheduleAutoProcessing() {
+        if (pendingRequests.isEmpty() || !autoApprovalEngine.isEnabled()
+                || !autoProcessing.compareAndSet(false, true)) {
+            return;
+        }
+        
+        runOnWorker(this::processPendingRequests).whenComplete((processed, e) -> {
+            autoProcessing.set(false);
+            if (e != null) {
+                logger.warning("Error auto-processing requests: " + e.getMessage());
+            } else if (processed > 0) {
+                logger.info("Auto-processed " + processed + " request(s)");
+            }
+        });
+    }
+}
\ No newline at end of file
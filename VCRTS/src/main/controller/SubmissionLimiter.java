@@ -0,0 +1,253 @@
+package controller;
+
+import models.Request;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a new request may enter the pending queue. Each client gets
+ * a token bucket per request type, so one client flooding the server cannot
+ * crowd out the others, and the queue as a whole is capped so a burst from
+ * many clients cannot grow it without bound.
+ * <p>
+ * Counts of accepted and refused submissions are kept for monitoring.
+ */
+public class SubmissionLimiter {
+
+    /**
+     * DUPLICATE means the request repeated an idempotency key and was answered
+     * with the request already created under it.
+     */
+    public enum Decision { ACCEPTED, DUPLICATE, RATE_LIMITED, QUEUE_FULL }
+
+    /**
+     * The outcome of one submission attempt.
+     */
+    public static class Result {
+        private static final Result ACCEPTED = new Result(Decision.ACCEPTED, 0, null);
+        static final Result DUPLICATE = new Result(Decision.DUPLICATE, 0, null);
+
+        private final Decision decision;
+        private final long retryAfterMillis;
+        private final String message;
+
+        Result(Decision decision, long retryAfterMillis, String message) {
+            this.decision = decision;
+            this.retryAfterMillis = retryAfterMillis;
+            this.message = message;
+        }
+
+        public Decision getDecision() { return decision; }
+        public boolean isAccepted() { return decision == Decision.ACCEPTED || decision == Decision.DUPLICATE; }
+
+        /**
+         * Returns how long the client should wait before trying again, or 0 if
+         * the request was accepted.
+         */
+        public long getRetryAfterMillis() { return retryAfterMillis; }
+
+        /**
+         * Returns the reason the request was refused, or null if it was accepted.
+         */
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * How many requests of one type a client may submit: a sustained rate and
+     * a burst allowance on top of it.
+     */
+    public static class Limit {
+        private final double permitsPerMinute;
+        private final int burst;
+
+        public Limit(double permitsPerMinute, int burst) {
+            if (permitsPerMinute <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+            }
+            this.permitsPerMinute = permitsPerMinute;
+            this.burst = burst;
+        }
+
+        public double getPermitsPerMinute() { return permitsPerMinute; }
+        public int getBurst() { return burst; }
+    }
+
+    public static final int DEFAULT_MAX_PENDING = 5000;
+    public static final Limit DEFAULT_JOB_LIMIT = new Limit(30, 10);
+    public static final Limit DEFAULT_VEHICLE_LIMIT = new Limit(10, 5);
+    public static final Limit DEFAULT_OTHER_LIMIT = new Limit(10, 5);
+    // Buckets left untouched this long are full again and can be dropped
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private volatile Limit defaultLimit = DEFAULT_OTHER_LIMIT;
+    private volatile int maxPending = DEFAULT_MAX_PENDING;
+    private volatile boolean enabled = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+    private final Map<Integer, LongAdder> throttledByClient = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a limiter with the default limits for jobs and vehicles.
+     */
+    public SubmissionLimiter() {
+        limits.put(Request.TYPE_ADD_JOB, DEFAULT_JOB_LIMIT);
+        limits.put(Request.TYPE_REGISTER_VEHICLE, DEFAULT_VEHICLE_LIMIT);
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getMaxPending() { return maxPending; }
+    public void setMaxPending(int maxPending) { this.maxPending = Math.max(1, maxPending); }
+
+    /**
+     * Sets the limit for one request type. Clients' existing buckets keep their
+     * old limit until they go idle.
+     */
+    public void setLimit(String requestType, Limit limit) {
+        limits.put(requestType, limit);
+    }
+
+    /**
+     * Sets the limit for request types without one of their own.
+     */
+    public void setDefaultLimit(Limit limit) {
+        defaultLimit = limit;
+    }
+
+    public Limit getLimit(String requestType) {
+        return limits.getOrDefault(requestType, defaultLimit);
+    }
+
+    /**
+     * Decides whether a request may be added to the pending queue, taking a
+     * token from the client's bucket if it is.
+     *
+     * @param request The request being submitted.
+     * @param pendingCount How many requests are already pending.
+     * @return The decision, with a retry hint if the request was refused.
+     */
+    public Result admit(Request request, int pendingCount) {
+        if (!enabled) {
+            accepted.increment();
+            return Result.ACCEPTED;
+        }
+
+        if (pendingCount >= maxPending) {
+            return queueFull(pendingCount);
+        }
+
+        String type = request.getRequestType();
+        String key = request.getClientId() + "|" + type;
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(getLimit(type)));
+        long waitNanos = bucket.tryTake(System.nanoTime());
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throttledByClient.computeIfAbsent(request.getClientId(), id -> new LongAdder()).increment();
+            long retryAfterMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            return new Result(Decision.RATE_LIMITED, retryAfterMillis,
+                    "Too many " + type + " requests. Please wait "
+                            + Math.max(1, (retryAfterMillis + 999) / 1000) + " second(s) and try again.");
+        }
+
+        accepted.increment();
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * Decides whether a request may be added to the pending queue, reserving
+     * its place in the queue if it may. Unlike checking the queue's size first,
+     * this cannot let concurrent submissions past the cap together.
+     *
+     * @param request The request being submitted.
+     * @param queue The pending queue. If the request is accepted, the caller
+     *        must add it with {@link PendingRequestQueue#addReserved(Request)}
+     *        or give the room back with {@link PendingRequestQueue#release()}.
+     * @return The decision, with a retry hint if the request was refused.
+     */
+    public Result admit(Request request, PendingRequestQueue queue) {
+        if (!queue.tryReserve(enabled ? maxPending : Integer.MAX_VALUE)) {
+            return queueFull(queue.size());
+        }
+        // The room is already held, so only the rate limit is left to check
+        Result result = admit(request, 0);
+        if (!result.isAccepted()) {
+            queue.release();
+        }
+        return result;
+    }
+
+    private Result queueFull(int pendingCount) {
+        queueFull.increment();
+        return new Result(Decision.QUEUE_FULL, 1000,
+                "Server is busy: " + pendingCount + " requests are already waiting. Please try again shortly.");
+    }
+
+    /**
+     * Drops buckets that have not been used for a while. They would have
+     * refilled completely, so a fresh bucket behaves the same.
+     */
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    public long getAcceptedCount() { return accepted.sum(); }
+    public long getRateLimitedCount() { return rateLimited.sum(); }
+    public long getQueueFullCount() { return queueFull.sum(); }
+
+    /**
+     * Gets how many submissions were refused for exceeding the rate limit, by client.
+     */
+    public Map<Integer, Long> getRateLimitedByClient() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : throttledByClient.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Classic token bucket: tokens refill continuously up to the burst size
+     * and each submission takes one.
+     */
+    private static class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(Limit limit) {
+            this.capacity = limit.getBurst();
+            this.tokensPerNano = limit.getPermitsPerMinute() / TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Takes a token if one is available.
+         *
+         * @return 0 if a token was taken, otherwise nanoseconds until one will be.
+         */
+        synchronized long tryTake(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isIdle(long now) {
+            return now - lastRefill > IDLE_BUCKET_NANOS;
+        }
+    }
+}
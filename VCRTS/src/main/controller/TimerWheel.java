@@ -0,0 +1,120 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel: a ring of slots, each holding the timers that fall due
+ * on that tick of some future revolution. Scheduling is O(1), and advancing
+ * one tick only looks at the timers in one slot, so the cost of expiry is
+ * spread evenly however many timers are waiting.
+ * <p>
+ * Timers are not cancelled; the caller checks whether an item is still
+ * relevant when it fires, which keeps cancellation free as well.
+ *
+ * @param <T> The type of item scheduled.
+ */
+public class TimerWheel<T> {
+
+    private static final class Timer<T> {
+        final T item;
+        final long deadline;
+        long rounds;
+
+        Timer(T item, long deadline, long rounds) {
+            this.item = item;
+            this.deadline = deadline;
+            this.rounds = rounds;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a wheel that starts at the current time.
+     *
+     * @param tickMillis The length of one tick; deadlines are rounded up to it.
+     * @param slotCount The number of slots in one revolution.
+     */
+    public TimerWheel(long tickMillis, int slotCount) {
+        this(tickMillis, slotCount, System.currentTimeMillis());
+    }
+
+    public TimerWheel(long tickMillis, int slotCount, long startMillis) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("Tick length and slot count must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an item. A deadline that has already passed fires on the next tick.
+     *
+     * @param item The item to hand back when the timer fires.
+     * @param deadlineMillis When the timer is due, in epoch milliseconds.
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        long ticksAhead = tick - currentTick;
+        int slot = (int) (tick % slots.size());
+        slots.get(slot).add(new Timer<>(item, deadlineMillis, (ticksAhead - 1) / slots.size()));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to the given time.
+     *
+     * @param nowMillis The current time, in epoch milliseconds.
+     * @return The items whose timers fell due, oldest tick first.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        // Step tick by tick for at most one revolution; a longer gap is caught up below
+        long limit = Math.min(targetTick, currentTick + slots.size());
+        while (currentTick < limit) {
+            currentTick++;
+            Iterator<Timer<T>> iterator = slots.get((int) (currentTick % slots.size())).iterator();
+            while (iterator.hasNext()) {
+                Timer<T> timer = iterator.next();
+                if (timer.rounds-- <= 0) {
+                    iterator.remove();
+                    due.add(timer.item);
+                    size--;
+                }
+            }
+        }
+        if (currentTick < targetTick) {
+            // Skipped revolutions: fire anything now past its deadline and recount the rest
+            currentTick = targetTick;
+            for (List<Timer<T>> slot : slots) {
+                Iterator<Timer<T>> iterator = slot.iterator();
+                while (iterator.hasNext()) {
+                    Timer<T> timer = iterator.next();
+                    if (timer.deadline <= nowMillis) {
+                        iterator.remove();
+                        due.add(timer.item);
+                        size--;
+                    } else {
+                        long tick = (timer.deadline + tickMillis - 1) / tickMillis;
+                        timer.rounds = (tick - currentTick - 1) / slots.size();
+                    }
+                }
+            }
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -4,6 +4,7 @@ import db.FileManager;
 import models.Allocation;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,11 +17,13 @@ public class AllocationDAO {
 
     /**
      * Converts an Allocation object to a line of text for storage.
+     * The VIN column is only written for allocations made by the scheduler.
      */
     private String allocationToLine(Allocation allocation) {
-        return allocation.getAllocationId() + SEPARATOR +
+        String line = allocation.getAllocationId() + SEPARATOR +
                 allocation.getUserId() + SEPARATOR +
                 allocation.getJobId();
+        return allocation.getVin() != null ? line + SEPARATOR + allocation.getVin() : line;
     }
 
     /**
@@ -34,11 +37,15 @@ public class AllocationDAO {
         }
 
         try {
-            return new Allocation(
+            Allocation allocation = new Allocation(
                     Integer.parseInt(parts[0]),  // allocationId
                     parts[1],                     // userId
                     parts[2]                      // jobId
             );
+            if (parts.length >= 4 && !parts[3].isEmpty()) {
+                allocation.setVin(parts[3]);     // vin
+            }
+            return allocation;
         } catch (NumberFormatException e) {
             logger.log(Level.WARNING, "Error parsing allocation ID: " + parts[0], e);
             return null;
@@ -79,6 +86,23 @@ public class AllocationDAO {
         return FileManager.appendLine(ALLOCATIONS_FILE, allocationLine);
     }
 
+    /**
+     * Adds several allocations to the file in one write, numbering them after
+     * the highest existing ID.
+     *
+     * @param allocations The allocation objects to be added.
+     * @return true if all allocations were successfully added, false otherwise.
+     */
+    public boolean addAllocations(List<Allocation> allocations) {
+        int allocationId = FileManager.generateUniqueNumericId(ALLOCATIONS_FILE);
+        List<String> allocationLines = new ArrayList<>();
+        for (Allocation allocation : allocations) {
+            allocation.setAllocationId(allocationId++);
+            allocationLines.add(allocationToLine(allocation));
+        }
+        return FileManager.appendLines(ALLOCATIONS_FILE, allocationLines);
+    }
+
     /**
      * Deletes an allocation by its ID.
      *
@@ -102,6 +126,30 @@ public class AllocationDAO {
         return deleted && FileManager.writeAllLines(ALLOCATIONS_FILE, updatedLines);
     }
 
+    /**
+     * Deletes a job's allocations to the given vehicles in one rewrite.
+     *
+     * @param jobId The job whose allocations are deleted.
+     * @param vins The vehicles to release the job from.
+     * @return true if any allocation was deleted and the file was saved, false otherwise.
+     */
+    public boolean deleteAllocations(String jobId, Collection<String> vins) {
+        List<String> lines = FileManager.readAllLines(ALLOCATIONS_FILE);
+        List<String> updatedLines = new ArrayList<>();
+        boolean deleted = false;
+
+        for (String line : lines) {
+            Allocation allocation = lineToAllocation(line);
+            if (allocation != null && jobId.equals(allocation.getJobId()) && vins.contains(allocation.getVin())) {
+                deleted = true;
+            } else {
+                updatedLines.add(line);
+            }
+        }
+
+        return deleted && FileManager.writeAllLines(ALLOCATIONS_FILE, updatedLines);
+    }
+
     /**
      * Updates an existing allocation's details.
      * @param allocation An Allocation object with updated information.
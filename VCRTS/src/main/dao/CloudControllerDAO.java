@@ -1,17 +1,43 @@
 package dao;
 
 import db.FileManager;
+import models.Allocation;
 import models.Job;
 import models.Vehicle;
 
 import java.time.*;
 import java.time.format.*;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.*;
 
 /**
  * Data Access Object for Cloud Controller operations.
  * Implements job scheduling and completion time calculation logic.
+ * <p>
+ * Jobs run in the order set by the active {@link SchedulingPolicy}, FIFO by
+ * default, on every registered vehicle at once: a list scheduler treats each
+ * vehicle as a machine. A vehicle is only parked for its residency time, so
+ * each job goes to a vehicle that stays long enough to finish it, best fit
+ * first (see {@link VehiclePool}); a job no vehicle can finish waits instead
+ * of being started and cut off. Running jobs are checkpointed (see
+ * {@link JobCheckpoints}), and a job whose vehicle leaves anyway moves to
+ * another one and carries on from its last checkpoint. A job can ask for
+ * several replicas: it then runs on that many vehicles at once, finishes
+ * when the first replica does, and losing a vehicle costs it nothing while
+ * another replica is still running.
+ * <p>
+ * When the only vehicle parked has no known residency time, so it never
+ * leaves, completion times are kept incrementally: every job's duration sits
+ * in a {@link CompletionTimeIndex} in run order, so a job's completion time is
+ * the schedule start plus one prefix sum, and adding, removing or finishing a
+ * job shifts everything behind it without recomputing the queue. Otherwise
+ * new jobs are placed on the vehicle pool left by the last full pass. With no
+ * vehicle parked at all, nothing runs and every unfinished job is shown as
+ * {@link #AWAITING_VEHICLE} until one arrives. Either way only schedule entries whose time actually
+ * changed are appended to the schedule file; the last line for a job wins, and
+ * the file is rewritten once old lines pile up.
  */
 public class CloudControllerDAO {
     private static final Logger logger = Logger.getLogger(CloudControllerDAO.class.getName());
@@ -27,116 +53,864 @@ public class CloudControllerDAO {
     public static final String STATE_PROGRESS = "In Progress";
     public static final String STATE_COMPLETED = "Completed";
 
+    // Rewrite the schedule file once it holds this many lines beyond twice the live entries
+    private static final int SCHEDULE_COMPACTION_SLACK = 64;
+    // Completion time of a job no vehicle stays long enough to finish
+    public static final String AWAITING_VEHICLE = "Awaiting vehicle";
+    // How late a job may be completed and still count as finishing on time
+    private static final long ON_TIME_TOLERANCE_SECONDS = 1;
+
+    // Schedule state is shared by every instance and guarded by scheduleLock
+    private static final ReentrantLock scheduleLock = new ReentrantLock();
+    private static SchedulingPolicy schedulingPolicy = new FifoPolicy();
+    // The policy fixed to the date the index was ordered on; the index is rebuilt when it changes
+    private static SchedulingPolicy datedPolicy;
+    private static CompletionTimeIndex scheduleIndex;
+    // When the first unfinished job started, so completion = start + offset
+    private static LocalDateTime scheduleStart;
+    private static long indexedJobsVersion;
+    // Job statuses as last read from or written to the jobs file
+    private static final Map<String, String> jobStatuses = new HashMap<>();
+    // Replica counts of the jobs that asked for more than one
+    private static final Map<String, Integer> jobReplicas = new HashMap<>();
+    // What the schedule and state files currently say
+    private static final Map<String, String> persistedTimes = new LinkedHashMap<>();
+    private static Map<String, String> persistedStates = new LinkedHashMap<>();
+    private static long persistedScheduleVersion = -1;
+    // Whether reads check the schedule file for changes made by another process
+    private static boolean scheduleReadThrough = true;
+    private static int scheduleLines;
+    // The vehicles as of the last full pass, by when each leaves and is next free
+    private static VehiclePool vehiclePool;
+    private static long plannedVehiclesVersion;
+    // The vehicle each unfinished job runs or is planned to run on
+    private static final Map<String, String> plannedVins = new HashMap<>();
+    private static final JobCheckpoints checkpoints = new JobCheckpoints();
+    // When each replicated job would finish on its first replica's vehicle alone
+    private static final Map<String, LocalDateTime> singleCompletions = new HashMap<>();
+    // Frozen once a job's first replica loses its vehicle
+    private static final Map<String, LocalDateTime> lostLeadCompletions = new HashMap<>();
+
+    /**
+     * Outcome of {@link #admitJobs}: the jobs added to the schedule and the
+     * ones turned away for finishing late.
+     */
+    public static class AdmissionResult {
+        private final List<Job> admitted;
+        private final Map<String, LocalDateTime> late;
+        private final boolean added;
+
+        AdmissionResult(List<Job> admitted, Map<String, LocalDateTime> late, boolean added) {
+            this.admitted = admitted;
+            this.late = late;
+            this.added = added;
+        }
+
+        public List<Job> getAdmitted() { return admitted; }
+
+        /**
+         * Returns the jobs turned away, mapped to the earliest each could complete.
+         */
+        public Map<String, LocalDateTime> getLate() { return late; }
+
+        /**
+         * Returns false if the admitted jobs could not be written to the jobs file.
+         */
+        public boolean isAdded() { return added; }
+    }
+
     private JobDAO jobDAO;
     private VehicleDAO vehicleDAO;
-
-    // HashMap to store job duration (in minutes) for each job ID
-    private Map<String, Long> jobDurations = new HashMap<>();
+    private AllocationDAO allocationDAO;
 
     public CloudControllerDAO() {
         this.jobDAO = new JobDAO();
         this.vehicleDAO = new VehicleDAO();
+        this.allocationDAO = new AllocationDAO();
     }
 
     /**
-     * Calculates job completion times using FIFO (First In First Out) scheduling
-     * and updates job states.
-     * @return A map of job IDs to their calculated completion times.
+     * Gets one instance of each built-in scheduling policy.
+     * @return The policies, FIFO first.
      */
-    public Map<String, String> calculateCompletionTimes() {
-        // Get all jobs and sort them by creation timestamp (FIFO)
-        List<Job> allJobs = jobDAO.getAllJobs();
+    public static List<SchedulingPolicy> getAvailablePolicies() {
+        return Arrays.asList(new FifoPolicy(), new ShortestJobFirstPolicy(),
+                new EarliestDeadlineFirstPolicy(), new WeightedPriorityPolicy());
+    }
 
-        // Sort by creation timestamp (FIFO)
-        allJobs.sort(Comparator.comparing(Job::getCreatedTimestamp));
+    public static SchedulingPolicy getSchedulingPolicy() {
+        scheduleLock.lock();
+        try {
+            return schedulingPolicy;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
 
-        // Maps to store results
-        Map<String, String> completionTimes = new LinkedHashMap<>();
-        Map<String, String> jobStates = new LinkedHashMap<>();
+    /**
+     * Switches the scheduling policy. The queue is reordered the next time
+     * the schedule is read or calculated; a job already in progress keeps
+     * running first.
+     * @param policy The policy to use.
+     */
+    public static void setSchedulingPolicy(SchedulingPolicy policy) {
+        scheduleLock.lock();
+        try {
+            schedulingPolicy = policy;
+            datedPolicy = null;
+            scheduleIndex = null;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
 
-        // Clear job durations map
-        jobDurations.clear();
+    /**
+     * Puts jobs in the order they run under the current policy: completed jobs
+     * first, then the job in progress, then the queue.
+     * @param jobs The jobs to order.
+     * @return A new list in run order.
+     */
+    public List<Job> orderJobs(Collection<Job> jobs) {
+        Comparator<Job> order;
+        scheduleLock.lock();
+        try {
+            order = runOrder(datePolicy());
+        } finally {
+            scheduleLock.unlock();
+        }
+        PriorityQueue<Job> heap = new PriorityQueue<>(Math.max(1, jobs.size()), order);
+        heap.addAll(jobs);
+        List<Job> ordered = new ArrayList<>(jobs.size());
+        while (!heap.isEmpty()) {
+            ordered.add(heap.poll());
+        }
+        return ordered;
+    }
 
-        // Track current time for completion calculation
-        LocalDateTime currentTime = LocalDateTime.now();
+    private static Comparator<Job> runOrder(SchedulingPolicy policy) {
+        return Comparator.comparingInt(CloudControllerDAO::stateRank)
+                .thenComparing(policy)
+                .thenComparing(Job::getCreatedTimestamp)
+                .thenComparing(Job::getJobId);
+    }
 
-        // Running total for completion time in minutes (for relative time calculation)
-        long totalMinutes = 0;
+    /**
+     * Fixes the policy to today's date. A policy that weighs deadlines by
+     * the days left orders jobs differently after midnight, so the index,
+     * which must stay sorted, is dropped and rebuilt then.
+     * @return The policy as of today.
+     */
+    private static SchedulingPolicy datePolicy() {
+        SchedulingPolicy dated = schedulingPolicy.asOf(LocalDate.now());
+        if (dated != datedPolicy) {
+            datedPolicy = dated;
+            scheduleIndex = null;
+        }
+        return dated;
+    }
 
-        // Determine which job is currently in progress (if any)
-        Job inProgressJob = null;
-        for (Job job : allJobs) {
-            if (STATE_PROGRESS.equals(job.getStatus())) {
-                inProgressJob = job;
-                break;
-            }
+    private static int stateRank(Job job) {
+        if (STATE_COMPLETED.equals(job.getStatus())) {
+            return 0;
         }
+        return STATE_PROGRESS.equals(job.getStatus()) ? 1 : 2;
+    }
 
-        // Process all jobs
-        for (Job job : allJobs) {
-            // Skip already completed jobs but include them in results
-            if (STATE_COMPLETED.equals(job.getStatus())) {
-                // For completed jobs, use their existing completion time if available
-                String existingCompletionTime = getJobCompletionTime(job.getJobId());
-                if (existingCompletionTime != null) {
-                    completionTimes.put(job.getJobId(), existingCompletionTime);
-                } else {
-                    // If no completion time record exists, use a placeholder
-                    completionTimes.put(job.getJobId(), "Already completed");
+    /**
+     * Calculates job completion times under the current scheduling policy
+     * and updates job states. Only jobs whose state changed are written back,
+     * and only changed completion times are saved.
+     * @return A map of job IDs to their calculated completion times.
+     */
+    public Map<String, String> calculateCompletionTimes() {
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            return recalculate(null);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Adds newly created jobs to the end of the schedule and saves their
+     * completion times, without touching the jobs already scheduled. A new
+     * job that lands on an idle vehicle starts right away.
+     * @param jobs The jobs just added to the jobs file, in creation order.
+     * @return A map of the new job IDs to their completion times.
+     */
+    public Map<String, String> scheduleJobs(List<Job> jobs) {
+        scheduleLock.lock();
+        try {
+            datePolicy();
+            loadPersistedSchedule();
+            List<Job> appended = scheduleIndex != null ? appendToIndex(jobs) : null;
+            if (appended == null || vehiclePool == null || vehicleDAO.getDataVersion() != plannedVehiclesVersion) {
+                // First use, out-of-order job or changed vehicles; schedule everything
+                syncIndex();
+                recalculate(null);
+            } else if (vehiclePool.isSingleUnbounded()) {
+                placeOnSingleMachine(appended);
+            } else {
+                saveSchedule(placeOnMachines(appended));
+            }
+
+            Map<String, String> completionTimes = new LinkedHashMap<>();
+            for (Job job : jobs) {
+                String completionTime = currentCompletionTime(job.getJobId());
+                if (completionTime != null) {
+                    completionTimes.put(job.getJobId(), completionTime);
                 }
-                jobStates.put(job.getJobId(), STATE_COMPLETED);
+            }
+            saveSchedule(completionTimes);
+            return completionTimes;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Appends new jobs to the index in run order.
+     * @return The unfinished jobs appended, or null if one does not go at the
+     *         end of the queue and the index was dropped for a rebuild.
+     */
+    private List<Job> appendToIndex(List<Job> jobs) {
+        boolean idle = scheduleIndex.firstUnfinished() == null;
+        List<Job> appended = new ArrayList<>();
+        for (Job job : orderJobs(jobs)) {
+            if (scheduleIndex.contains(job.getJobId())) {
                 continue;
             }
+            boolean done = STATE_COMPLETED.equals(job.getStatus());
+            if (!scheduleIndex.append(job, parseJobDuration(job).getSeconds(), done)) {
+                scheduleIndex = null;
+                return null;
+            }
+            noteJob(job);
+            if (!done) {
+                appended.add(job);
+            }
+        }
+        if (idle) {
+            scheduleStart = LocalDateTime.now();
+        }
+        return appended;
+    }
 
-            // Calculate job duration
-            Duration jobDuration = parseJobDuration(job);
+    /**
+     * Puts new jobs on the one machine and starts the head of the queue if
+     * nothing is running. Completion times come straight from the index.
+     */
+    private void placeOnSingleMachine(List<Job> jobs) {
+        Vehicle vehicle = vehiclePool.all().get(0).vehicle;
+        for (Job job : jobs) {
+            plannedVins.put(job.getJobId(), vehicle.getVin());
+        }
 
-            // Store job duration in minutes for reporting
-            long durationMinutes = jobDuration.toMinutes();
-            jobDurations.put(job.getJobId(), durationMinutes);
+        String head = scheduleIndex.firstUnfinished();
+        if (head == null || STATE_PROGRESS.equals(jobStatuses.get(head))
+                || anyInProgress(scheduleIndex.jobIdsFrom(head))) {
+            return;
+        }
+        if (setJobStatuses(Collections.singletonMap(head, STATE_PROGRESS))) {
+            checkpoints.load();
+            checkpoints.start(head, vehicle.getVin(), LocalDateTime.now());
+            checkpoints.save();
+            recordAllocations(Collections.singletonList(allocationFor(vehicle, head)));
+        }
+    }
 
-            // Add this job's duration to the running total
-            totalMinutes += durationMinutes;
+    /**
+     * Gives each new job its best-fit vehicle, continuing from the last full
+     * pass.
+     * @return A map of the new job IDs to their completion times.
+     */
+    private Map<String, String> placeOnMachines(List<Job> jobs) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Map<String, String> completionTimes = new LinkedHashMap<>();
+        Map<String, String> startedStatuses = new LinkedHashMap<>();
+        List<Allocation> allocations = new ArrayList<>();
+        checkpoints.load();
 
-            // If no job is in progress, set the first non-completed job to "In Progress"
-            if (inProgressJob == null && !STATE_COMPLETED.equals(job.getStatus())) {
-                inProgressJob = job;
+        for (Job job : jobs) {
+            long seconds = scheduleIndex.durationOf(job.getJobId());
+            VehiclePool.Machine machine = vehiclePool.bestFit(seconds, now);
+            if (machine == null) {
+                completionTimes.put(job.getJobId(), AWAITING_VEHICLE);
+                continue;
+            }
+            LocalDateTime start = VehiclePool.startOn(machine, now);
+            if (machine.idle) {
+                machine.idle = false;
+                startedStatuses.put(job.getJobId(), STATE_PROGRESS);
+                checkpoints.start(job.getJobId(), machine.vehicle.getVin(), now);
+                allocations.add(allocationFor(machine.vehicle, job.getJobId()));
+            }
+            machine.freeAt = start.plusSeconds(seconds);
+            completionTimes.put(job.getJobId(), machine.freeAt.format(TIMESTAMP_FORMATTER));
+            plannedVins.put(job.getJobId(), machine.vehicle.getVin());
+        }
+
+        if (setJobStatuses(startedStatuses)) {
+            checkpoints.save();
+            recordAllocations(allocations);
+        }
+        return completionTimes;
+    }
+
+    /**
+     * Schedules every unfinished job with a list scheduler: each vehicle still
+     * parked is a machine, running jobs keep their vehicle, and each queued
+     * job in run order goes to its best-fit vehicle. A job given to an idle
+     * vehicle starts now and is recorded as an allocation; a job no vehicle
+     * stays long enough for stays queued. A running job whose vehicle has
+     * left, or will leave before it finishes, goes back to the front of the
+     * queue with the work it has left after its last checkpoint, plus the
+     * overhead of moving it. With no vehicle parked nothing runs: every job
+     * is left waiting, and a running job keeps its checkpoint for when a
+     * vehicle arrives. Job states and every completion time that
+     * changed are saved. The schedule lock must be held and the index in sync.
+     * @param startedJobIds Receives the jobs this pass started, or null.
+     */
+    private Map<String, String> recalculate(List<String> startedJobIds) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<String> jobIds = scheduleIndex.jobIdsFrom(null);
+
+        // One machine per vehicle that has not left yet, all free from now
+        plannedVehiclesVersion = vehicleDAO.getDataVersion();
+        VehiclePool pool = new VehiclePool();
+        Map<String, VehiclePool.Machine> machinesByVin = new HashMap<>();
+        Map<String, LocalDateTime> departures = new HashMap<>();
+        for (Vehicle vehicle : vehicleDAO.getAllVehicles()) {
+            LocalDateTime departure = departureOf(vehicle);
+            departures.putIfAbsent(vehicle.getVin(), departure);
+            if (!machinesByVin.containsKey(vehicle.getVin()) && departure.isAfter(now)) {
+                machinesByVin.put(vehicle.getVin(), pool.add(vehicle, departure, now));
+            }
+        }
+        Map<String, String> allocatedVins = allocatedVins();
+        checkpoints.load();
+
+        Map<String, LocalDateTime> completions = new HashMap<>();
+        Map<String, String> states = new HashMap<>();
+        List<String> queued = new ArrayList<>();
+        List<String> moving = new ArrayList<>();
+        // Work left for each moving job and when it can start elsewhere
+        Map<String, Long> remaining = new HashMap<>();
+        Map<String, LocalDateTime> notBefore = new HashMap<>();
+        List<Allocation> allocations = new ArrayList<>();
+        plannedVins.clear();
+        singleCompletions.clear();
+
+        // Running jobs keep their vehicle, as many as there are vehicles
+        int running = 0;
+        for (String jobId : jobIds) {
+            if (scheduleIndex.isFinished(jobId)) {
+                continue;
+            }
+            // With no vehicle at all a running job still gets here, so its work is checkpointed
+            if (!STATE_PROGRESS.equals(jobStatuses.get(jobId)) || (running >= pool.size() && pool.size() > 0)) {
+                queued.add(jobId);
+                continue;
+            }
+            running++;
+            long duration = scheduleIndex.durationOf(jobId);
+            // Replicas keep their vehicles; one whose vehicle has left (or is held
+            // by another job) is dropped
+            List<JobCheckpoints.Checkpoint> replicas = runningReplicas(jobId, duration, allocatedVins.get(jobId), now);
+            List<JobCheckpoints.Checkpoint> live = new ArrayList<>();
+            List<VehiclePool.Machine> hosts = new ArrayList<>();
+            VehiclePool.Machine firstHost = null;
+            for (JobCheckpoints.Checkpoint replica : replicas) {
+                VehiclePool.Machine machine = machinesByVin.get(replica.vin);
+                if (machine != null && machine.idle) {
+                    machine.idle = false;
+                    live.add(replica.rolledTo(now, duration));
+                    hosts.add(machine);
+                    if (replica == replicas.get(0)) {
+                        firstHost = machine;
+                    }
+                }
+            }
+            if (jobReplicas.containsKey(jobId)) {
+                noteSingleCompletion(jobId, replicas.get(0), firstHost, departures, duration, now);
+            }
 
-                // Update job status to "In Progress"
-                job.setStatus(STATE_PROGRESS);
-                jobDAO.updateJob(job);
-                jobStates.put(job.getJobId(), STATE_PROGRESS);
+            if (live.isEmpty()) {
+                // Every vehicle it ran on has left; carry on elsewhere from the
+                // replica with the most work saved
+                JobCheckpoints.Checkpoint best = null;
+                LocalDateTime bestLeftAt = null;
+                for (JobCheckpoints.Checkpoint replica : replicas) {
+                    LocalDateTime leftAt = departures.getOrDefault(replica.vin, now);
+                    leftAt = leftAt.isBefore(now) ? leftAt : now;
+                    if (best == null || replica.savedBy(leftAt, duration) > best.savedBy(bestLeftAt, duration)) {
+                        best = replica;
+                        bestLeftAt = leftAt;
+                    }
+                }
+                remaining.put(jobId, checkpoints.suspend(jobId, best, bestLeftAt, duration));
+                moving.add(jobId);
+                continue;
+            }
+            checkpoints.setReplicas(jobId, live);
+
+            // The job finishes when its first replica does
+            int lead = -1;
+            LocalDateTime completion = null;
+            for (int i = 0; i < live.size(); i++) {
+                LocalDateTime finish = live.get(i).completion(duration);
+                if (!finish.isAfter(hosts.get(i).departure) && (completion == null || finish.isBefore(completion))) {
+                    lead = i;
+                    completion = finish;
+                }
             }
-            // If this is not the in-progress job and not completed, set to "Queued"
-            else if (!job.equals(inProgressJob) && !STATE_COMPLETED.equals(job.getStatus())) {
-                job.setStatus(STATE_QUEUED);
-                jobDAO.updateJob(job);
-                jobStates.put(job.getJobId(), STATE_QUEUED);
+            if (lead < 0) {
+                // Every replica's vehicle leaves first: the one with the most work
+                // saved by then runs until it leaves, then the rest moves elsewhere
+                long bestSaved = -1;
+                for (int i = 0; i < live.size(); i++) {
+                    long saved = live.get(i).savedBy(hosts.get(i).departure, duration);
+                    if (saved > bestSaved) {
+                        lead = i;
+                        bestSaved = saved;
+                    }
+                }
+                completion = hosts.get(lead).departure;
+                remaining.put(jobId, duration - bestSaved + JobCheckpoints.MIGRATION_OVERHEAD_SECONDS);
+                notBefore.put(jobId, completion);
+                moving.add(jobId);
             }
+            for (VehiclePool.Machine host : hosts) {
+                // The other replicas are cancelled when the job finishes
+                host.freeAt = completion.isBefore(host.departure) ? completion : host.departure;
+            }
+            run(hosts.get(lead), jobId, completion.isAfter(now) ? completion : now, completions, states);
+        }
+        queued.addAll(0, moving);
+
+        // Queued jobs in run order, each to its best-fit vehicle
+        List<String> started = new ArrayList<>();
+        for (String jobId : queued) {
+            long seconds = remaining.containsKey(jobId)
+                    ? remaining.get(jobId) : checkpoints.remainingSeconds(jobId, scheduleIndex.durationOf(jobId));
+            LocalDateTime from = notBefore.getOrDefault(jobId, now);
+            // Still running on a vehicle that leaves before it finishes
+            boolean stillRunning = notBefore.containsKey(jobId);
+            VehiclePool.Machine machine = pool.bestFit(seconds, from);
+            if (machine == null) {
+                // Every vehicle leaves too soon; starting it would only waste the work
+                completions.remove(jobId);
+                states.put(jobId, stillRunning ? STATE_PROGRESS : STATE_QUEUED);
+                continue;
+            }
+            LocalDateTime start = VehiclePool.startOn(machine, from);
+            if (machine.idle && !start.isAfter(now)) {
+                // Idle vehicle: the job starts now
+                states.put(jobId, STATE_PROGRESS);
+                started.add(jobId);
+                checkpoints.start(jobId, machine.vehicle.getVin(), now);
+                if (!machine.vehicle.getVin().equals(allocatedVins.get(jobId))) {
+                    allocations.add(allocationFor(machine.vehicle, jobId));
+                }
+            } else {
+                states.put(jobId, stillRunning ? STATE_PROGRESS : STATE_QUEUED);
+            }
+            machine.idle = false;
+            machine.freeAt = start.plusSeconds(seconds);
+            completions.put(jobId, machine.freeAt);
+            plannedVins.putIfAbsent(jobId, machine.vehicle.getVin());
+        }
+        addReplicas(jobIds, pool, machinesByVin, completions, states, allocations, now);
+        vehiclePool = pool;
 
-            // Calculate completion time
-            LocalDateTime completionTime = currentTime.plus(jobDuration);
-            String completionTimeStr = completionTime.format(TIMESTAMP_FORMATTER);
-            completionTimes.put(job.getJobId(), completionTimeStr);
+        Map<String, String> completionTimes = new LinkedHashMap<>();
+        Map<String, String> jobStates = new LinkedHashMap<>();
+        for (String jobId : jobIds) {
+            if (scheduleIndex.isFinished(jobId)) {
+                // Completed jobs keep the completion time they already have
+                completionTimes.put(jobId, persistedTimes.getOrDefault(jobId, "Already completed"));
+                jobStates.put(jobId, STATE_COMPLETED);
+            } else {
+                LocalDateTime completion = completions.get(jobId);
+                completionTimes.put(jobId, completion != null ? completion.format(TIMESTAMP_FORMATTER) : AWAITING_VEHICLE);
+                jobStates.put(jobId, states.get(jobId));
+            }
+        }
 
-            // Update current time for next job
-            currentTime = completionTime;
+        Map<String, String> changedStatuses = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : jobStates.entrySet()) {
+            if (!entry.getValue().equals(jobStatuses.get(entry.getKey()))) {
+                changedStatuses.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (setJobStatuses(changedStatuses)) {
+            recordAllocations(allocations);
+            if (startedJobIds != null) {
+                startedJobIds.addAll(started);
+            }
         }
 
-        // Save the schedule and job states to files
+        // Save the schedule, job states and checkpoints to files
         saveSchedule(completionTimes);
         saveJobStates(jobStates);
+        List<String> unfinished = new ArrayList<>();
+        for (String jobId : jobIds) {
+            if (!scheduleIndex.isFinished(jobId)) {
+                unfinished.add(jobId);
+            }
+        }
+        checkpoints.retain(unfinished);
+        checkpoints.save();
+        lostLeadCompletions.keySet().retainAll(unfinished);
 
+        if (pool.isSingleUnbounded()) {
+            alignIndex(completions);
+        }
         return completionTimes;
     }
 
+    /**
+     * Gets the checkpoints of a running job's replicas. A job started before
+     * checkpoints were kept is taken to have started a full duration before
+     * its saved completion time, or now if that has passed.
+     */
+    private List<JobCheckpoints.Checkpoint> runningReplicas(String jobId, long durationSeconds,
+                                                            String allocatedVin, LocalDateTime now) {
+        List<JobCheckpoints.Checkpoint> replicas = checkpoints.replicas(jobId);
+        if (!replicas.isEmpty()) {
+            return replicas;
+        }
+        LocalDateTime completion = parseTimestamp(persistedTimes.get(jobId));
+        if (completion == null || !completion.isAfter(now)) {
+            completion = now.plusSeconds(durationSeconds);
+        }
+        return Collections.singletonList(
+                new JobCheckpoints.Checkpoint(0, completion.minusSeconds(durationSeconds), allocatedVin));
+    }
+
+    /**
+     * Launches replicas of running replicated jobs on the idle vehicles left
+     * after the queue has been placed, until each job has as many as it asked
+     * for that will finish before their vehicles leave. A replica that will
+     * be cut off has fallen behind and gets relaunched this way. A new replica
+     * starts from the best checkpoint, and the job finishes sooner if it does.
+     */
+    private void addReplicas(List<String> jobIds, VehiclePool pool, Map<String, VehiclePool.Machine> machinesByVin,
+                             Map<String, LocalDateTime> completions, Map<String, String> states,
+                             List<Allocation> allocations, LocalDateTime now) {
+        for (String jobId : jobIds) {
+            int wanted = jobReplicas.getOrDefault(jobId, 1);
+            if (wanted <= 1 || !STATE_PROGRESS.equals(states.get(jobId))) {
+                continue;
+            }
+            long duration = scheduleIndex.durationOf(jobId);
+            int healthy = 0;
+            long saved = 0;
+            for (JobCheckpoints.Checkpoint replica : checkpoints.replicas(jobId)) {
+                VehiclePool.Machine host = machinesByVin.get(replica.vin);
+                if (host != null && !replica.completion(duration).isAfter(host.departure)) {
+                    healthy++;
+                }
+                saved = Math.max(saved, replica.savedBy(now, duration));
+            }
+            long seconds = saved > 0 ? duration - saved + JobCheckpoints.MIGRATION_OVERHEAD_SECONDS : duration;
+
+            LocalDateTime completion = completions.get(jobId);
+            for (; healthy < wanted; healthy++) {
+                VehiclePool.Machine machine = pool.bestFit(seconds, now);
+                if (machine == null || !machine.idle) {
+                    break;
+                }
+                LocalDateTime finish = checkpoints.addReplica(jobId, machine.vehicle.getVin(), now, duration)
+                        .completion(duration);
+                if (completion == null || finish.isBefore(completion)) {
+                    completion = finish;
+                    completions.put(jobId, finish);
+                    plannedVins.put(jobId, machine.vehicle.getVin());
+                }
+                machine.idle = false;
+                machine.freeAt = completion;
+                allocations.add(allocationFor(machine.vehicle, jobId));
+            }
+        }
+    }
+
+    /**
+     * Works out when a replicated job would finish if it ran only on its
+     * first replica's vehicle, moving when that vehicle leaves, for the p95
+     * comparison in the scheduling report.
+     * @param host The first replica's vehicle, or null if it has left.
+     */
+    private static void noteSingleCompletion(String jobId, JobCheckpoints.Checkpoint first, VehiclePool.Machine host,
+                                             Map<String, LocalDateTime> departures, long durationSeconds,
+                                             LocalDateTime now) {
+        LocalDateTime frozen = lostLeadCompletions.get(jobId);
+        if (frozen != null) {
+            singleCompletions.put(jobId, frozen);
+            return;
+        }
+        LocalDateTime completion = first.completion(durationSeconds);
+        if (host == null || completion.isAfter(host.departure)) {
+            LocalDateTime leftAt = host != null ? host.departure : departures.getOrDefault(first.vin, now);
+            LocalDateTime resumeAt = leftAt.isAfter(now) ? leftAt : now;
+            completion = resumeAt.plusSeconds(durationSeconds - first.savedBy(leftAt, durationSeconds)
+                    + JobCheckpoints.MIGRATION_OVERHEAD_SECONDS);
+            if (host == null) {
+                lostLeadCompletions.put(jobId, completion);
+            }
+        }
+        singleCompletions.put(jobId, completion);
+    }
+
+    /**
+     * Keeps a running job on its vehicle until a time.
+     */
+    private void run(VehiclePool.Machine machine, String jobId, LocalDateTime completion,
+                     Map<String, LocalDateTime> completions, Map<String, String> states) {
+        machine.idle = false;
+        machine.freeAt = completion;
+        completions.put(jobId, completion);
+        states.put(jobId, STATE_PROGRESS);
+        plannedVins.put(jobId, machine.vehicle.getVin());
+    }
+
+    /**
+     * Lines the index up with a one-machine pass so later reads and appends
+     * agree with it. If the running job is not first in the index, the index
+     * is rebuilt in the current order.
+     */
+    private void alignIndex(Map<String, LocalDateTime> completions) {
+        String head = scheduleIndex.firstUnfinished();
+        if (head == null) {
+            return;
+        }
+        if (STATE_PROGRESS.equals(jobStatuses.get(head))) {
+            scheduleStart = completions.get(head).minusSeconds(scheduleIndex.offsetOf(head));
+        } else {
+            scheduleIndex = null;
+            syncIndex();
+        }
+    }
+
+    /**
+     * Cancels a finished job's other replicas, dropping their allocations.
+     */
+    private void cancelReplicas(String jobId, String finishedVin) {
+        checkpoints.load();
+        Set<String> vins = new HashSet<>();
+        for (JobCheckpoints.Checkpoint replica : checkpoints.replicas(jobId)) {
+            if (!replica.vin.isEmpty() && !replica.vin.equals(finishedVin)) {
+                vins.add(replica.vin);
+            }
+        }
+        if (!vins.isEmpty() && !allocationDAO.deleteAllocations(jobId, vins)) {
+            logger.warning("Failed to cancel the other replicas of job " + jobId);
+        }
+    }
+
+    private static Allocation allocationFor(Vehicle vehicle, String jobId) {
+        return new Allocation(String.valueOf(vehicle.getOwnerId()), jobId, vehicle.getVin());
+    }
+
+    private void recordAllocations(List<Allocation> allocations) {
+        if (!allocations.isEmpty() && !allocationDAO.addAllocations(allocations)) {
+            logger.warning("Failed to record " + allocations.size() + " vehicle allocation(s)");
+        }
+    }
+
+    /**
+     * Gets the vehicle each job was last allocated to by the scheduler.
+     */
+    private Map<String, String> allocatedVins() {
+        Map<String, String> vins = new HashMap<>();
+        for (Allocation allocation : allocationDAO.getAllAllocations()) {
+            if (allocation.getVin() != null) {
+                vins.put(allocation.getJobId(), allocation.getVin());
+            }
+        }
+        return vins;
+    }
+
+    private static LocalDateTime parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(timestamp, TIMESTAMP_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Brings the index up to date with the jobs file. Nothing is done unless
+     * the file changed since the last sync; then only jobs that were added,
+     * removed, finished or re-timed touch the index.
+     */
+    private void syncIndex() {
+        datePolicy();
+        loadPersistedSchedule();
+
+        long version = jobDAO.getDataVersion();
+        if (scheduleIndex != null && version == indexedJobsVersion) {
+            return;
+        }
+        List<Job> allJobs = orderJobs(jobDAO.getAllJobs());
+        indexedJobsVersion = version;
+
+        if (scheduleIndex == null || !updateIndex(allJobs)) {
+            scheduleIndex = new CompletionTimeIndex(runOrder(datedPolicy));
+            jobStatuses.clear();
+            jobReplicas.clear();
+            for (Job job : allJobs) {
+                scheduleIndex.append(job, parseJobDuration(job).getSeconds(), STATE_COMPLETED.equals(job.getStatus()));
+                noteJob(job);
+            }
+            scheduleStart = startFromPersistedHead();
+
+            List<String> removed = new ArrayList<>();
+            for (String jobId : persistedTimes.keySet()) {
+                if (!scheduleIndex.contains(jobId)) {
+                    removed.add(jobId);
+                }
+            }
+            removeFromSchedule(removed);
+        }
+    }
+
+    /**
+     * Applies the differences between the index and the jobs file.
+     * @return false if a new job does not go at the end of the queue and the index must be rebuilt.
+     */
+    private boolean updateIndex(List<Job> allJobs) {
+        boolean idle = scheduleIndex.firstUnfinished() == null;
+        Set<String> present = new HashSet<>();
+        for (Job job : allJobs) {
+            String jobId = job.getJobId();
+            long seconds = parseJobDuration(job).getSeconds();
+            boolean done = STATE_COMPLETED.equals(job.getStatus());
+            present.add(jobId);
+            if (!scheduleIndex.contains(jobId)) {
+                if (!scheduleIndex.append(job, seconds, done)) {
+                    return false;
+                }
+            } else {
+                if (scheduleIndex.durationOf(jobId) != seconds) {
+                    scheduleIndex.setDuration(jobId, seconds);
+                }
+                scheduleIndex.setFinished(jobId, done);
+            }
+            noteJob(job);
+        }
+
+        if (present.size() < scheduleIndex.size()) {
+            List<String> removed = new ArrayList<>();
+            for (String jobId : scheduleIndex.jobIdsFrom(null)) {
+                if (!present.contains(jobId)) {
+                    scheduleIndex.remove(jobId);
+                    jobStatuses.remove(jobId);
+                    jobReplicas.remove(jobId);
+                    removed.add(jobId);
+                }
+            }
+            removeFromSchedule(removed);
+        }
+
+        if (idle) {
+            scheduleStart = LocalDateTime.now();
+        }
+        return true;
+    }
+
+    private static void noteJob(Job job) {
+        jobStatuses.put(job.getJobId(), job.getStatus());
+        if (job.getReplicas() > 1) {
+            jobReplicas.put(job.getJobId(), job.getReplicas());
+        } else {
+            jobReplicas.remove(job.getJobId());
+        }
+    }
+
+    private boolean anyInProgress(List<String> jobIds) {
+        for (String jobId : jobIds) {
+            if (STATE_PROGRESS.equals(jobStatuses.get(jobId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Works out the schedule start from the saved completion time of the first
+     * unfinished job, so a restart does not move the plan. Falls back to now.
+     */
+    private LocalDateTime startFromPersistedHead() {
+        String head = scheduleIndex.firstUnfinished();
+        String saved = head != null ? persistedTimes.get(head) : null;
+        if (saved != null) {
+            try {
+                return LocalDateTime.parse(saved, TIMESTAMP_FORMATTER)
+                        .minusSeconds(scheduleIndex.offsetOf(head));
+            } catch (DateTimeParseException e) {
+                logger.log(Level.FINE, "Ignoring unparseable completion time for job " + head + ": " + saved);
+            }
+        }
+        return LocalDateTime.now();
+    }
+
+    /**
+     * Gets an unfinished job's completion time from the index in O(log n).
+     */
+    private LocalDateTime completionOf(String jobId) {
+        return scheduleStart.plusSeconds(scheduleIndex.offsetOf(jobId));
+    }
+
+    /**
+     * Gets a job's completion time as it currently stands: from the index for
+     * an unfinished job when the pool is one vehicle that never leaves,
+     * otherwise as saved. The schedule lock must be held.
+     */
+    private String currentCompletionTime(String jobId) {
+        if (vehiclePool != null && vehiclePool.isSingleUnbounded()
+                && scheduleIndex.contains(jobId) && !scheduleIndex.isFinished(jobId)) {
+            return completionOf(jobId).format(TIMESTAMP_FORMATTER);
+        }
+        return persistedTimes.get(jobId);
+    }
+
+    /**
+     * Writes changed job statuses back to the jobs file in one pass.
+     * @return true if saved successfully, false otherwise.
+     */
+    private boolean setJobStatuses(Map<String, String> statuses) {
+        if (statuses.isEmpty()) {
+            return true;
+        }
+        if (!jobDAO.updateJobStatuses(statuses)) {
+            return false;
+        }
+        jobStatuses.putAll(statuses);
+        // Our own write; no need to re-read the file on the next sync
+        indexedJobsVersion = jobDAO.getDataVersion();
+        return true;
+    }
+
     /**
      * Gets job duration in a human-readable format (e.g., "2 hours 30 minutes")
      * @param jobId The job ID
      * @return Human-readable duration string
      */
     public String getJobDurationFormatted(String jobId) {
-        Long minutes = jobDurations.get(jobId);
+        Long minutes = null;
+        scheduleLock.lock();
+        try {
+            if (scheduleIndex != null && scheduleIndex.contains(jobId)) {
+                minutes = scheduleIndex.durationOf(jobId) / 60;
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
         if (minutes == null) {
             return "Unknown";
         }
@@ -159,75 +933,404 @@ public class CloudControllerDAO {
      * @return Duration object representing the job's processing time
      */
     private Duration parseJobDuration(Job job) {
-        // Parse job duration (assuming format: HH:mm:ss)
-        LocalTime durationTime;
-        try {
-            durationTime = LocalTime.parse(job.getDuration(), TIME_FORMATTER);
-        } catch (DateTimeParseException e) {
+        Duration duration = durationOf(job);
+        if (duration == null) {
             logger.log(Level.WARNING, "Invalid duration format for job " + job.getJobId() + ": " + job.getDuration());
             // Default to 1 hour if parsing fails
-            durationTime = LocalTime.of(1, 0, 0);
+            duration = Duration.ofHours(1);
         }
+        return duration;
+    }
+
+    /**
+     * Parses a job's duration (format: HH:mm:ss) without logging.
+     * @return The duration, or null if it cannot be parsed.
+     */
+    private static Duration durationOf(Job job) {
+        return parseDuration(job.getDuration());
+    }
 
-        // Convert LocalTime to Duration (hours, minutes, seconds)
-        return Duration.ofHours(durationTime.getHour())
-                .plusMinutes(durationTime.getMinute())
-                .plusSeconds(durationTime.getSecond());
+    /**
+     * Gets when a vehicle leaves: its registration time plus its residency time.
+     * @return The departure time, or LocalDateTime.MAX if either cannot be parsed.
+     */
+    private static LocalDateTime departureOf(Vehicle vehicle) {
+        LocalDateTime registered = parseTimestamp(vehicle.getRegisteredTimestamp());
+        Duration residency = parseDuration(vehicle.getResidencyTime());
+        if (registered == null || residency == null) {
+            return LocalDateTime.MAX;
+        }
+        return registered.plus(residency);
+    }
+
+    /**
+     * Parses a duration written as a time of day (format: HH:mm:ss).
+     * @return The duration, or null if it cannot be parsed.
+     */
+    private static Duration parseDuration(String value) {
+        try {
+            LocalTime durationTime = LocalTime.parse(value, TIME_FORMATTER);
+            // Convert LocalTime to Duration (hours, minutes, seconds)
+            return Duration.ofHours(durationTime.getHour())
+                    .plusMinutes(durationTime.getMinute())
+                    .plusSeconds(durationTime.getSecond());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a job's deadline (format: yyyy-MM-dd).
+     * @return The deadline, or null if it cannot be parsed.
+     */
+    private static LocalDate deadlineOf(Job job) {
+        try {
+            return LocalDate.parse(job.getDeadline().trim());
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
     }
 
     /**
-     * Marks the currently in-progress job as completed and advances the queue.
+     * Marks the in-progress job that is due to finish first as completed, then
+     * starts the next queued job on the vehicle it frees. This is the manual
+     * override; JobAdvancementService completes jobs when they are due.
      * @return The ID of the newly in-progress job, or null if no jobs are available.
      */
     public String advanceJobQueue() {
-        List<Job> allJobs = jobDAO.getAllJobs();
-        allJobs.sort(Comparator.comparing(Job::getCreatedTimestamp)); // FIFO order
+        scheduleLock.lock();
+        try {
+            syncIndex();
+
+            // Find the running job due to finish first
+            String finishingJobId = null;
+            LocalDateTime earliest = null;
+            for (String jobId : scheduleIndex.jobIdsFrom(scheduleIndex.firstUnfinished())) {
+                if (!scheduleIndex.isFinished(jobId) && STATE_PROGRESS.equals(jobStatuses.get(jobId))) {
+                    LocalDateTime completion = parseTimestamp(persistedTimes.get(jobId));
+                    if (finishingJobId == null || (completion != null && (earliest == null || completion.isBefore(earliest)))) {
+                        finishingJobId = jobId;
+                        earliest = completion;
+                    }
+                }
+            }
 
-        Job inProgressJob = null;
-        List<Job> queuedJobs = new ArrayList<>();
+            if (finishingJobId != null) {
+                if (!setJobStatuses(Collections.singletonMap(finishingJobId, STATE_COMPLETED))) {
+                    logger.warning("Failed to advance the job queue");
+                    return null;
+                }
+                scheduleIndex.setFinished(finishingJobId, true);
+                cancelReplicas(finishingJobId, plannedVins.remove(finishingJobId));
+                saveSchedule(Collections.singletonMap(finishingJobId, LocalDateTime.now().format(TIMESTAMP_FORMATTER)));
+            }
 
-        // Find the current in-progress job and all queued jobs
-        for (Job job : allJobs) {
-            if (STATE_PROGRESS.equals(job.getStatus())) {
-                inProgressJob = job;
-            } else if (STATE_QUEUED.equals(job.getStatus())) {
-                queuedJobs.add(job);
+            // The freed vehicle takes the next job from now
+            List<String> started = new ArrayList<>();
+            recalculate(started);
+
+            return started.isEmpty() ? null : started.get(0);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the new jobs that could not finish by the end of their deadline
+     * day if they were added to the schedule now, so they can be turned away
+     * before they hold up the queue. The jobs themselves are not added, but
+     * a vehicle plan that is missing or older than the vehicles file is
+     * rebuilt and saved first, just as the next scheduling call would do, so
+     * the estimates match what that call will plan. Each job is placed
+     * the way {@link #scheduleJobs} would place it: on a single vehicle that
+     * never leaves, at its place in run order, found by a binary search of the index plus one
+     * prefix sum; otherwise, on its best-fit vehicle after the jobs
+     * already planned. Either way a job costs O(log n). The jobs are placed
+     * in run order, and a job that would be late takes no time from the ones
+     * after it. A job no vehicle stays long enough to finish is not counted
+     * as late; it waits for one, shown as {@link #AWAITING_VEHICLE}.
+     * @param jobs The jobs about to be added.
+     * @return The jobs that would be late, mapped to the earliest each could complete.
+     */
+    public Map<String, LocalDateTime> findLateJobs(List<Job> jobs) {
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            if (vehiclePool == null || vehicleDAO.getDataVersion() != plannedVehiclesVersion) {
+                recalculate(null);
+            }
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            Map<String, LocalDateTime> late = new LinkedHashMap<>();
+
+            if (vehiclePool.isSingleUnbounded()) {
+                LocalDateTime start = scheduleIndex.firstUnfinished() != null ? scheduleStart : now;
+                long admittedAhead = 0;
+                for (Job job : orderJobs(jobs)) {
+                    long seconds = parseJobDuration(job).getSeconds();
+                    LocalDateTime completion = start.plusSeconds(scheduleIndex.offsetBefore(job) + admittedAhead + seconds);
+                    if (completion.isBefore(now.plusSeconds(seconds))) {
+                        completion = now.plusSeconds(seconds);
+                    }
+                    if (missesDeadline(job, completion)) {
+                        late.put(job.getJobId(), completion);
+                    } else {
+                        admittedAhead += seconds;
+                    }
+                }
+                return late;
+            }
+
+            // Place the jobs for real, then put the vehicles back as they were
+            Deque<VehiclePool.Machine> placed = new ArrayDeque<>();
+            Deque<LocalDateTime> freeTimes = new ArrayDeque<>();
+            Deque<Boolean> idleFlags = new ArrayDeque<>();
+            for (Job job : orderJobs(jobs)) {
+                long seconds = parseJobDuration(job).getSeconds();
+                VehiclePool.Machine machine = vehiclePool.bestFit(seconds, now);
+                if (machine == null) {
+                    continue;
+                }
+                LocalDateTime completion = VehiclePool.startOn(machine, now).plusSeconds(seconds);
+                if (missesDeadline(job, completion)) {
+                    late.put(job.getJobId(), completion);
+                    continue;
+                }
+                placed.push(machine);
+                freeTimes.push(machine.freeAt);
+                idleFlags.push(machine.idle);
+                machine.freeAt = completion;
+                machine.idle = false;
+            }
+            while (!placed.isEmpty()) {
+                VehiclePool.Machine machine = placed.pop();
+                machine.freeAt = freeTimes.pop();
+                machine.idle = idleFlags.pop();
+            }
+            return late;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Adds jobs to the jobs file and the schedule in one step under the
+     * schedule lock, so two callers cannot both admit jobs against the same
+     * free time. With deadline checks on, jobs {@link #findLateJobs} finds
+     * late are left out. Vehicles should be added before calling this, so
+     * the check counts them.
+     * @param jobs The jobs to add, in creation order.
+     * @param checkDeadlines Whether to turn away jobs that would finish late.
+     * @return The jobs admitted and the ones turned away.
+     */
+    public AdmissionResult admitJobs(List<Job> jobs, boolean checkDeadlines) {
+        scheduleLock.lock();
+        try {
+            Map<String, LocalDateTime> late = checkDeadlines && !jobs.isEmpty()
+                    ? findLateJobs(jobs) : new LinkedHashMap<>();
+            List<Job> admitted = new ArrayList<>(jobs.size());
+            for (Job job : jobs) {
+                if (!late.containsKey(job.getJobId())) {
+                    admitted.add(job);
+                }
+            }
+            if (admitted.isEmpty()) {
+                return new AdmissionResult(admitted, late, true);
             }
+            if (!jobDAO.addJobs(admitted)) {
+                return new AdmissionResult(admitted, late, false);
+            }
+            scheduleJobs(admitted);
+            return new AdmissionResult(admitted, late, true);
+        } finally {
+            scheduleLock.unlock();
         }
+    }
 
-        // If there's a job in progress, mark it as completed
-        if (inProgressJob != null) {
-            inProgressJob.setStatus(STATE_COMPLETED);
-            jobDAO.updateJob(inProgressJob);
+    /**
+     * Checks whether a completion time falls after the end of a job's
+     * deadline day. A job without a readable deadline never misses it.
+     */
+    private static boolean missesDeadline(Job job, LocalDateTime completion) {
+        LocalDate deadline = deadlineOf(job);
+        return deadline != null && completion.toLocalDate().isAfter(deadline);
+    }
 
-            // If there are queued jobs, move the next one to in-progress
-            if (!queuedJobs.isEmpty()) {
-                Job nextJob = queuedJobs.get(0);
-                nextJob.setStatus(STATE_PROGRESS);
-                jobDAO.updateJob(nextJob);
+    /**
+     * Gets when the schedule next changes on its own: the earliest completion
+     * time of a running job. For a job whose vehicle leaves before it
+     * finishes, that is when the vehicle leaves and the job has to move.
+     * @return The time, or null if no job is running.
+     */
+    public LocalDateTime getNextCompletionTime() {
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            LocalDateTime earliest = null;
+            for (String jobId : scheduleIndex.jobIdsFrom(scheduleIndex.firstUnfinished())) {
+                if (!scheduleIndex.isFinished(jobId) && STATE_PROGRESS.equals(jobStatuses.get(jobId))) {
+                    LocalDateTime completion = parseTimestamp(currentCompletionTime(jobId));
+                    if (completion != null && (earliest == null || completion.isBefore(earliest))) {
+                        earliest = completion;
+                    }
+                }
+            }
+            return earliest;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
 
-                // Recalculate completion times
-                calculateCompletionTimes();
+    /**
+     * Completes every running job whose completion time has come, then starts
+     * the job planned next on each vehicle that frees up. A job completed on
+     * time leaves the plan intact, so the next jobs start exactly as planned
+     * and no other completion time changes. The whole queue is only
+     * rescheduled when the plan no longer holds: a job has to move off a
+     * departing vehicle, a job is completed late, a replicated job is
+     * involved, or the vehicles changed.
+     * @return The IDs of the jobs completed.
+     */
+    public List<String> completeDueJobs() {
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+            checkpoints.load();
+
+            Map<String, LocalDateTime> finished = new LinkedHashMap<>();
+            boolean replan = vehiclePool == null || vehicleDAO.getDataVersion() != plannedVehiclesVersion;
+            for (String jobId : scheduleIndex.jobIdsFrom(scheduleIndex.firstUnfinished())) {
+                if (scheduleIndex.isFinished(jobId) || !STATE_PROGRESS.equals(jobStatuses.get(jobId))) {
+                    continue;
+                }
+                LocalDateTime completion = parseTimestamp(currentCompletionTime(jobId));
+                if (completion == null || completion.isAfter(now)) {
+                    continue;
+                }
+                if (!hasFinished(jobId, now)) {
+                    // Its vehicle is leaving first; the job moves elsewhere
+                    replan = true;
+                    continue;
+                }
+                finished.put(jobId, completion);
+                if (completion.plusSeconds(ON_TIME_TOLERANCE_SECONDS).isBefore(now) || jobReplicas.containsKey(jobId)) {
+                    replan = true;
+                }
+            }
+            if (finished.isEmpty() && !replan) {
+                return Collections.emptyList();
+            }
 
-                return nextJob.getJobId();
+            Map<String, String> completed = new LinkedHashMap<>();
+            for (String jobId : finished.keySet()) {
+                completed.put(jobId, STATE_COMPLETED);
+            }
+            if (!setJobStatuses(completed)) {
+                logger.warning("Failed to complete " + completed.size() + " due job(s)");
+                return Collections.emptyList();
+            }
+            Map<String, String> completionTimes = new LinkedHashMap<>();
+            Set<String> freedVins = new HashSet<>();
+            for (Map.Entry<String, LocalDateTime> entry : finished.entrySet()) {
+                String jobId = entry.getKey();
+                String vin = plannedVins.remove(jobId);
+                scheduleIndex.setFinished(jobId, true);
+                cancelReplicas(jobId, vin);
+                if (vin != null) {
+                    freedVins.add(vin);
+                }
+                completionTimes.put(jobId, entry.getValue().format(TIMESTAMP_FORMATTER));
             }
+            saveSchedule(completionTimes);
+
+            if (replan) {
+                recalculate(null);
+            } else if (vehiclePool.isSingleUnbounded()) {
+                // The next job starts where the finished one ended
+                scheduleStart = finished.values().iterator().next();
+                placeOnSingleMachine(Collections.emptyList());
+                saveCurrentStates();
+            } else if (!startPlannedJobs(freedVins, now)) {
+                recalculate(null);
+            } else {
+                saveCurrentStates();
+            }
+            return new ArrayList<>(finished.keySet());
+        } finally {
+            scheduleLock.unlock();
         }
-        // If no job was in progress but there are queued jobs, move the first one to in-progress
-        else if (!queuedJobs.isEmpty()) {
-            Job nextJob = queuedJobs.get(0);
-            nextJob.setStatus(STATE_PROGRESS);
-            jobDAO.updateJob(nextJob);
+    }
 
-            // Recalculate completion times
-            calculateCompletionTimes();
+    /**
+     * Checks whether a running job has done all its work by a time, on any
+     * replica. A job with no checkpoints goes by its saved completion time.
+     */
+    private boolean hasFinished(String jobId, LocalDateTime time) {
+        long duration = scheduleIndex.durationOf(jobId);
+        List<JobCheckpoints.Checkpoint> replicas = checkpoints.replicas(jobId);
+        for (JobCheckpoints.Checkpoint replica : replicas) {
+            if (!replica.completion(duration).isAfter(time)) {
+                return true;
+            }
+        }
+        return replicas.isEmpty();
+    }
 
-            return nextJob.getJobId();
+    /**
+     * Starts the job planned next on each freed vehicle: the queued job
+     * planned on it that completes first. Its completion time was worked out
+     * from when the vehicle would be free, so it stands.
+     * @return false if a job planned next is replicated and the queue must be
+     *         rescheduled to launch its replicas; nothing is started then.
+     */
+    private boolean startPlannedJobs(Set<String> vins, LocalDateTime now) {
+        Map<String, String> nextJobs = new HashMap<>();
+        Map<String, LocalDateTime> nextCompletions = new HashMap<>();
+        for (Map.Entry<String, String> planned : plannedVins.entrySet()) {
+            String jobId = planned.getKey();
+            String vin = planned.getValue();
+            if (!vins.contains(vin) || !STATE_QUEUED.equals(jobStatuses.get(jobId))) {
+                continue;
+            }
+            LocalDateTime completion = parseTimestamp(persistedTimes.get(jobId));
+            LocalDateTime first = nextCompletions.get(vin);
+            if (completion != null && (first == null || completion.isBefore(first))) {
+                nextJobs.put(vin, jobId);
+                nextCompletions.put(vin, completion);
+            }
+        }
+        for (String jobId : nextJobs.values()) {
+            if (jobReplicas.containsKey(jobId)) {
+                return false;
+            }
         }
 
-        // Recalculate completion times to ensure consistency
-        calculateCompletionTimes();
+        Map<String, String> started = new LinkedHashMap<>();
+        List<Allocation> allocations = new ArrayList<>();
+        for (VehiclePool.Machine machine : vehiclePool.all()) {
+            String jobId = nextJobs.get(machine.vehicle.getVin());
+            if (jobId != null) {
+                started.put(jobId, STATE_PROGRESS);
+                checkpoints.start(jobId, machine.vehicle.getVin(), now);
+                allocations.add(allocationFor(machine.vehicle, jobId));
+            }
+        }
+        if (setJobStatuses(started)) {
+            checkpoints.save();
+            recordAllocations(allocations);
+        }
+        return true;
+    }
 
-        return null; // No job was advanced
+    /**
+     * Saves the state of every indexed job as it now stands.
+     */
+    private void saveCurrentStates() {
+        Map<String, String> jobStates = new LinkedHashMap<>();
+        for (String jobId : scheduleIndex.jobIdsFrom(null)) {
+            jobStates.put(jobId, jobStatuses.get(jobId));
+        }
+        saveJobStates(jobStates);
     }
 
     /**
@@ -251,7 +1354,8 @@ public class CloudControllerDAO {
     }
 
     /**
-     * Saves the calculated job schedule to a file.
+     * Saves the completion times that differ from the ones already in the
+     * schedule file by appending a line for each.
      * @param completionTimes Map of job IDs to completion times.
      * @return true if saved successfully, false otherwise.
      */
@@ -259,19 +1363,103 @@ public class CloudControllerDAO {
         List<String> lines = new ArrayList<>();
 
         for (Map.Entry<String, String> entry : completionTimes.entrySet()) {
-            String line = entry.getKey() + SEPARATOR + entry.getValue();
-            lines.add(line);
+            if (!entry.getValue().equals(persistedTimes.get(entry.getKey()))) {
+                lines.add(entry.getKey() + SEPARATOR + entry.getValue());
+            }
+        }
+        if (lines.isEmpty()) {
+            return true;
+        }
+
+        if (!FileManager.appendLines(SCHEDULE_FILE, lines)) {
+            return false;
+        }
+        persistedTimes.putAll(completionTimes);
+        scheduleLines += lines.size();
+        return compactScheduleIfNeeded();
+    }
+
+    /**
+     * Drops removed jobs from the schedule file by appending an empty entry for each.
+     */
+    private boolean removeFromSchedule(List<String> jobIds) {
+        List<String> lines = new ArrayList<>();
+        for (String jobId : jobIds) {
+            if (persistedTimes.remove(jobId) != null) {
+                lines.add(jobId + SEPARATOR);
+            }
+        }
+        if (lines.isEmpty()) {
+            return true;
         }
 
-        return FileManager.writeAllLines(SCHEDULE_FILE, lines);
+        if (!FileManager.appendLines(SCHEDULE_FILE, lines)) {
+            return false;
+        }
+        scheduleLines += lines.size();
+        return compactScheduleIfNeeded();
     }
 
     /**
-     * Saves the job states to a file.
+     * Rewrites the schedule file with one line per job once superseded lines
+     * outnumber the live ones, then notes the file's version.
+     */
+    private boolean compactScheduleIfNeeded() {
+        boolean saved = true;
+        if (scheduleLines > persistedTimes.size() * 2 + SCHEDULE_COMPACTION_SLACK) {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, String> entry : persistedTimes.entrySet()) {
+                lines.add(entry.getKey() + SEPARATOR + entry.getValue());
+            }
+            saved = FileManager.writeAllLines(SCHEDULE_FILE, lines);
+            if (saved) {
+                scheduleLines = lines.size();
+            }
+        }
+        persistedScheduleVersion = FileManager.fileVersion(SCHEDULE_FILE);
+        return saved;
+    }
+
+    /**
+     * Reads the schedule file into memory the first time, and again whenever
+     * something other than this class changed it. With read-through off, the
+     * file is only read the first time.
+     * <p>
+     * A change from outside means another process rescheduled, so the index,
+     * the vehicle plan and the cached job statuses are dropped too; the next
+     * operation rebuilds them from the files and replans.
+     */
+    private void loadPersistedSchedule() {
+        if (!scheduleReadThrough && persistedScheduleVersion != -1) {
+            return;
+        }
+        long version = FileManager.fileVersion(SCHEDULE_FILE);
+        if (version == persistedScheduleVersion) {
+            return;
+        }
+        if (persistedScheduleVersion != -1) {
+            scheduleIndex = null;
+            vehiclePool = null;
+            plannedVins.clear();
+            jobStatuses.clear();
+        }
+        List<String> lines = FileManager.readAllLines(SCHEDULE_FILE);
+        persistedTimes.clear();
+        persistedTimes.putAll(parseSchedule(lines));
+        scheduleLines = lines.size();
+        persistedScheduleVersion = version;
+    }
+
+    /**
+     * Saves the job states to a file if any of them changed.
      * @param jobStates Map of job IDs to states.
      * @return true if saved successfully, false otherwise.
      */
     private boolean saveJobStates(Map<String, String> jobStates) {
+        if (jobStates.equals(persistedStates)) {
+            return true;
+        }
+
         List<String> lines = new ArrayList<>();
 
         for (Map.Entry<String, String> entry : jobStates.entrySet()) {
@@ -279,35 +1467,99 @@ public class CloudControllerDAO {
             lines.add(line);
         }
 
-        return FileManager.writeAllLines(JOB_STATE_FILE, lines);
+        if (!FileManager.writeAllLines(JOB_STATE_FILE, lines)) {
+            return false;
+        }
+        persistedStates = new LinkedHashMap<>(jobStates);
+        return true;
     }
 
     /**
-     * Loads the job schedule from file.
+     * Gets the saved job schedule. It is kept in memory and updated on every
+     * write, so the file is only read when another process changed it (and
+     * with read-through off, not even then).
      * @return Map of job IDs to completion times.
      */
     public Map<String, String> loadSchedule() {
+        scheduleLock.lock();
+        try {
+            loadPersistedSchedule();
+            return new LinkedHashMap<>(persistedTimes);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Gets whether schedule reads check the file for changes made outside
+     * this process.
+     * @return true if outside changes are picked up, false if memory is trusted.
+     * @see #setScheduleReadThrough(boolean)
+     */
+    public static boolean isScheduleReadThrough() {
+        scheduleLock.lock();
+        try {
+            return scheduleReadThrough;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Sets whether schedule reads check the file for changes made outside
+     * this process. Turn it off when this process is the only writer; every
+     * read is then served from memory.
+     * @param readThrough true to pick up outside changes, false to trust memory.
+     */
+    public static void setScheduleReadThrough(boolean readThrough) {
+        scheduleLock.lock();
+        try {
+            scheduleReadThrough = readThrough;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Replays schedule lines in order: a later line for a job replaces an
+     * earlier one, and a line with no time removes the job.
+     */
+    private static Map<String, String> parseSchedule(List<String> lines) {
         Map<String, String> completionTimes = new LinkedHashMap<>();
-        List<String> lines = FileManager.readAllLines(SCHEDULE_FILE);
 
         for (String line : lines) {
             String[] parts = line.split(DELIMITER);
             if (parts.length >= 2) {
                 completionTimes.put(parts[0], parts[1]);
+            } else if (line.endsWith(SEPARATOR)) {
+                completionTimes.remove(parts[0]);
             }
         }
 
         return completionTimes;
     }
 
+    /**
+     * Gets a version number that changes whenever the saved schedule changes.
+     * @return The current version of the schedule file.
+     */
+    public long getScheduleVersion() {
+        return FileManager.fileVersion(SCHEDULE_FILE);
+    }
+
     /**
      * Gets a specific job's completion time.
      * @param jobId The ID of the job.
      * @return The completion time as a string, or null if not found.
      */
     public String getJobCompletionTime(String jobId) {
-        Map<String, String> schedule = loadSchedule();
-        return schedule.get(jobId);
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            return currentCompletionTime(jobId);
+        } finally {
+            scheduleLock.unlock();
+        }
     }
 
     /**
@@ -315,92 +1567,246 @@ public class CloudControllerDAO {
      * @return Formatted output string showing job scheduling results.
      */
     public String generateSchedulingOutput() {
-        List<Job> allJobs = jobDAO.getAllJobs();
-        allJobs.sort(Comparator.comparing(Job::getCreatedTimestamp)); // FIFO order
+        List<Job> allJobs = orderJobs(jobDAO.getAllJobs());
 
         Map<String, String> completionTimes = loadSchedule();
+        Map<String, String> vins;
+        Map<String, LocalDateTime> singles;
+        int vehicleCount;
+        scheduleLock.lock();
+        try {
+            vins = new HashMap<>(plannedVins);
+            singles = new HashMap<>(singleCompletions);
+            vehicleCount = vehiclePool != null ? vehiclePool.size() : 0;
+        } finally {
+            scheduleLock.unlock();
+        }
 
         StringBuilder output = new StringBuilder();
-        output.append("Job Scheduling Results (FIFO)\n");
+        output.append("Job Scheduling Results (").append(getSchedulingPolicy().getName()).append(")\n");
         output.append("============================\n");
-        output.append("Job ID | Duration | Time to Complete | Completion Time | Status\n");
-        output.append("--------------------------------------------------------------\n");
-
-        // Running total of time to complete all jobs
-        long runningTotalMinutes = 0;
+        output.append("Job ID | Duration | Time to Complete | Completion Time | Vehicle           | Status\n");
+        output.append("----------------------------------------------------------------------------------\n");
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Totals for comparing schedules: mean time to complete, makespan and deadlines met
+        long sumOfTotalsMinutes = 0;
+        long makespanMinutes = 0;
+        int scheduledJobs = 0;
+        int jobsWithDeadline = 0;
+        int deadlinesMet = 0;
+        int awaitingVehicle = 0;
+        List<Long> minutesToComplete = new ArrayList<>();
+        // The same, with each replicated job on its first replica's vehicle alone
+        List<Long> singleMinutesToComplete = new ArrayList<>();
 
         for (Job job : allJobs) {
-            // Get the job's duration in minutes
-            Duration jobDuration = parseJobDuration(job);
-            long durationMinutes = jobDuration.toMinutes();
-
-            // Add to running total (for FIFO calculation)
-            runningTotalMinutes += durationMinutes;
-
-            // Format the running total as hours and minutes
-            long totalHours = runningTotalMinutes / 60;
-            long totalMinutes = runningTotalMinutes % 60;
-            String timeToComplete = totalHours > 0 ?
-                    String.format("%dh %dm", totalHours, totalMinutes) :
-                    String.format("%dm", totalMinutes);
-
-            // Get formatted job duration (HH:MM:SS)
-            String jobDurationFormatted = job.getDuration();
+            boolean completed = STATE_COMPLETED.equals(job.getStatus());
 
             // Get completion time from the schedule
             String completionTime = completionTimes.getOrDefault(job.getJobId(), "Not calculated");
+            LocalDateTime completion = parseTimestamp(completionTime);
+
+            // Time from now until the job completes on its vehicle
+            String timeToComplete = "-";
+            if (completed) {
+                timeToComplete = "Completed";
+            } else if (completion != null) {
+                long minutesLeft = Math.max(0, Duration.between(now, completion).toMinutes());
+                timeToComplete = formatMinutes(minutesLeft);
+                sumOfTotalsMinutes += minutesLeft;
+                makespanMinutes = Math.max(makespanMinutes, minutesLeft);
+                scheduledJobs++;
+                minutesToComplete.add(minutesLeft);
+                LocalDateTime single = singles.get(job.getJobId());
+                singleMinutesToComplete.add(single != null
+                        ? Math.max(0, Duration.between(now, single).toMinutes()) : minutesLeft);
+            } else if (AWAITING_VEHICLE.equals(completionTime)) {
+                awaitingVehicle++;
+            }
 
-            output.append(String.format("%-7s| %-9s| %-16s| %-15s| %s\n",
+            LocalDate deadline = deadlineOf(job);
+            if (deadline != null && !completed) {
+                jobsWithDeadline++;
+                // A job not scheduled yet counts as a miss
+                if (completion != null && !completion.toLocalDate().isAfter(deadline)) {
+                    deadlinesMet++;
+                }
+            }
+
+            output.append(String.format("%-7s| %-9s| %-16s| %-15s| %-18s| %s\n",
                     job.getJobId(),
-                    jobDurationFormatted,
+                    job.getDuration(),
                     timeToComplete,
                     completionTime,
+                    completed ? "" : vins.getOrDefault(job.getJobId(), ""),
                     job.getStatus()));
         }
 
+        if (scheduledJobs > 0) {
+            output.append("----------------------------------------------------------------------------------\n");
+            output.append(String.format("Makespan: %s on %d vehicle%s\n",
+                    formatMinutes(makespanMinutes), vehicleCount, vehicleCount != 1 ? "s" : ""));
+            output.append(String.format("Average time to complete: %s\n", formatMinutes(sumOfTotalsMinutes / scheduledJobs)));
+            long p95Minutes = percentile95(minutesToComplete);
+            output.append(String.format("95th percentile time to complete: %s\n", formatMinutes(p95Minutes)));
+            if (!singles.isEmpty()) {
+                long singleP95Minutes = percentile95(singleMinutesToComplete);
+                output.append(String.format("Without replicas it would be %s (%s saved)\n",
+                        formatMinutes(singleP95Minutes), formatMinutes(Math.max(0, singleP95Minutes - p95Minutes))));
+            }
+            if (jobsWithDeadline > 0) {
+                output.append(String.format("Deadlines met: %d of %d (%.0f%%)\n",
+                        deadlinesMet, jobsWithDeadline, 100.0 * deadlinesMet / jobsWithDeadline));
+            }
+        }
+        if (awaitingVehicle > 0) {
+            output.append(String.format("Waiting for a vehicle that stays long enough: %d\n", awaitingVehicle));
+        }
+
         return output.toString();
     }
 
     /**
-     * Assigns available vehicles to jobs based on FIFO order.
+     * Gets how long from now until a completion time, formatted like "2h 5m".
+     * @param completionTime A completion time from the schedule.
+     * @return The formatted time, or null if the completion time cannot be parsed.
+     */
+    public static String formatTimeUntil(String completionTime) {
+        LocalDateTime completion = parseTimestamp(completionTime);
+        if (completion == null) {
+            return null;
+        }
+        return formatMinutes(Math.max(0, Duration.between(LocalDateTime.now(), completion).toMinutes()));
+    }
+
+    /**
+     * Gets the 95th percentile of a non-empty list by the nearest-rank method.
+     */
+    private static long percentile95(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(0.95 * sorted.size()) - 1);
+    }
+
+    private static String formatMinutes(long minutes) {
+        return minutes >= 60 ? String.format("%dh %dm", minutes / 60, minutes % 60) : String.format("%dm", minutes);
+    }
+
+    /**
+     * Assigns every idle vehicle the next job in the order set by the
+     * scheduling policy, recording each assignment as an allocation.
      * @return The number of assignments made.
      */
     public int assignVehiclesToJobs() {
-        List<Job> jobs = jobDAO.getAllJobs();
-        List<Vehicle> vehicles = vehicleDAO.getAllVehicles();
+        scheduleLock.lock();
+        try {
+            syncIndex();
+            List<String> started = new ArrayList<>();
+            recalculate(started);
+            return started.size();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
 
-        // Filter for unassigned jobs and sort by creation time (FIFO)
-        List<Job> unassignedJobs = new ArrayList<>();
-        for (Job job : jobs) {
-            if (STATE_QUEUED.equalsIgnoreCase(job.getStatus())) {
-                unassignedJobs.add(job);
-            }
+    /**
+     * First in, first out: jobs run in the order they were created.
+     */
+    public static class FifoPolicy implements SchedulingPolicy {
+
+        @Override
+        public String getName() { return "FIFO"; }
+
+        @Override
+        public int compare(Job a, Job b) {
+            return a.getCreatedTimestamp().compareTo(b.getCreatedTimestamp());
+        }
+    }
+
+    /**
+     * Shortest job first: minimizes the average completion time.
+     */
+    public static class ShortestJobFirstPolicy implements SchedulingPolicy {
+
+        @Override
+        public String getName() { return "Shortest Job First"; }
+
+        @Override
+        public int compare(Job a, Job b) {
+            return Long.compare(secondsOrDefault(a), secondsOrDefault(b));
         }
-        unassignedJobs.sort(Comparator.comparing(Job::getCreatedTimestamp));
+    }
 
-        // Filter for available vehicles
-        List<Vehicle> availableVehicles = new ArrayList<>();
-        for (Vehicle vehicle : vehicles) {
-            // In a real system, we would check vehicle availability here
-            availableVehicles.add(vehicle);
+    /**
+     * Earliest deadline first: meets every deadline that any order could meet.
+     * Jobs without a valid deadline go last.
+     */
+    public static class EarliestDeadlineFirstPolicy implements SchedulingPolicy {
+
+        @Override
+        public String getName() { return "Earliest Deadline First"; }
+
+        @Override
+        public int compare(Job a, Job b) {
+            return deadlineOrMax(a).compareTo(deadlineOrMax(b));
         }
+    }
 
-        // Assign vehicles to jobs (simple implementation)
-        int assignmentCount = 0;
-        for (Job job : unassignedJobs) {
-            if (assignmentCount < availableVehicles.size()) {
-                // Update job status to "In Progress"
-                job.setStatus(STATE_PROGRESS);
-                jobDAO.updateJob(job);
-                assignmentCount++;
-            } else {
-                break; // No more available vehicles
-            }
+    /**
+     * Weighted shortest job first (Smith's rule): jobs run by duration divided
+     * by weight. A job's weight grows as its deadline nears, so a short job
+     * due soon goes first and a long job due far out goes last. Days left are
+     * counted from a fixed reference date, so the order only changes when the
+     * caller moves the policy to a new date with {@link #asOf}.
+     */
+    public static class WeightedPriorityPolicy implements SchedulingPolicy {
+        private final LocalDate referenceDate;
+
+        public WeightedPriorityPolicy() {
+            this(LocalDate.now());
+        }
+
+        /**
+         * @param referenceDate The date days left until a deadline are counted from.
+         */
+        public WeightedPriorityPolicy(LocalDate referenceDate) {
+            this.referenceDate = referenceDate;
+        }
+
+        @Override
+        public String getName() { return "Weighted Priority"; }
+
+        public LocalDate getReferenceDate() { return referenceDate; }
+
+        @Override
+        public SchedulingPolicy asOf(LocalDate date) {
+            return date.equals(referenceDate) ? this : new WeightedPriorityPolicy(date);
+        }
+
+        @Override
+        public int compare(Job a, Job b) {
+            return Double.compare(secondsOrDefault(a) / weightOf(a), secondsOrDefault(b) / weightOf(b));
         }
 
-        // Recalculate completion times after assignments
-        calculateCompletionTimes();
+        /**
+         * Gets a job's weight: 1 for a job due in a week or more, up to 8 for
+         * one due today or overdue.
+         */
+        protected double weightOf(Job job) {
+            long daysLeft = ChronoUnit.DAYS.between(referenceDate, deadlineOrMax(job));
+            return 8.0 / (1 + Math.min(7, Math.max(0, daysLeft)));
+        }
+    }
+
+    private static long secondsOrDefault(Job job) {
+        Duration duration = durationOf(job);
+        return duration != null ? duration.getSeconds() : Duration.ofHours(1).getSeconds();
+    }
 
-        return assignmentCount;
+    private static LocalDate deadlineOrMax(Job job) {
+        LocalDate deadline = deadlineOf(job);
+        return deadline != null ? deadline : LocalDate.MAX;
     }
 }
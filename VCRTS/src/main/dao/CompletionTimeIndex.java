@@ -0,0 +1,248 @@
+package dao;
+
+import models.Job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running totals of job durations in run order, kept in a Fenwick tree so a
+ * job's completion offset (the sum of its own and every earlier unfinished
+ * job's duration) can be read or changed in O(log n).
+ * <p>
+ * Each job gets a slot in the order given to the constructor. Finishing a job
+ * sets its slot to zero; removing one also frees its ID, and the tree is
+ * rebuilt once half of its slots are dead. New jobs usually sort last and are
+ * appended; one that would sort before the last slot makes {@link #append}
+ * return false, and the caller rebuilds the index instead.
+ * <p>
+ * Not thread-safe; CloudControllerDAO guards it with its schedule lock.
+ */
+class CompletionTimeIndex {
+    private long[] tree = new long[16];
+    private long[] seconds = new long[16];
+    private String[] jobIds = new String[16];
+    private Job[] jobs = new Job[16];
+    private boolean[] finished = new boolean[16];
+    private int slots;
+    private int deadSlots;
+    // No unfinished job sits before this slot; finished jobs pile up at the front
+    private int firstUnfinishedHint;
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private final Comparator<Job> order;
+
+    /**
+     * @param order The order jobs run in.
+     */
+    CompletionTimeIndex(Comparator<Job> order) {
+        this.order = order;
+    }
+
+    /**
+     * Appends a job after every existing slot.
+     *
+     * @param job The job.
+     * @param durationSeconds The job's duration.
+     * @param done true if the job has already finished and adds no time.
+     * @return false if the job is already indexed or would not sort last.
+     */
+    boolean append(Job job, long durationSeconds, boolean done) {
+        String jobId = job.getJobId();
+        if (slotOf.containsKey(jobId) || (slots > 0 && order.compare(job, jobs[slots - 1]) < 0)) {
+            return false;
+        }
+        if (slots == tree.length) {
+            grow();
+        }
+        int slot = slots++;
+        jobIds[slot] = jobId;
+        jobs[slot] = job;
+        seconds[slot] = durationSeconds;
+        finished[slot] = done;
+        slotOf.put(jobId, slot);
+        add(slot, done ? 0 : durationSeconds);
+        return true;
+    }
+
+    boolean contains(String jobId) {
+        return slotOf.containsKey(jobId);
+    }
+
+    long durationOf(String jobId) {
+        return seconds[slotOf.get(jobId)];
+    }
+
+    boolean isFinished(String jobId) {
+        return finished[slotOf.get(jobId)];
+    }
+
+    /**
+     * Changes an unfinished job's duration.
+     */
+    void setDuration(String jobId, long durationSeconds) {
+        int slot = slotOf.get(jobId);
+        if (!finished[slot]) {
+            add(slot, durationSeconds - seconds[slot]);
+        }
+        seconds[slot] = durationSeconds;
+    }
+
+    /**
+     * Marks a job finished or unfinished, taking its duration out of or back
+     * into every later job's offset.
+     */
+    void setFinished(String jobId, boolean done) {
+        int slot = slotOf.get(jobId);
+        if (finished[slot] != done) {
+            finished[slot] = done;
+            if (!done) {
+                firstUnfinishedHint = Math.min(firstUnfinishedHint, slot);
+            }
+            add(slot, done ? -seconds[slot] : seconds[slot]);
+        }
+    }
+
+    /**
+     * Drops a job from the index.
+     */
+    void remove(String jobId) {
+        Integer slot = slotOf.remove(jobId);
+        if (slot == null) {
+            return;
+        }
+        if (!finished[slot]) {
+            add(slot, -seconds[slot]);
+        }
+        jobIds[slot] = null;
+        finished[slot] = true;
+        deadSlots++;
+        if (deadSlots * 2 > slots) {
+            compact();
+        }
+    }
+
+    /**
+     * Gets how long after the schedule start a job completes: the total
+     * duration of the unfinished jobs up to and including it.
+     */
+    long offsetOf(String jobId) {
+        return prefixSum(slotOf.get(jobId) + 1);
+    }
+
+    /**
+     * Gets the total duration of the unfinished jobs that would run before a
+     * job not in the index: a binary search for its place in run order, then
+     * one prefix sum.
+     */
+    long offsetBefore(Job job) {
+        int low = 0;
+        int high = slots;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(job, jobs[mid]) < 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return prefixSum(low);
+    }
+
+    /**
+     * Gets the first unfinished job in FIFO order, or null if there is none.
+     */
+    String firstUnfinished() {
+        while (firstUnfinishedHint < slots
+                && (jobIds[firstUnfinishedHint] == null || finished[firstUnfinishedHint])) {
+            firstUnfinishedHint++;
+        }
+        return firstUnfinishedHint < slots ? jobIds[firstUnfinishedHint] : null;
+    }
+
+    /**
+     * Gets the indexed job IDs in FIFO order, starting at a job.
+     *
+     * @param fromJobId The first job to include, or null for all.
+     */
+    List<String> jobIdsFrom(String fromJobId) {
+        List<String> ids = new ArrayList<>();
+        int from = fromJobId != null ? slotOf.get(fromJobId) : 0;
+        for (int slot = from; slot < slots; slot++) {
+            if (jobIds[slot] != null) {
+                ids.add(jobIds[slot]);
+            }
+        }
+        return ids;
+    }
+
+    int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Sums the values of the first {@code count} slots.
+     */
+    private long prefixSum(int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i - 1];
+        }
+        return sum;
+    }
+
+    private void add(int slot, long delta) {
+        for (int i = slot + 1; i <= tree.length; i += i & -i) {
+            tree[i - 1] += delta;
+        }
+    }
+
+    private void grow() {
+        int capacity = tree.length * 2;
+        seconds = Arrays.copyOf(seconds, capacity);
+        jobIds = Arrays.copyOf(jobIds, capacity);
+        jobs = Arrays.copyOf(jobs, capacity);
+        finished = Arrays.copyOf(finished, capacity);
+        rebuildTree(capacity);
+    }
+
+    /**
+     * Closes the gaps left by removed jobs.
+     */
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (jobIds[slot] != null) {
+                jobIds[live] = jobIds[slot];
+                jobs[live] = jobs[slot];
+                seconds[live] = seconds[slot];
+                finished[live] = finished[slot];
+                slotOf.put(jobIds[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(jobIds, live, slots, null);
+        Arrays.fill(jobs, live, slots, null);
+        slots = live;
+        deadSlots = 0;
+        firstUnfinishedHint = 0;
+        rebuildTree(tree.length);
+    }
+
+    /**
+     * Rebuilds the Fenwick tree in O(n) from the slot values.
+     */
+    private void rebuildTree(int capacity) {
+        tree = new long[capacity];
+        for (int slot = 0; slot < slots; slot++) {
+            tree[slot] += finished[slot] ? 0 : seconds[slot];
+            int parent = slot + ((slot + 1) & -(slot + 1));
+            if (parent < capacity) {
+                tree[parent] += tree[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package dao;
+
+import db.FileManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * How far each started job has got, so a job whose vehicle leaves carries on
+ * elsewhere from its last checkpoint instead of starting over.
+ * <p>
+ * A running job checkpoints after every {@link #CHECKPOINT_INTERVAL_SECONDS}
+ * of work. Only the latest checkpoint is kept: the work done, when, and the
+ * vehicle the job has run on since (empty when it is not on a vehicle). When
+ * a job moves, the work since its last checkpoint is lost and resuming it on
+ * the new vehicle costs {@link #MIGRATION_OVERHEAD_SECONDS}.
+ * <p>
+ * A replicated job runs on several vehicles at once and has one checkpoint
+ * per replica, the first launched first. Checkpoints are saved one line per
+ * replica (jobId|doneSeconds|at|vin), and the file is only rewritten when
+ * one changes.
+ * <p>
+ * Not thread-safe; CloudControllerDAO guards it with its schedule lock.
+ */
+class JobCheckpoints {
+    private static final Logger logger = Logger.getLogger(JobCheckpoints.class.getName());
+    private static final String CHECKPOINT_FILE = "job_checkpoints.txt";
+    private static final String DELIMITER = "\\|";
+    private static final String SEPARATOR = "|";
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    static final long CHECKPOINT_INTERVAL_SECONDS = 300;
+    // Time to copy a checkpoint to another vehicle and resume the job there
+    static final long MIGRATION_OVERHEAD_SECONDS = 120;
+
+    /**
+     * A job's latest checkpoint.
+     */
+    static final class Checkpoint {
+        final long doneSeconds;
+        final LocalDateTime at;
+        final String vin;
+
+        Checkpoint(long doneSeconds, LocalDateTime at, String vin) {
+            this.doneSeconds = doneSeconds;
+            this.at = at.withNano(0);
+            this.vin = vin != null ? vin : "";
+        }
+
+        /**
+         * Gets the work saved by the last checkpoint taken up to a time, for
+         * a job running since this checkpoint.
+         */
+        long savedBy(LocalDateTime time, long durationSeconds) {
+            return doneSeconds + CHECKPOINT_INTERVAL_SECONDS * checkpointsBy(time, durationSeconds);
+        }
+
+        /**
+         * Gets when a job running since this checkpoint completes.
+         */
+        LocalDateTime completion(long durationSeconds) {
+            return at.plusSeconds(Math.max(0, durationSeconds - doneSeconds));
+        }
+
+        /**
+         * Moves this checkpoint forward to the last one taken up to a time.
+         * The job's completion time does not change.
+         */
+        Checkpoint rolledTo(LocalDateTime time, long durationSeconds) {
+            long taken = checkpointsBy(time, durationSeconds);
+            if (taken == 0) {
+                return this;
+            }
+            long seconds = CHECKPOINT_INTERVAL_SECONDS * taken;
+            return new Checkpoint(doneSeconds + seconds, at.plusSeconds(seconds), vin);
+        }
+
+        private long checkpointsBy(LocalDateTime time, long durationSeconds) {
+            if (!time.isAfter(at)) {
+                return 0;
+            }
+            long elapsed = Duration.between(at, time).getSeconds();
+            long left = Math.max(0, durationSeconds - doneSeconds);
+            return Math.min(elapsed, left) / CHECKPOINT_INTERVAL_SECONDS;
+        }
+
+        String toLine(String jobId) {
+            return jobId + SEPARATOR + doneSeconds + SEPARATOR + at.format(TIMESTAMP_FORMATTER) + SEPARATOR + vin;
+        }
+    }
+
+    private final Map<String, List<Checkpoint>> checkpoints = new LinkedHashMap<>();
+    private long loadedVersion = -1;
+    private boolean changed;
+
+    /**
+     * Reads the checkpoint file if it changed since it was last read.
+     */
+    void load() {
+        long version = FileManager.fileVersion(CHECKPOINT_FILE);
+        if (version == loadedVersion) {
+            return;
+        }
+        checkpoints.clear();
+        for (String line : FileManager.readAllLines(CHECKPOINT_FILE)) {
+            String[] parts = line.split(DELIMITER, -1);
+            if (parts.length < 4) {
+                continue;
+            }
+            try {
+                checkpoints.computeIfAbsent(parts[0], jobId -> new ArrayList<>()).add(new Checkpoint(
+                        Long.parseLong(parts[1]), LocalDateTime.parse(parts[2], TIMESTAMP_FORMATTER), parts[3]));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                logger.log(Level.WARNING, "Ignoring unparseable checkpoint: " + line);
+            }
+        }
+        loadedVersion = version;
+        changed = false;
+    }
+
+    /**
+     * Gets a job's first replica's checkpoint, or null if it has none.
+     */
+    Checkpoint get(String jobId) {
+        List<Checkpoint> replicas = checkpoints.get(jobId);
+        return replicas != null ? replicas.get(0) : null;
+    }
+
+    /**
+     * Gets the checkpoints of all of a job's replicas, first launched first.
+     */
+    List<Checkpoint> replicas(String jobId) {
+        return checkpoints.getOrDefault(jobId, Collections.emptyList());
+    }
+
+    void put(String jobId, Checkpoint checkpoint) {
+        setReplicas(jobId, Collections.singletonList(checkpoint));
+    }
+
+    void setReplicas(String jobId, List<Checkpoint> replicas) {
+        List<Checkpoint> old = checkpoints.put(jobId, new ArrayList<>(replicas));
+        if (old == null || !linesOf(jobId, old).equals(linesOf(jobId, replicas))) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Launches one more replica of a running job on a vehicle now. It starts
+     * from the replica with the most work saved, once the migration overhead
+     * has passed.
+     *
+     * @return The new replica's checkpoint.
+     */
+    Checkpoint addReplica(String jobId, String vin, LocalDateTime now, long durationSeconds) {
+        long saved = 0;
+        for (Checkpoint replica : replicas(jobId)) {
+            saved = Math.max(saved, replica.savedBy(now, durationSeconds));
+        }
+        Checkpoint replica = saved > 0
+                ? new Checkpoint(saved, now.plusSeconds(MIGRATION_OVERHEAD_SECONDS), vin)
+                : new Checkpoint(0, now, vin);
+        List<Checkpoint> replicas = new ArrayList<>(replicas(jobId));
+        replicas.add(replica);
+        setReplicas(jobId, replicas);
+        return replica;
+    }
+
+    /**
+     * Records a job starting on a vehicle now. A job with saved work resumes
+     * from it once the migration overhead has passed.
+     *
+     * @param vin The vehicle.
+     */
+    void start(String jobId, String vin, LocalDateTime now) {
+        Checkpoint saved = get(jobId);
+        put(jobId, saved != null && saved.doneSeconds > 0
+                ? new Checkpoint(saved.doneSeconds, now.plusSeconds(MIGRATION_OVERHEAD_SECONDS), vin)
+                : new Checkpoint(0, now, vin));
+    }
+
+    /**
+     * Takes a running job off its vehicle, keeping the work saved by its last
+     * checkpoint before it left.
+     *
+     * @param leftAt When the vehicle left.
+     * @return The work the job has left, including the overhead of resuming it.
+     */
+    long suspend(String jobId, Checkpoint running, LocalDateTime leftAt, long durationSeconds) {
+        put(jobId, new Checkpoint(running.savedBy(leftAt, durationSeconds), leftAt, ""));
+        return remainingSeconds(jobId, durationSeconds);
+    }
+
+    /**
+     * Gets the work a job not running on a vehicle has left, including the
+     * overhead of resuming it if it has run before.
+     */
+    long remainingSeconds(String jobId, long durationSeconds) {
+        Checkpoint saved = get(jobId);
+        if (saved == null || saved.doneSeconds == 0) {
+            return durationSeconds;
+        }
+        return Math.max(0, durationSeconds - saved.doneSeconds) + MIGRATION_OVERHEAD_SECONDS;
+    }
+
+    /**
+     * Drops the checkpoints of jobs that are finished or gone.
+     */
+    void retain(Collection<String> unfinishedJobIds) {
+        Set<String> keep = new HashSet<>(unfinishedJobIds);
+        if (checkpoints.keySet().removeIf(jobId -> !keep.contains(jobId))) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the checkpoints if any changed.
+     *
+     * @return true if saved successfully or nothing changed, false otherwise.
+     */
+    boolean save() {
+        if (!changed) {
+            return true;
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, List<Checkpoint>> entry : checkpoints.entrySet()) {
+            lines.addAll(linesOf(entry.getKey(), entry.getValue()));
+        }
+        if (!FileManager.writeAllLines(CHECKPOINT_FILE, lines)) {
+            logger.log(Level.SEVERE, "Failed to save job checkpoints");
+            return false;
+        }
+        loadedVersion = FileManager.fileVersion(CHECKPOINT_FILE);
+        changed = false;
+        return true;
+    }
+
+    private static List<String> linesOf(String jobId, List<Checkpoint> replicas) {
+        List<String> lines = new ArrayList<>();
+        for (Checkpoint replica : replicas) {
+            lines.add(replica.toLine(jobId));
+        }
+        return lines;
+    }
+}
@@ -11,14 +11,18 @@ public class JobDAO {
     private static final String DELIMITER = "\\|";
     private static final String SEPARATOR = "|";
 
+    /**
+     * The replica count is only written for jobs that run on more than one vehicle.
+     */
     private String jobToLine(Job job){
-        return job.getJobId() + SEPARATOR +
+        String line = job.getJobId() + SEPARATOR +
                 job.getJobName() + SEPARATOR +
                 job.getJobOwnerId() + SEPARATOR +
                 job.getDuration() + SEPARATOR +
                 job.getDeadline() + SEPARATOR +
                 job.getStatus() + SEPARATOR +
                 job.getCreatedTimestamp();
+        return job.getReplicas() > 1 ? line + SEPARATOR + job.getReplicas() : line;
     }
 
     private Job lineToJob(String line) {
@@ -32,7 +36,7 @@ public class JobDAO {
             // Check if the timestamp is included in the line
             String timestamp = parts.length >= 7 ? parts[6] : Job.getCurrentTimestamp();
 
-            return new Job(
+            Job job = new Job(
                     parts[0],                       // jobId
                     parts[1],                       // jobName
                     Integer.parseInt(parts[2]),     // jobOwnerId
@@ -41,8 +45,12 @@ public class JobDAO {
                     parts[5],                       // status
                     timestamp                       // createdTimestamp
             );
+            if (parts.length >= 8) {
+                job.setReplicas(Integer.parseInt(parts[7]));  // replicas
+            }
+            return job;
         } catch (NumberFormatException e) {
-            logger.log(Level.WARNING, "Error parsing job owner ID: " + parts[2], e);
+            logger.log(Level.WARNING, "Error parsing job owner ID or replicas: " + line, e);
             return null;
         }
     }
@@ -66,6 +74,14 @@ public class JobDAO {
         return jobs;
     }
 
+    /**
+     * Gets a version number that changes whenever the jobs file changes.
+     * @return the current version of the stored jobs.
+     */
+    public long getDataVersion() {
+        return FileManager.fileVersion(JOBS_FILE);
+    }
+
     /**
      * Adds a new job to the file.
      * @param job the {Job} object containing job details.
@@ -77,6 +93,19 @@ public class JobDAO {
         return FileManager.appendLine(JOBS_FILE, jobLine);
     }
 
+    /**
+     * Adds several jobs to the file in one write.
+     * @param jobs the {Job} objects to be added.
+     * @return true if all jobs were successfully added, otherwise false
+     */
+    public boolean addJobs(List<Job> jobs) {
+        List<String> jobLines = new ArrayList<>();
+        for (Job job : jobs) {
+            jobLines.add(jobToLine(job));
+        }
+        return FileManager.appendLines(JOBS_FILE, jobLines);
+    }
+
     /**
      * Deletes a job from the file.
      * @param jobId the unique identifier of the job to be deleted.
@@ -152,4 +181,36 @@ public class JobDAO {
 
         return updated && FileManager.writeAllLines(JOBS_FILE, updatedLines);
     }
+
+    /**
+     * Sets the status of several jobs in one rewrite of the file.
+     * @param statuses Map of job IDs to their new status.
+     * @return true if every job was found and updated; false otherwise.
+     */
+    public boolean updateJobStatuses(Map<String, String> statuses) {
+        if (statuses.isEmpty()) {
+            return true;
+        }
+
+        List<String> lines = FileManager.readAllLines(JOBS_FILE);
+        List<String> updatedLines = new ArrayList<>();
+        int updated = 0;
+
+        for (String line : lines) {
+            Job existingJob = lineToJob(line);
+            String status = existingJob != null ? statuses.get(existingJob.getJobId()) : null;
+            if (status != null) {
+                existingJob.setStatus(status);
+                updatedLines.add(jobToLine(existingJob));
+                updated++;
+            } else {
+                updatedLines.add(line);
+            }
+        }
+
+        if (updated == 0) {
+            return false;
+        }
+        return FileManager.writeAllLines(JOBS_FILE, updatedLines) && updated == statuses.size();
+    }
 }
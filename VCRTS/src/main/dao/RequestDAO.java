@@ -1,9 +1,16 @@
 package dao;
 
+import db.AppendLog;
 import db.FileManager;
 import models.Request;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List; // Explicitly import java.util.List
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,9 +20,43 @@ import java.util.logging.Logger;
 public class RequestDAO {
     private static final Logger logger = Logger.getLogger(RequestDAO.class.getName());
     private static final String REQUESTS_FILE = "requests.txt";
+    private static final String REQUEST_QUEUE_FILE = "request_queue.txt";
+    private static final String ENTRY_SUBMIT = "SUBMIT";
+    private static final String ENTRY_RESOLVE = "RESOLVE";
     private static final String DELIMITER = "\\|";
     private static final String SEPARATOR = "|";
     
+    /**
+     * Holder for the request ID sequence. The requests file is scanned once,
+     * the first time an ID is needed, and every later ID comes from the counter.
+     */
+    private static final class IdSequence {
+        private static final AtomicInteger LAST_ID =
+                new AtomicInteger(FileManager.generateUniqueNumericId(REQUESTS_FILE) - 1);
+    }
+    
+    /**
+     * Returns the next request ID. This is the single ID source for both
+     * in-memory pending requests and stored requests, so an ID is never reused.
+     * 
+     * @return A new, unique request ID.
+     */
+    public static int nextRequestId() {
+        return IdSequence.LAST_ID.incrementAndGet();
+    }
+    
+    /**
+     * Returns the most recently issued request ID, seeding the sequence if needed.
+     * 
+     * @return The last request ID handed out, or 0 if none exist yet.
+     */
+    public static int lastRequestId() {
+        return IdSequence.LAST_ID.get();
+    }
+    
+    // Journal of submitted and resolved requests, shared by all DAO instances
+    private static final AppendLog requestQueue = new AppendLog(REQUEST_QUEUE_FILE);
+    
     /**
      * Converts a Request object to a line of text for storage.
      */
@@ -32,26 +73,30 @@ public class RequestDAO {
     
     /**
      * Converts a line of text to a Request object.
+     * The request data itself is pipe-delimited, so the fixed fields are read
+     * from both ends of the line and everything in between is the data.
      */
     private Request lineToRequest(String line) {
-        String[] parts = line.split(DELIMITER);
+        String[] parts = line.split(DELIMITER, -1);
         if (parts.length < 7) {
             logger.warning("Invalid request data format: " + line);
             return null;
         }
         
         try {
-            // Extract response message if available
-            String responseMessage = parts.length > 7 ? parts[7] : "";
+            // Lines written by requestToLine always end with the response message
+            int statusIndex = parts.length >= 8 ? parts.length - 3 : parts.length - 2;
+            String responseMessage = parts.length >= 8 ? parts[parts.length - 1] : "";
+            String requestData = String.join(SEPARATOR, Arrays.copyOfRange(parts, 4, statusIndex));
             
             return new Request(
                 Integer.parseInt(parts[0]),  // requestId
                 Integer.parseInt(parts[1]),  // clientId
                 parts[2],                    // clientName
                 parts[3],                    // requestType
-                parts[4],                    // requestData
-                parts[5],                    // status
-                parts[6],                    // timestamp
+                requestData,                 // requestData
+                parts[statusIndex],          // status
+                parts[statusIndex + 1],      // timestamp
                 responseMessage              // responseMessage
             );
         } catch (NumberFormatException e) {
@@ -69,14 +114,36 @@ public class RequestDAO {
     public boolean addRequest(Request request) {
         // Generate a unique ID for the new request (if not already set)
         if (request.getRequestId() <= 0) {
-            int requestId = FileManager.generateUniqueNumericId(REQUESTS_FILE);
-            request.setRequestId(requestId);
+            request.setRequestId(nextRequestId());
+        } else {
+            // Keep the sequence ahead of any ID assigned elsewhere
+            IdSequence.LAST_ID.accumulateAndGet(request.getRequestId(), Math::max);
         }
         
         String requestLine = requestToLine(request);
         return FileManager.appendLine(REQUESTS_FILE, requestLine);
     }
     
+    /**
+     * Adds several requests to the file in one append.
+     * 
+     * @param requests The Request objects to be added.
+     * @return true if the requests were successfully added, false otherwise.
+     */
+    public boolean addRequests(List<Request> requests) {
+        List<String> requestLines = new ArrayList<>();
+        for (Request request : requests) {
+            if (request.getRequestId() <= 0) {
+                request.setRequestId(nextRequestId());
+            } else {
+                // Keep the sequence ahead of any ID assigned elsewhere
+                IdSequence.LAST_ID.accumulateAndGet(request.getRequestId(), Math::max);
+            }
+            requestLines.add(requestToLine(request));
+        }
+        return FileManager.appendLines(REQUESTS_FILE, requestLines);
+    }
+    
     /**
      * Retrieves all requests from the file.
      * 
@@ -97,22 +164,134 @@ public class RequestDAO {
     }
     
     /**
-     * Retrieves all pending requests from the file.
+     * Retrieves all pending requests by replaying the request queue journal.
+     * Only submissions without a matching resolution are returned, in the
+     * order they were submitted.
+     * <p>
+     * A resolution is written to the requests file straight away but reaches
+     * the journal in the background, so a crash in between can leave a
+     * resolved request without its RESOLVE entry. Submissions whose ID is
+     * already in the requests file are therefore skipped as well.
      * 
      * @return A list of pending requests.
      */
     public List<Request> getPendingRequests() {
-        List<Request> pendingRequests = new ArrayList<>();
-        List<String> lines = FileManager.readAllLines(REQUESTS_FILE);
+        Set<Integer> storedIds = new HashSet<>();
+        for (String line : FileManager.readAllLines(REQUESTS_FILE)) {
+            int split = line.indexOf(SEPARATOR);
+            try {
+                storedIds.add(Integer.parseInt(split < 0 ? line : line.substring(0, split)));
+            } catch (NumberFormatException e) {
+                // Malformed lines are reported when the requests are read
+            }
+        }
+        
+        Map<Integer, Request> pendingRequests = new LinkedHashMap<>();
+        List<String> lines = FileManager.readAllLines(REQUEST_QUEUE_FILE);
         
         for (String line : lines) {
-            Request request = lineToRequest(line);
-            if (request != null && Request.STATUS_PENDING.equals(request.getStatus())) {
-                pendingRequests.add(request);
+            int split = line.indexOf(SEPARATOR);
+            if (split < 0) {
+                continue;
+            }
+            
+            String entryType = line.substring(0, split);
+            String entry = line.substring(split + 1);
+            
+            if (ENTRY_SUBMIT.equals(entryType)) {
+                Request request = lineToRequest(entry);
+                if (request != null) {
+                    IdSequence.LAST_ID.accumulateAndGet(request.getRequestId(), Math::max);
+                    if (!storedIds.contains(request.getRequestId())) {
+                        pendingRequests.put(request.getRequestId(), request);
+                    }
+                }
+            } else if (ENTRY_RESOLVE.equals(entryType)) {
+                try {
+                    pendingRequests.remove(Integer.parseInt(entry.split(DELIMITER)[0]));
+                } catch (NumberFormatException e) {
+                    logger.warning("Invalid request queue entry: " + line);
+                }
             }
         }
         
-        return pendingRequests;
+        return new ArrayList<>(pendingRequests.values());
+    }
+    
+    /**
+     * Records a newly submitted request in the request queue journal.
+     * The append is batched in the background, so this returns immediately.
+     * 
+     * @param request The pending request.
+     */
+    public void journalSubmitted(Request request) {
+        requestQueue.append(ENTRY_SUBMIT + SEPARATOR + requestToLine(request));
+    }
+    
+    /**
+     * Records in the request queue journal that a request is no longer pending.
+     * 
+     * @param requestId The ID of the resolved request.
+     * @param status The final status of the request.
+     */
+    public void journalResolved(int requestId, String status) {
+        requestQueue.append(ENTRY_RESOLVE + SEPARATOR + requestId + SEPARATOR + status);
+    }
+    
+    /**
+     * Records in the request queue journal that several requests are resolved.
+     * 
+     * @param requests The resolved requests, carrying their final status.
+     */
+    public void journalResolvedAll(List<Request> requests) {
+        List<String> entries = new ArrayList<>();
+        for (Request request : requests) {
+            entries.add(ENTRY_RESOLVE + SEPARATOR + request.getRequestId() + SEPARATOR + request.getStatus());
+        }
+        requestQueue.appendAll(entries);
+    }
+    
+    /**
+     * Waits until every journal entry written so far is on disk.
+     * 
+     * @param timeoutMillis The maximum time to wait.
+     * @return true if the journal was flushed in time, false otherwise.
+     */
+    public boolean flushJournal(long timeoutMillis) {
+        return requestQueue.flush(timeoutMillis);
+    }
+    
+    /**
+     * Writes out the journal and stops its writer. Call this once nothing
+     * else will be journaled, e.g. when the server shuts down.
+     * 
+     * @return true if every journal entry reached the disk, false otherwise.
+     */
+    public boolean closeJournal() {
+        return requestQueue.close();
+    }
+    
+    /**
+     * Rewrites the request queue journal so it holds only the given pending
+     * requests. Called at startup so replay time stays proportional to the
+     * number of unresolved requests rather than the full history. The new
+     * journal is written beside the old one and moved over it, so a crash
+     * mid-compaction leaves one or the other intact.
+     * 
+     * @param pendingRequests The requests that are still pending.
+     * @return true if the journal was rewritten successfully, false otherwise.
+     */
+    public boolean compactRequestQueue(List<Request> pendingRequests) {
+        if (!requestQueue.flush(5000)) {
+            logger.warning("Request queue not flushed; skipping compaction");
+            return false;
+        }
+        
+        List<String> lines = new ArrayList<>();
+        for (Request request : pendingRequests) {
+            lines.add(ENTRY_SUBMIT + SEPARATOR + requestToLine(request));
+        }
+        return FileManager.replaceAllLines(REQUEST_QUEUE_FILE, lines);
     }
     
     /**
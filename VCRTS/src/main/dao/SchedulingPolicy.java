@@ -0,0 +1,31 @@
+package dao;
+
+import models.Job;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Decides the order in which queued jobs run. {@link CloudControllerDAO}
+ * orders the queue with a heap built on the active policy; jobs the policy
+ * considers equal run in the order they were created.
+ */
+public interface SchedulingPolicy extends Comparator<Job> {
+
+    /**
+     * Returns a short name for the policy, shown in the dashboard and reports.
+     */
+    String getName();
+
+    /**
+     * Gets this policy as it orders jobs on the given date. A policy whose
+     * order depends on the date returns a copy fixed to that date, so the
+     * order holds still until the caller moves to another date; any other
+     * policy returns itself.
+     *
+     * @param date The date to order jobs as of.
+     */
+    default SchedulingPolicy asOf(LocalDate date) {
+        return this;
+    }
+}
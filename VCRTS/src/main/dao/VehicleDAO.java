@@ -74,6 +74,15 @@ public class VehicleDAO {
         return vehicles;
     }
 
+    /**
+     * Gets a version number that changes whenever the vehicles file changes.
+     *
+     * @return The current version of the stored vehicles.
+     */
+    public long getDataVersion() {
+        return FileManager.fileVersion(VEHICLES_FILE);
+    }
+
     /**
      * Retrieves a list of vehicles owned by a specific user.
      *
@@ -105,6 +114,20 @@ public class VehicleDAO {
         return FileManager.appendLine(VEHICLES_FILE, vehicleLine);
     }
 
+    /**
+     * Adds several vehicle records to the file in one write.
+     *
+     * @param vehicles The Vehicle objects to be added.
+     * @return true if all vehicles were successfully added, false otherwise.
+     */
+    public boolean addVehicles(List<Vehicle> vehicles) {
+        List<String> vehicleLines = new ArrayList<>();
+        for (Vehicle vehicle : vehicles) {
+            vehicleLines.add(vehicleToLine(vehicle));
+        }
+        return FileManager.appendLines(VEHICLES_FILE, vehicleLines);
+    }
+
     /**
      * Deletes a vehicle from the file based on its VIN.
      *
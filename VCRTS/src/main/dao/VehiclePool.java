@@ -0,0 +1,116 @@
+package dao;
+
+import models.Vehicle;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The vehicles jobs are placed on, indexed by when each one leaves. A vehicle
+ * is only parked for its residency time, so a job given to a vehicle that
+ * leaves before the job finishes is cut off and its work wasted.
+ * <p>
+ * {@link #bestFit} only considers vehicles that stay long enough to finish a
+ * job. Of those it prefers the one that can start the job soonest, and among
+ * equally early starts the one leaving first, so the tightest window is
+ * filled and long-staying vehicles are kept for long jobs.
+ * <p>
+ * Not thread-safe; CloudControllerDAO guards it with its schedule lock.
+ */
+class VehiclePool {
+
+    /**
+     * One vehicle in the list scheduler and the time it is next free.
+     */
+    static final class Machine {
+        final Vehicle vehicle;
+        // LocalDateTime.MAX when the vehicle's residency time is unknown
+        final LocalDateTime departure;
+        LocalDateTime freeAt;
+        // Nothing running or planned on it yet, so a job given to it starts now
+        boolean idle = true;
+
+        Machine(Vehicle vehicle, LocalDateTime departure, LocalDateTime freeAt) {
+            this.vehicle = vehicle;
+            this.departure = departure;
+            this.freeAt = freeAt;
+        }
+    }
+
+    private final TreeMap<LocalDateTime, List<Machine>> byDeparture = new TreeMap<>();
+    private final List<Machine> machines = new ArrayList<>();
+
+    /**
+     * Adds a vehicle, free from the given time.
+     *
+     * @param vehicle The vehicle.
+     * @param departure When the vehicle leaves.
+     */
+    Machine add(Vehicle vehicle, LocalDateTime departure, LocalDateTime freeAt) {
+        Machine machine = new Machine(vehicle, departure, freeAt);
+        machines.add(machine);
+        byDeparture.computeIfAbsent(departure, key -> new ArrayList<>()).add(machine);
+        return machine;
+    }
+
+    /**
+     * Gets the vehicles in the order they were added.
+     */
+    List<Machine> all() {
+        return Collections.unmodifiableList(machines);
+    }
+
+    int size() {
+        return machines.size();
+    }
+
+    /**
+     * Checks whether the pool is a single vehicle that never leaves, where
+     * the queue simply runs back to back. An empty pool is not.
+     */
+    boolean isSingleUnbounded() {
+        return machines.size() == 1 && machines.get(0).departure.equals(LocalDateTime.MAX);
+    }
+
+    /**
+     * Picks the vehicle for a job. Vehicles leaving before now + duration
+     * are skipped through the departure index without being looked at.
+     *
+     * @param durationSeconds The job's duration.
+     * @param now The current time; no job starts before it.
+     * @return The vehicle, or null if none stays long enough to finish the job.
+     */
+    Machine bestFit(long durationSeconds, LocalDateTime now) {
+        Machine best = null;
+        LocalDateTime bestStart = null;
+        for (Map.Entry<LocalDateTime, List<Machine>> entry
+                : byDeparture.tailMap(now.plusSeconds(durationSeconds), true).entrySet()) {
+            for (Machine machine : entry.getValue()) {
+                LocalDateTime start = startOn(machine, now);
+                if (start.plusSeconds(durationSeconds).isAfter(machine.departure)) {
+                    continue;
+                }
+                if (best == null || start.isBefore(bestStart)) {
+                    best = machine;
+                    bestStart = start;
+                }
+            }
+            if (best != null && !bestStart.isAfter(now)) {
+                // Starts now on the earliest-leaving vehicle that fits; nothing later does better
+                break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets when a job given to a vehicle now would start on it.
+     */
+    static LocalDateTime startOn(Machine machine, LocalDateTime now) {
+        return machine.freeAt.isAfter(now) ? machine.freeAt : now;
+    }
+}
@@ -0,0 +1,181 @@
+package db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sequential append-only log backed by a file in the data directory.
+ * Callers only enqueue lines, so an append costs microseconds. A background
+ * writer drains whatever has queued up and writes it as one batch, followed
+ * by a single flush to disk.
+ * <p>
+ * A batch that fails to write stays at the head of the log and is retried,
+ * so lines are only counted as written once they are on disk. While writes
+ * are failing, {@link #flush} reports false straight away. The owner closes
+ * the log once nothing else will append to it.
+ */
+public class AppendLog {
+    private static final Logger logger = Logger.getLogger(AppendLog.class.getName());
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final String fileName;
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final Object flushMonitor = new Object();
+    private volatile long written;
+    private volatile boolean failing;
+    private volatile boolean running = true;
+    private final Thread writerThread;
+
+    public AppendLog(String fileName) {
+        this.fileName = fileName;
+        writerThread = new Thread(this::writeLoop, "append-log-" + fileName);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues a line to be appended to the log.
+     *
+     * @param line The line to append, without a line separator.
+     */
+    public void append(String line) {
+        appended.incrementAndGet();
+        queue.add(line);
+    }
+
+    /**
+     * Queues several lines to be appended to the log, in order.
+     *
+     * @param lines The lines to append.
+     */
+    public void appendAll(Collection<String> lines) {
+        appended.addAndGet(lines.size());
+        queue.addAll(lines);
+    }
+
+    /**
+     * Waits until every line queued before this call has been written.
+     *
+     * @param timeoutMillis The maximum time to wait.
+     * @return true if all lines were written in time, false if the wait
+     *         timed out or the last write failed.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = appended.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (flushMonitor) {
+            while (written < target) {
+                if (failing) {
+                    return false;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    flushMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes any queued lines and stops the writer thread. Lines appended
+     * afterwards are never written.
+     *
+     * @return true if every line appended was written.
+     */
+    public boolean close() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return written >= appended.get();
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    String first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, Math.max(0, MAX_BATCH_SIZE - batch.size()));
+                if (writeBatch(batch)) {
+                    failing = false;
+                    synchronized (flushMonitor) {
+                        written += batch.size();
+                        flushMonitor.notifyAll();
+                    }
+                    batch.clear();
+                    continue;
+                }
+
+                synchronized (flushMonitor) {
+                    failing = true;
+                    flushMonitor.notifyAll();
+                }
+                if (running) {
+                    // Keep the batch and try again; the lines after it wait their turn
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } else {
+                    logger.severe("Giving up on " + batch.size() + " lines not written to: " + fileName);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Appends a batch and forces it to disk.
+     *
+     * @return true if the whole batch was written.
+     */
+    private boolean writeBatch(List<String> batch) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : batch) {
+            builder.append(line).append(System.lineSeparator());
+        }
+
+        Path filePath = FileManager.resolve(fileName);
+        try (FileChannel channel = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error appending batch of " + batch.size() + " lines to: " + fileName, e);
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package db;
 
 import java.util.*; 
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.io.*;
@@ -8,19 +9,36 @@ import java.nio.file.*;
 
 public class FileManager {
     private static final Logger logger = Logger.getLogger(FileManager.class.getName());
+    // Overrides the data directory, e.g. so tests can run against a temporary one
+    public static final String DATA_DIR_PROPERTY = "vcrts.data.dir";
     private static final String data_dir = "data";
     
     static {
         try {
-            Files.createDirectories(Paths.get(data_dir));
+            Files.createDirectories(dataDir());
         }
         catch (IOException e){
             logger.log(Level.SEVERE, "Failed to create data directory", e);
         }
     }
     
+    /**
+     * Gets the data directory: the {@value #DATA_DIR_PROPERTY} system
+     * property if set, otherwise "data" in the working directory.
+     */
+    public static Path dataDir() {
+        return Paths.get(System.getProperty(DATA_DIR_PROPERTY, data_dir));
+    }
+    
+    /**
+     * Resolves a data file name to its path inside the data directory.
+     */
+    public static Path resolve(String fileName) {
+        return dataDir().resolve(fileName);
+    }
+    
     public static List<String> readAllLines(String fileName){
-        Path filePath = Paths.get(data_dir, fileName);
+        Path filePath = resolve(fileName);
         try {
             if (!Files.exists(filePath)){
                 Files.createFile(filePath);
@@ -34,7 +52,7 @@ public class FileManager {
     }
     
     public static boolean writeAllLines(String fileName, List<String> lines){
-        Path filePath = Paths.get(data_dir, fileName);
+        Path filePath = resolve(fileName);
         try {
             Files.write(filePath, lines);
             return true;
@@ -44,8 +62,30 @@ public class FileManager {
         }
     }
     
+    /**
+     * Replaces a file's contents without ever leaving it half written: the
+     * lines go to a temporary file next to it, which is then moved over the
+     * original in one step.
+     */
+    public static boolean replaceAllLines(String fileName, List<String> lines) {
+        Path filePath = resolve(fileName);
+        Path tempPath = resolve(fileName + ".tmp");
+        try {
+            Files.write(tempPath, lines);
+            try {
+                Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error replacing file: " + fileName, e);
+            return false;
+        }
+    }
+    
     public static boolean appendLine(String fileName, String line) {
-        Path filePath = Paths.get(data_dir, fileName);
+        Path filePath = resolve(fileName);
         try {
             if (!Files.exists(filePath)) {
                 Files.createFile(filePath);
@@ -59,6 +99,50 @@ public class FileManager {
         }
     }
     
+    /**
+     * Appends several lines to a file in a single write.
+     */
+    public static boolean appendLines(String fileName, List<String> lines) {
+        if (lines.isEmpty()) {
+            return true;
+        }
+        
+        Path filePath = resolve(fileName);
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(System.lineSeparator());
+        }
+        
+        try {
+            if (!Files.exists(filePath)) {
+                Files.createFile(filePath);
+            }
+            Files.write(filePath, builder.toString().getBytes(), StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error appending to file: " + fileName, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Gets a number that changes whenever the file is rewritten or appended to,
+     * built from its last-modified time and size. Returns 0 if the file does not exist.
+     */
+    public static long fileVersion(String fileName) {
+        Path filePath = resolve(fileName);
+        try {
+            if (!Files.exists(filePath)) {
+                return 0;
+            }
+            long modified = Files.getLastModifiedTime(filePath).to(TimeUnit.NANOSECONDS);
+            return modified * 31 + Files.size(filePath);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error reading file attributes: " + fileName, e);
+            return 0;
+        }
+    }
+    
     public static String generateUniqueId(String fileName, String idPrefix) {
         return idPrefix + System.currentTimeMillis();
     }
@@ -80,4 +164,4 @@ public class FileManager {
         }
         return maxId + 1;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
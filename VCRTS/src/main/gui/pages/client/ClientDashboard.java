@@ -1,4 +1,4 @@
-package gui.pages.server;
+package gui.pages.client;
 
 import javax.swing.*;
 import javax.swing.table.*;
@@ -8,24 +8,23 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import controller.ServerController;
+import controller.ChangeFeed;
+import controller.ServerApi;
 import dao.CloudControllerDAO;
-import dao.JobDAO;
 import models.Job;
 import models.Request;
 import models.User;
-import services.RequestNotificationService;
+import services.ChangeFeedWatcher;
 
 public class ClientDashboard extends JPanel {
     private static final Logger logger = Logger.getLogger(ClientDashboard.class.getName());
 
     private User client; // Authenticated client (job owner)
-    private JobDAO jobDAO = new JobDAO();
-    private CloudControllerDAO cloudControllerDAO = new CloudControllerDAO();
-    private ServerController serverController;
-    private RequestNotificationService notificationService;
+    private ServerApi serverApi;
 
     private JTable jobTable;
     private DefaultTableModel tableModel;
@@ -33,21 +32,15 @@ public class ClientDashboard extends JPanel {
     private JButton refreshButton, addJobButton, refreshRequestsButton;
     private DefaultListModel<String> requestListModel;
     private JList<String> requestList;
+    private ChangeFeedWatcher changeWatcher;
 
-    public ClientDashboard(User client) {
+    public ClientDashboard(User client, ServerApi serverApi) {
         this.client = client;
-        serverController = ServerController.getInstance();
-        notificationService = RequestNotificationService.getInstance();
+        this.serverApi = serverApi;
         
         setLayout(new BorderLayout());
         setBackground(new Color(43, 43, 43));
 
-        // Start monitoring for request updates
-        SwingUtilities.invokeLater(() -> {
-            notificationService.startMonitoring(client.getUserId(), SwingUtilities.getWindowAncestor(this) instanceof JFrame ? 
-                (JFrame)SwingUtilities.getWindowAncestor(this) : null);
-        });
-
         // Top panel with title
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.setBackground(new Color(43, 43, 43));
@@ -99,16 +92,52 @@ public class ClientDashboard extends JPanel {
 
         add(controlPanel, BorderLayout.SOUTH);
 
-        // Auto-refresh every 10 seconds - FIXED: Use fully qualified javax.swing.Timer
-        new javax.swing.Timer(10000, e -> {
-            updateTable();
-            refreshRequestStatus();
-        }).start();
-        
         updateTable();
         refreshRequestStatus();
     }
     
+    /**
+     * Starts following the server's change feed once the dashboard is shown,
+     * so jobs and requests are reloaded only when they change.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (changeWatcher == null) {
+            changeWatcher = new ChangeFeedWatcher("client-dashboard-feed",
+                    (afterSeq, timeout) -> serverApi.pollChanges(client.getUserId(), afterSeq, timeout),
+                    this::onChanges);
+            changeWatcher.start();
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (changeWatcher != null) {
+            changeWatcher.close();
+            changeWatcher = null;
+        }
+        super.removeNotify();
+    }
+    
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean jobsChanged = batch.isResync();
+        boolean requestsChanged = batch.isResync();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            if (ChangeFeed.ENTITY_JOB.equals(change.getEntity())) {
+                jobsChanged = true;
+            } else if (ChangeFeed.ENTITY_REQUEST.equals(change.getEntity())) {
+                requestsChanged = true;
+            }
+        }
+        if (jobsChanged) {
+            SwingUtilities.invokeLater(this::updateTable);
+        }
+        if (requestsChanged) {
+            SwingUtilities.invokeLater(this::refreshRequestStatus);
+        }
+    }
+    
     /**
      * Creates the Jobs panel
      */
@@ -300,13 +329,25 @@ public class ClientDashboard extends JPanel {
             // Create the request
             Request request = new Request(client.getUserId(), client.getFullName(), 
                                      Request.TYPE_ADD_JOB, requestData);
+            // One key per dialog, so a retried submission of this job is not queued twice
+            request.setIdempotencyKey(UUID.randomUUID().toString());
             
-            // Submit the request in a background thread
-            new Thread(() -> {
-                boolean success = serverController.submitRequest(request);
-                
-                // Update UI on the event dispatch thread
-                SwingUtilities.invokeLater(() -> {
+            // Submit off the event dispatch thread so a slow server cannot freeze the dashboard
+            new SwingWorker<Boolean, Void>() {
+                @Override
+                protected Boolean doInBackground() {
+                    return serverApi.submitRequest(request);
+                }
+
+                @Override
+                protected void done() {
+                    boolean success;
+                    try {
+                        success = get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        success = false;
+                    }
+
                     if (success) {
                         JOptionPane.showMessageDialog(ClientDashboard.this, 
                             "Job request submitted successfully! Awaiting approval.", 
@@ -314,121 +355,149 @@ public class ClientDashboard extends JPanel {
                             JOptionPane.INFORMATION_MESSAGE);
                         refreshRequestStatus();
                     } else {
+                        // The server explains refusals such as rate limits in the response message
+                        String reason = request.getResponseMessage();
                         JOptionPane.showMessageDialog(ClientDashboard.this, 
-                            "Failed to submit job request!", 
+                            reason != null ? "Job request not accepted: " + reason : "Failed to submit job request!", 
                             "Error", 
                             JOptionPane.ERROR_MESSAGE);
                     }
-                });
-            }).start();
+                }
+            }.execute();
         }
     }
 
     public void updateTable() {
-        // Use a separate thread for database operations
-        new Thread(() -> {
-            try {
-                String selectedStatus = (String) statusFilter.getSelectedItem();
+        // Load the jobs off the event dispatch thread
+        String selectedStatus = (String) statusFilter.getSelectedItem();
+        new SwingWorker<List<Job>, Void>() {
+            @Override
+            protected List<Job> doInBackground() {
                 // If "All" is selected, getJobsByClient returns all jobs for the client.
-                List<Job> jobs = jobDAO.getJobsByClient(client.getUserId(), selectedStatus);
-                
-                // Update UI on the event dispatch thread
-                SwingUtilities.invokeLater(() -> {
-                    tableModel.setRowCount(0);
-                    
-                    // Keep track of cumulative time for FIFO
-                    long cumulativeMinutes = 0;
-
-                    for (Job job : jobs) {
-                        // Calculate job duration in minutes
-                        long durationMinutes = 0;
-                        try {
-                            String[] timeParts = job.getDuration().split(":");
-                            int hours = Integer.parseInt(timeParts[0]);
-                            int minutes = Integer.parseInt(timeParts[1]);
-                            int seconds = Integer.parseInt(timeParts[2]);
-
-                            durationMinutes = hours * 60 + minutes + (seconds > 0 ? 1 : 0); // Round up seconds
-                        } catch (Exception e) {
-                            durationMinutes = 60; // Default to 1 hour if parsing fails
-                        }
-
-                        // Add to cumulative time if not completed
-                        if (!job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
-                            cumulativeMinutes += durationMinutes;
-                        }
-
-                        // Format the cumulative time as hours and minutes
-                        long totalHours = cumulativeMinutes / 60;
-                        long totalMinutes = cumulativeMinutes % 60;
-                        String timeToComplete = totalHours > 0 ?
-                                String.format("%dh %dm", totalHours, totalMinutes) :
-                                String.format("%dm", totalMinutes);
-
-                        // For completed jobs, don't show time to complete
-                        if (job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
-                            timeToComplete = "Completed";
-                        }
-
-                        tableModel.addRow(new Object[]{
-                                job.getJobId(),
-                                job.getStatus(),
-                                job.getDuration(),
-                                timeToComplete,
-                                job.getCreatedTimestamp(),
-                                "Not calculated"  // Placeholder for completion time
-                        });
-                    }
-                });
-            } catch(Exception ex) {
-                Logger.getLogger(ClientDashboard.class.getName()).log(Level.SEVERE, "Error updating job table: " + ex.getMessage(), ex);
-                
-                SwingUtilities.invokeLater(() -> {
+                return serverApi.getJobsByClient(client.getUserId(), selectedStatus);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    showJobs(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    Logger.getLogger(ClientDashboard.class.getName()).log(Level.SEVERE, "Error updating job table: " + cause.getMessage(), cause);
                     JOptionPane.showMessageDialog(ClientDashboard.this, 
-                        "Error loading job data: " + ex.getMessage(), 
+                        "Error loading job data: " + cause.getMessage(), 
                         "Error", 
                         JOptionPane.ERROR_MESSAGE);
-                });
+                }
             }
-        }).start();
+        }.execute();
+    }
+
+    /**
+     * Fills the job table, with a running total of the time each job waits for.
+     */
+    private void showJobs(List<Job> jobs) {
+        tableModel.setRowCount(0);
+
+        // Keep track of cumulative time for FIFO
+        long cumulativeMinutes = 0;
+
+        for (Job job : jobs) {
+            // Calculate job duration in minutes
+            long durationMinutes = 0;
+            try {
+                String[] timeParts = job.getDuration().split(":");
+                int hours = Integer.parseInt(timeParts[0]);
+                int minutes = Integer.parseInt(timeParts[1]);
+                int seconds = Integer.parseInt(timeParts[2]);
+
+                durationMinutes = hours * 60 + minutes + (seconds > 0 ? 1 : 0); // Round up seconds
+            } catch (Exception e) {
+                durationMinutes = 60; // Default to 1 hour if parsing fails
+            }
+
+            // Add to cumulative time if not completed
+            if (!job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
+                cumulativeMinutes += durationMinutes;
+            }
+
+            // Format the cumulative time as hours and minutes
+            long totalHours = cumulativeMinutes / 60;
+            long totalMinutes = cumulativeMinutes % 60;
+            String timeToComplete = totalHours > 0 ?
+                    String.format("%dh %dm", totalHours, totalMinutes) :
+                    String.format("%dm", totalMinutes);
+
+            // For completed jobs, don't show time to complete
+            if (job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
+                timeToComplete = "Completed";
+            }
+
+            tableModel.addRow(new Object[]{
+                    job.getJobId(),
+                    job.getStatus(),
+                    job.getDuration(),
+                    timeToComplete,
+                    job.getCreatedTimestamp(),
+                    "Not calculated"  // Placeholder for completion time
+            });
+        }
     }
     
     /**
      * Refreshes the request status list.
      */
     private void refreshRequestStatus() {
-        // Use a separate thread for fetching request data
-        new Thread(() -> {
-            List<Request> requests = serverController.getClientRequests(client.getUserId());
-            
-            // Update UI on the event dispatch thread
-            SwingUtilities.invokeLater(() -> {
-                requestListModel.clear();
-                
-                if (requests == null || requests.isEmpty()) {
-                    requestListModel.addElement("No requests found.");
-                    return;
-                }
-                
-                for (Request request : requests) {
-                    String status = request.getStatus();
-                    String statusText = "";
-                    
-                    if (Request.STATUS_PENDING.equals(status)) {
-                        statusText = "PENDING - Awaiting approval";
-                    } else if (Request.STATUS_APPROVED.equals(status)) {
-                        statusText = "APPROVED - " + request.getResponseMessage();
-                    } else if (Request.STATUS_REJECTED.equals(status)) {
-                        statusText = "REJECTED - " + request.getResponseMessage();
-                    }
-                    
-                    String requestType = request.getRequestType().equals(Request.TYPE_ADD_JOB) ?
-                        "Add Job" : "Other Request";
-                        
-                    requestListModel.addElement("#" + request.getRequestId() + " - " + requestType + " - " + statusText);
+        // Fetch request data off the event dispatch thread
+        new SwingWorker<List<Request>, Void>() {
+            @Override
+            protected List<Request> doInBackground() {
+                return serverApi.getClientRequests(client.getUserId());
+            }
+
+            @Override
+            protected void done() {
+                List<Request> requests;
+                try {
+                    requests = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    requests = null;
                 }
-            });
-        }).start();
+                showRequests(requests);
+            }
+        }.execute();
+    }
+
+    /**
+     * Lists the client's requests with their status.
+     */
+    private void showRequests(List<Request> requests) {
+        requestListModel.clear();
+
+        if (requests == null || requests.isEmpty()) {
+            requestListModel.addElement("No requests found.");
+            return;
+        }
+
+        for (Request request : requests) {
+            String status = request.getStatus();
+            String statusText = "";
+
+            if (Request.STATUS_PENDING.equals(status)) {
+                statusText = "PENDING - Awaiting approval";
+            } else if (Request.STATUS_APPROVED.equals(status)) {
+                statusText = "APPROVED - " + request.getResponseMessage();
+            } else if (Request.STATUS_REJECTED.equals(status)) {
+                statusText = "REJECTED - " + request.getResponseMessage();
+            } else if (Request.STATUS_EXPIRED.equals(status)) {
+                statusText = "EXPIRED - " + request.getResponseMessage();
+            }
+
+            String requestType = request.getRequestType().equals(Request.TYPE_ADD_JOB) ?
+                "Add Job" : "Other Request";
+
+            requestListModel.addElement("#" + request.getRequestId() + " - " + requestType + " - " + statusText);
+        }
     }
     
     /**
@@ -450,6 +519,8 @@ public class ClientDashboard extends JPanel {
                     setForeground(new Color(0, 128, 0)); // Dark green
                 } else if (text.contains("REJECTED")) {
                     setForeground(Color.RED);
+                } else if (text.contains("EXPIRED")) {
+                    setForeground(Color.GRAY);
                 } else {
                     setForeground(Color.BLACK);
                 }
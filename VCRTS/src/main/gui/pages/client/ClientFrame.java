@@ -4,14 +4,16 @@ import javax.swing.*;
 
 import java.awt.*;
 import java.util.logging.Logger;
+import controller.ServerApi;
 import models.User;
-import gui.pages.*;
+import net.RemoteRequestClient;
 
 public class ClientFrame extends JFrame {
     private static final Logger logger = Logger.getLogger(ClientFrame.class.getName());
     private CardLayout cardLayout;
     private JPanel mainPanel;
     private User currentUser;
+    private RemoteRequestClient serverApi;
 
     public ClientFrame() {
         setTitle("Client VCRTS Application");
@@ -19,6 +21,9 @@ public class ClientFrame extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
+        // All request and data traffic goes through the Cloud Controller over the network
+        serverApi = RemoteRequestClient.fromSystemProperties();
+
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
 
@@ -69,6 +74,13 @@ public class ClientFrame extends JFrame {
         return currentUser;
     }
 
+    /**
+     * Returns the connection to the Cloud Controller
+     */
+    public ServerApi getServerApi() {
+        return serverApi;
+    }
+
     /**
      * Log out the current user and return to the startup page
      */
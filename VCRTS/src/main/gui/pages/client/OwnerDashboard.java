@@ -1,4 +1,4 @@
-package gui.pages.server;
+package gui.pages.client;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -6,19 +6,20 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import dao.VehicleDAO;
+import controller.ChangeFeed;
+import controller.ServerApi;
 import models.Vehicle;
-import services.RequestNotificationService;
+import services.ChangeFeedWatcher;
 
 public class OwnerDashboard extends JPanel {
     private static final Logger logger = Logger.getLogger(OwnerDashboard.class.getName());
 
     private int ownerId;
     private String ownerName;
-    private VehicleDAO vehicleDAO = new VehicleDAO();
-    private RequestNotificationService notificationService;
+    private ServerApi serverApi;
 
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -26,21 +27,16 @@ public class OwnerDashboard extends JPanel {
     // Components for the vehicle list view
     private JTable vehicleTable;
     private DefaultTableModel tableModel;
+    private ChangeFeedWatcher changeWatcher;
 
-    public OwnerDashboard(int ownerId, String ownerName) {
+    public OwnerDashboard(int ownerId, String ownerName, ServerApi serverApi) {
         this.ownerId = ownerId;
         this.ownerName = ownerName;
-        this.notificationService = RequestNotificationService.getInstance();
+        this.serverApi = serverApi;
         
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
 
-        // Start monitoring for request updates
-        SwingUtilities.invokeLater(() -> {
-            notificationService.startMonitoring(ownerId, SwingUtilities.getWindowAncestor(this) instanceof JFrame ? 
-                (JFrame)SwingUtilities.getWindowAncestor(this) : null);
-        });
-
         // Top navigation with title
         JPanel topNav = new JPanel(new BorderLayout());
         topNav.setBackground(new Color(43, 43, 43));
@@ -64,7 +60,7 @@ public class OwnerDashboard extends JPanel {
         contentPanel = new JPanel(cardLayout);
 
         // Create OwnerForm to register vehicles
-        contentPanel.add(new OwnerForm(ownerId, ownerName), "form");
+        contentPanel.add(new OwnerForm(ownerId, ownerName, serverApi), "form");
         contentPanel.add(createVehicleListPanel(), "list");
         add(contentPanel, BorderLayout.CENTER);
 
@@ -76,8 +72,8 @@ public class OwnerDashboard extends JPanel {
     }
     
     // Constructor for backward compatibility
-    public OwnerDashboard(int ownerId) {
-        this(ownerId, "Unknown");
+    public OwnerDashboard(int ownerId, ServerApi serverApi) {
+        this(ownerId, "Unknown", serverApi);
     }
 
     private JPanel createVehicleListPanel() {
@@ -124,30 +120,78 @@ public class OwnerDashboard extends JPanel {
         controlPanel.add(refreshButton);
         panel.add(controlPanel, BorderLayout.SOUTH);
 
-        // Use javax.swing.Timer explicitly to avoid ambiguity
-        new javax.swing.Timer(10000, e -> refreshVehicleTable()).start();
         refreshVehicleTable();
         return panel;
     }
 
-    public void refreshVehicleTable() {
-        try {
-            tableModel.setRowCount(0);
-            List<Vehicle> vehicles = vehicleDAO.getVehiclesByOwner(ownerId);
-            for (Vehicle v : vehicles) {
-                tableModel.addRow(new Object[]{
-                        v.getOwnerId(),
-                        v.getModel(),
-                        v.getMake(),
-                        v.getYear(),
-                        v.getVin(),
-                        v.getResidencyTime(),
-                        v.getRegisteredTimestamp()
-                });
+    /**
+     * Starts following the server's change feed once the dashboard is shown,
+     * so the vehicle table is reloaded only when vehicles change.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (changeWatcher == null) {
+            changeWatcher = new ChangeFeedWatcher("owner-dashboard-feed",
+                    (afterSeq, timeout) -> serverApi.pollChanges(ownerId, afterSeq, timeout),
+                    this::onChanges);
+            changeWatcher.start();
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (changeWatcher != null) {
+            changeWatcher.close();
+            changeWatcher = null;
+        }
+        super.removeNotify();
+    }
+
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean vehiclesChanged = batch.isResync();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            if (ChangeFeed.ENTITY_VEHICLE.equals(change.getEntity())) {
+                vehiclesChanged = true;
             }
-        } catch(Exception ex) {
-            logger.log(Level.SEVERE, "Error refreshing vehicle table: " + ex.getMessage(), ex);
-            JOptionPane.showMessageDialog(this, "Error loading vehicle data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+        if (vehiclesChanged) {
+            SwingUtilities.invokeLater(this::refreshVehicleTable);
+        }
+    }
+
+    public void refreshVehicleTable() {
+        // Fetch from the server off the event dispatch thread
+        new SwingWorker<List<Vehicle>, Void>() {
+            @Override
+            protected List<Vehicle> doInBackground() {
+                return serverApi.getVehiclesByOwner(ownerId);
+            }
+
+            @Override
+            protected void done() {
+                List<Vehicle> vehicles;
+                try {
+                    vehicles = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    logger.log(Level.SEVERE, "Error refreshing vehicle table: " + cause.getMessage(), cause);
+                    JOptionPane.showMessageDialog(OwnerDashboard.this, "Error loading vehicle data: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                tableModel.setRowCount(0);
+                for (Vehicle v : vehicles) {
+                    tableModel.addRow(new Object[]{
+                            v.getOwnerId(),
+                            v.getModel(),
+                            v.getMake(),
+                            v.getYear(),
+                            v.getVin(),
+                            v.getResidencyTime(),
+                            v.getRegisteredTimestamp()
+                    });
+                }
+            }
+        }.execute();
     }
 }
@@ -4,17 +4,24 @@ import javax.swing.*;
 import java.awt.*;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import dao.VehicleDAO;
-import models.Vehicle;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import controller.ServerApi;
+import models.Request;
 
 public class OwnerForm extends JPanel {
     private int ownerId;
+    private String ownerName;
+    private ServerApi serverApi;
     private JTextField modelField, makeField, yearField, vinField;
     private JSpinner hoursSpinner, minutesSpinner, secondsSpinner;
-    private VehicleDAO vehicleDAO = new VehicleDAO();
+    // Identifies the registration being filled in, so a double-click or retry submits it only once
+    private String draftKey = UUID.randomUUID().toString();
 
-    public OwnerForm(int ownerId) {
+    public OwnerForm(int ownerId, String ownerName, ServerApi serverApi) {
         this.ownerId = ownerId;
+        this.ownerName = ownerName;
+        this.serverApi = serverApi;
         setLayout(new BorderLayout());
         setBackground(Color.WHITE);
 
@@ -164,25 +171,52 @@ public class OwnerForm extends JPanel {
                 return;
             }
 
-            Vehicle vehicle = new Vehicle(ownerId, model, make, year, vin, residencyTime);
-
-            if(vehicleDAO.addVehicle(vehicle)){
-                JOptionPane.showMessageDialog(this,
-                        "Vehicle registered successfully! Registration time: " + vehicle.getRegisteredTimestamp(),
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-
-                // Clear fields after successful registration
-                modelField.setText("");
-                makeField.setText("");
-                yearField.setText("");
-                vinField.setText("");
-                hoursSpinner.setValue(1);
-                minutesSpinner.setValue(0);
-                secondsSpinner.setValue(0);
-            } else {
-                JOptionPane.showMessageDialog(this, "Error registering vehicle.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // Format: ownerId|model|make|year|vin|residencyTime
+            String requestData = ownerId + "|" + model + "|" + make + "|" + year + "|" + vin + "|" + residencyTime;
+            Request request = new Request(ownerId, ownerName, Request.TYPE_REGISTER_VEHICLE, requestData);
+            request.setIdempotencyKey(draftKey);
+
+            // Submit off the event dispatch thread so a slow server cannot freeze the form
+            submitButton.setEnabled(false);
+            new SwingWorker<Boolean, Void>() {
+                @Override
+                protected Boolean doInBackground() {
+                    return serverApi.submitRequest(request);
+                }
+
+                @Override
+                protected void done() {
+                    submitButton.setEnabled(true);
+                    boolean success;
+                    try {
+                        success = get();
+                    } catch (InterruptedException | ExecutionException ex) {
+                        success = false;
+                    }
+
+                    if(success){
+                        JOptionPane.showMessageDialog(OwnerForm.this,
+                                "Vehicle registration request #" + request.getRequestId() + " submitted! Awaiting approval.",
+                                "Success",
+                                JOptionPane.INFORMATION_MESSAGE);
+
+                        // Clear fields after successful registration and start a new draft
+                        draftKey = UUID.randomUUID().toString();
+                        modelField.setText("");
+                        makeField.setText("");
+                        yearField.setText("");
+                        vinField.setText("");
+                        hoursSpinner.setValue(1);
+                        minutesSpinner.setValue(0);
+                        secondsSpinner.setValue(0);
+                    } else {
+                        String reason = request.getResponseMessage();
+                        JOptionPane.showMessageDialog(OwnerForm.this,
+                                reason != null ? "Vehicle registration not accepted: " + reason : "Failed to submit vehicle registration request!",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
         });
 
         add(mainPanel, BorderLayout.CENTER);
@@ -109,12 +109,12 @@ public class UniversalDashboard extends JPanel {
         } else {
             // Regular users get both vehicle owner and job owner dashboards
             if (user.hasRole("job_owner")) {
-                clientDashboard = new ClientDashboard(user);
+                clientDashboard = new ClientDashboard(user, client.getServerApi());
                 contentPanel.add(clientDashboard, "job_owner");
             }
 
             if (user.hasRole("vehicle_owner")) {
-                ownerDashboard = new OwnerDashboard(user.getUserId());
+                ownerDashboard = new OwnerDashboard(user.getUserId(), user.getFullName(), client.getServerApi());
                 contentPanel.add(ownerDashboard, "vehicle_owner");
             }
         }
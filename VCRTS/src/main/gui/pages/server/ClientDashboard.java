@@ -8,24 +8,27 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import controller.ChangeFeed;
 import controller.ServerController;
 import dao.CloudControllerDAO;
-import dao.JobDAO;
 import models.Job;
 import models.Request;
 import models.User;
+import services.ChangeFeedWatcher;
 import services.RequestNotificationService;
 
 public class ClientDashboard extends JPanel {
     private static final Logger logger = Logger.getLogger(ClientDashboard.class.getName());
+    private static final String NO_REQUESTS = "No requests found.";
 
     private User client; // Authenticated client (job owner)
-    private JobDAO jobDAO = new JobDAO();
     private CloudControllerDAO cloudControllerDAO = new CloudControllerDAO();
     private ServerController serverController;
     private RequestNotificationService notificationService;
+    private ChangeFeedWatcher changeWatcher;
 
     private JTable jobTable;
     private DefaultTableModel tableModel;
@@ -99,12 +102,6 @@ public class ClientDashboard extends JPanel {
 
         add(controlPanel, BorderLayout.SOUTH);
 
-        // Auto-refresh every 10 seconds
-        new Timer(10000, e -> {
-            updateTable();
-            refreshRequestStatus();
-        }).start();
-        
         updateTable();
         refreshRequestStatus();
     }
@@ -300,11 +297,11 @@ public class ClientDashboard extends JPanel {
             // Create the request
             Request request = new Request(client.getUserId(), client.getFullName(), 
                                      Request.TYPE_ADD_JOB, requestData);
+            // One key per dialog, so a retried submission of this job is not queued twice
+            request.setIdempotencyKey(UUID.randomUUID().toString());
             
-            // Submit the request in a background thread
-            new Thread(() -> {
-                boolean success = serverController.submitRequest(request);
-                
+            // Submit the request on the server's worker pool
+            serverController.submitRequestAsync(request).thenAccept(success -> {
                 // Update UI on the event dispatch thread
                 SwingUtilities.invokeLater(() -> {
                     if (success) {
@@ -312,7 +309,6 @@ public class ClientDashboard extends JPanel {
                             "Job request submitted successfully! Awaiting approval.", 
                             "Success", 
                             JOptionPane.INFORMATION_MESSAGE);
-                        refreshRequestStatus();
                     } else {
                         JOptionPane.showMessageDialog(ClientDashboard.this, 
                             "Failed to submit job request!", 
@@ -320,115 +316,255 @@ public class ClientDashboard extends JPanel {
                             JOptionPane.ERROR_MESSAGE);
                     }
                 });
-            }).start();
+            });
         }
     }
 
     public void updateTable() {
-        // Use a separate thread for database operations
-        new Thread(() -> {
-            try {
-                String selectedStatus = (String) statusFilter.getSelectedItem();
-                // If "All" is selected, getJobsByClient returns all jobs for the client.
-                List<Job> jobs = jobDAO.getJobsByClient(client.getUserId(), selectedStatus);
-                
-                // Update UI on the event dispatch thread
-                SwingUtilities.invokeLater(() -> {
-                    tableModel.setRowCount(0);
-                    
-                    // Keep track of cumulative time for FIFO
-                    long cumulativeMinutes = 0;
-
-                    for (Job job : jobs) {
-                        // Calculate job duration in minutes
-                        long durationMinutes = 0;
-                        try {
-                            String[] timeParts = job.getDuration().split(":");
-                            int hours = Integer.parseInt(timeParts[0]);
-                            int minutes = Integer.parseInt(timeParts[1]);
-                            int seconds = Integer.parseInt(timeParts[2]);
-
-                            durationMinutes = hours * 60 + minutes + (seconds > 0 ? 1 : 0); // Round up seconds
-                        } catch (Exception e) {
-                            durationMinutes = 60; // Default to 1 hour if parsing fails
-                        }
-
-                        // Add to cumulative time if not completed
-                        if (!job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
-                            cumulativeMinutes += durationMinutes;
-                        }
-
-                        // Format the cumulative time as hours and minutes
-                        long totalHours = cumulativeMinutes / 60;
-                        long totalMinutes = cumulativeMinutes % 60;
-                        String timeToComplete = totalHours > 0 ?
-                                String.format("%dh %dm", totalHours, totalMinutes) :
-                                String.format("%dm", totalMinutes);
-
-                        // For completed jobs, don't show time to complete
-                        if (job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
-                            timeToComplete = "Completed";
-                        }
-
-                        tableModel.addRow(new Object[]{
-                                job.getJobId(),
-                                job.getStatus(),
-                                job.getDuration(),
-                                timeToComplete,
-                                job.getCreatedTimestamp(),
-                                "Not calculated"  // Placeholder for completion time
-                        });
-                    }
-                });
-            } catch(Exception ex) {
-                Logger.getLogger(ClientDashboard.class.getName()).log(Level.SEVERE, "Error updating job table: " + ex.getMessage(), ex);
-                
-                SwingUtilities.invokeLater(() -> {
+        // Load the jobs on the server's worker pool
+        String selectedStatus = (String) statusFilter.getSelectedItem();
+        // If "All" is selected, getJobsByClient returns all jobs for the client.
+        serverController.getJobsByClientAsync(client.getUserId(), selectedStatus).whenComplete((jobs, error) -> {
+            // Update UI on the event dispatch thread
+            SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    Logger.getLogger(ClientDashboard.class.getName()).log(Level.SEVERE, "Error updating job table: " + cause.getMessage(), cause);
                     JOptionPane.showMessageDialog(ClientDashboard.this, 
-                        "Error loading job data: " + ex.getMessage(), 
+                        "Error loading job data: " + cause.getMessage(), 
                         "Error", 
                         JOptionPane.ERROR_MESSAGE);
-                });
+                    return;
+                }
+                showJobs(jobs);
+            });
+        });
+    }
+
+    /**
+     * Fills the job table, with a running total of the time each job waits for.
+     */
+    private void showJobs(List<Job> jobs) {
+        tableModel.setRowCount(0);
+        for (Job job : jobs) {
+            tableModel.addRow(jobRow(job));
+        }
+        updateTimesToComplete();
+    }
+
+    private static Object[] jobRow(Job job) {
+        return new Object[]{
+                job.getJobId(),
+                job.getStatus(),
+                job.getDuration(),
+                "",
+                job.getCreatedTimestamp(),
+                "Not calculated"  // Placeholder for completion time
+        };
+    }
+
+    /**
+     * Updates a job's row, adds it if it is new, or drops it if it no longer
+     * matches the status filter. Only the running totals after it change.
+     */
+    private void showJob(Job job) {
+        String selectedStatus = (String) statusFilter.getSelectedItem();
+        boolean matches = "All".equals(selectedStatus) || job.getStatus().equals(selectedStatus);
+        Object[] row = jobRow(job);
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if (job.getJobId().equals(tableModel.getValueAt(i, 0))) {
+                if (!matches) {
+                    tableModel.removeRow(i);
+                } else {
+                    tableModel.setValueAt(row[1], i, 1);
+                    tableModel.setValueAt(row[2], i, 2);
+                }
+                updateTimesToComplete();
+                return;
             }
-        }).start();
+        }
+        if (matches) {
+            tableModel.addRow(row);
+            updateTimesToComplete();
+        }
+    }
+
+    /**
+     * Recomputes the time-to-complete column: the running total of the
+     * durations of the unfinished jobs up to each row.
+     */
+    private void updateTimesToComplete() {
+        // Keep track of cumulative time for FIFO
+        long cumulativeMinutes = 0;
+
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            String status = (String) tableModel.getValueAt(i, 1);
+
+            // For completed jobs, don't show time to complete
+            if (status.equals(CloudControllerDAO.STATE_COMPLETED)) {
+                tableModel.setValueAt("Completed", i, 3);
+                continue;
+            }
+
+            // Add to cumulative time if not completed
+            cumulativeMinutes += durationMinutes((String) tableModel.getValueAt(i, 2));
+
+            // Format the cumulative time as hours and minutes
+            long totalHours = cumulativeMinutes / 60;
+            long totalMinutes = cumulativeMinutes % 60;
+            String timeToComplete = totalHours > 0 ?
+                    String.format("%dh %dm", totalHours, totalMinutes) :
+                    String.format("%dm", totalMinutes);
+            tableModel.setValueAt(timeToComplete, i, 3);
+        }
+    }
+
+    /**
+     * Calculates a job duration in minutes, rounding up seconds.
+     */
+    private static long durationMinutes(String duration) {
+        try {
+            String[] timeParts = duration.split(":");
+            int hours = Integer.parseInt(timeParts[0]);
+            int minutes = Integer.parseInt(timeParts[1]);
+            int seconds = Integer.parseInt(timeParts[2]);
+
+            return hours * 60 + minutes + (seconds > 0 ? 1 : 0); // Round up seconds
+        } catch (Exception e) {
+            return 60; // Default to 1 hour if parsing fails
+        }
     }
     
     /**
      * Refreshes the request status list.
      */
     private void refreshRequestStatus() {
-        // Use a separate thread for fetching request data
-        new Thread(() -> {
-            List<Request> requests = serverController.getClientRequests(client.getUserId());
-            
+        // Fetch request data on the server's worker pool
+        serverController.getClientRequestsAsync(client.getUserId()).thenAccept(requests -> {
             // Update UI on the event dispatch thread
             SwingUtilities.invokeLater(() -> {
                 requestListModel.clear();
                 
                 if (requests == null || requests.isEmpty()) {
-                    requestListModel.addElement("No requests found.");
+                    requestListModel.addElement(NO_REQUESTS);
                     return;
                 }
                 
                 for (Request request : requests) {
-                    String status = request.getStatus();
-                    String statusText = "";
-                    
-                    if (Request.STATUS_PENDING.equals(status)) {
-                        statusText = "PENDING - Awaiting approval";
-                    } else if (Request.STATUS_APPROVED.equals(status)) {
-                        statusText = "APPROVED - " + request.getResponseMessage();
-                    } else if (Request.STATUS_REJECTED.equals(status)) {
-                        statusText = "REJECTED - " + request.getResponseMessage();
-                    }
-                    
-                    String requestType = request.getRequestType().equals(Request.TYPE_ADD_JOB) ?
-                        "Add Job" : "Other Request";
-                        
-                    requestListModel.addElement("#" + request.getRequestId() + " - " + requestType + " - " + statusText);
+                    requestListModel.addElement(describe(request));
                 }
             });
-        }).start();
+        });
+    }
+    
+    /**
+     * Updates a request's line in the list, or adds it at the top if it is new.
+     */
+    private void showRequest(Request request) {
+        String prefix = "#" + request.getRequestId() + " - ";
+        for (int i = 0; i < requestListModel.getSize(); i++) {
+            if (requestListModel.get(i).startsWith(prefix)) {
+                requestListModel.set(i, describe(request));
+                return;
+            }
+        }
+        requestListModel.removeElement(NO_REQUESTS);
+        requestListModel.add(0, describe(request));
+    }
+    
+    private static String describe(Request request) {
+        String status = request.getStatus();
+        String statusText = "";
+        
+        if (Request.STATUS_PENDING.equals(status)) {
+            statusText = "PENDING - Awaiting approval";
+        } else if (Request.STATUS_APPROVED.equals(status)) {
+            statusText = "APPROVED - " + request.getResponseMessage();
+        } else if (Request.STATUS_REJECTED.equals(status)) {
+            statusText = "REJECTED - " + request.getResponseMessage();
+        } else if (Request.STATUS_EXPIRED.equals(status)) {
+            statusText = "EXPIRED - " + request.getResponseMessage();
+        }
+        
+        String requestType = request.getRequestType().equals(Request.TYPE_ADD_JOB) ?
+            "Add Job" : "Other Request";
+            
+        return "#" + request.getRequestId() + " - " + requestType + " - " + statusText;
+    }
+    
+    /**
+     * Starts following the change feed once the dashboard is shown, so the
+     * job table and request list only change when this client's jobs or
+     * requests do.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (changeWatcher == null) {
+            changeWatcher = new ChangeFeedWatcher("server-client-dashboard-feed",
+                    (afterSeq, timeout) -> serverController.pollChanges(client.getUserId(), afterSeq, timeout),
+                    this::onChanges);
+            changeWatcher.start();
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (changeWatcher != null) {
+            changeWatcher.close();
+            changeWatcher = null;
+        }
+        super.removeNotify();
+    }
+    
+    /**
+     * Applies a batch of changes: a resync or reload refreshes the whole
+     * view, and a job or request change only touches its own row.
+     */
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean reloadJobs = batch.isResync();
+        boolean reloadRequests = batch.isResync();
+        List<Job> jobs = new ArrayList<>();
+        List<Request> requests = new ArrayList<>();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            boolean upsert = ChangeFeed.ACTION_UPSERT.equals(change.getAction());
+            if (ChangeFeed.ENTITY_JOB.equals(change.getEntity())) {
+                if (upsert && change.getPayload() instanceof Job) {
+                    jobs.add((Job) change.getPayload());
+                } else {
+                    reloadJobs = true;
+                }
+            } else if (ChangeFeed.ENTITY_REQUEST.equals(change.getEntity())) {
+                if (upsert && change.getPayload() instanceof Request) {
+                    requests.add((Request) change.getPayload());
+                } else {
+                    reloadRequests = true;
+                }
+            }
+        }
+        
+        final boolean refreshJobs = reloadJobs;
+        final boolean refreshRequests = reloadRequests;
+        SwingUtilities.invokeLater(() -> {
+            if (refreshJobs) {
+                updateTable();
+            } else {
+                for (Job job : jobs) {
+                    if (job.getJobOwnerId() == client.getUserId()) {
+                        showJob(job);
+                    }
+                }
+            }
+            if (refreshRequests) {
+                refreshRequestStatus();
+            } else {
+                for (Request request : requests) {
+                    if (request.getClientId() == client.getUserId()) {
+                        showRequest(request);
+                    }
+                }
+            }
+        });
     }
     
     /**
@@ -450,6 +586,8 @@ public class ClientDashboard extends JPanel {
                     setForeground(new Color(0, 128, 0)); // Dark green
                 } else if (text.contains("REJECTED")) {
                     setForeground(Color.RED);
+                } else if (text.contains("EXPIRED")) {
+                    setForeground(Color.GRAY);
                 } else {
                     setForeground(Color.BLACK);
                 }
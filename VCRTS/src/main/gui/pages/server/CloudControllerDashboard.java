@@ -4,12 +4,14 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import dao.JobDAO;
 import dao.UserDAO;
 import dao.AllocationDAO;
 import dao.CloudControllerDAO;
+import dao.SchedulingPolicy;
 import models.Job;
 import models.User;
 import models.Allocation;
@@ -21,7 +23,7 @@ public class CloudControllerDashboard extends JPanel {
     private JButton addUserButton, editUserButton, deleteUserButton;
     private JButton allocateButton, removeAllocationButton;
     private JButton calculateTimesButton, assignVehiclesButton, advanceQueueButton;
-    private JComboBox<String> userDropdown, jobDropdown;
+    private JComboBox<String> userDropdown, jobDropdown, policyDropdown;
     private JLabel queueStatusLabel;
 
     // DAO instances
@@ -105,7 +107,7 @@ public class CloudControllerDashboard extends JPanel {
 
         // Allocations Tab
         JPanel allocationPanel = new JPanel(new BorderLayout());
-        String[] allocationColumns = {"Allocation ID", "User", "Job"};
+        String[] allocationColumns = {"Allocation ID", "User", "Job", "Vehicle"};
         allocationTableModel = new DefaultTableModel(allocationColumns, 0);
         allocationTable = new JTable(allocationTableModel);
 
@@ -152,6 +154,14 @@ public class CloudControllerDashboard extends JPanel {
         schedulePanel.add(new JScrollPane(scheduleTable), BorderLayout.CENTER);
 
         JPanel scheduleControlPanel = new JPanel();
+        policyDropdown = new JComboBox<>();
+        List<SchedulingPolicy> policies = CloudControllerDAO.getAvailablePolicies();
+        for (SchedulingPolicy policy : policies) {
+            policyDropdown.addItem(policy.getName());
+        }
+        policyDropdown.setSelectedItem(CloudControllerDAO.getSchedulingPolicy().getName());
+        scheduleControlPanel.add(new JLabel("Policy:"));
+        scheduleControlPanel.add(policyDropdown);
         calculateTimesButton = new JButton("Calculate Completion Times");
         assignVehiclesButton = new JButton("Assign Vehicles to Jobs");
         advanceQueueButton = new JButton("Advance Job Queue");
@@ -188,6 +198,7 @@ public class CloudControllerDashboard extends JPanel {
         calculateTimesButton.addActionListener(e -> calculateCompletionTimes());
         assignVehiclesButton.addActionListener(e -> assignVehiclesToJobs());
         advanceQueueButton.addActionListener(e -> advanceJobQueue());
+        policyDropdown.addActionListener(e -> changeSchedulingPolicy(policies.get(policyDropdown.getSelectedIndex())));
 
         // Menu actions
         editProfile.addActionListener(e -> JOptionPane.showMessageDialog(this, "Edit Profile clicked"));
@@ -235,49 +246,27 @@ public class CloudControllerDashboard extends JPanel {
         allocationTableModel.setRowCount(0);
         List<Allocation> allocations = allocationDAO.getAllAllocations();
         for (Allocation allocation : allocations) {
-            allocationTableModel.addRow(new Object[]{allocation.getAllocationId(), allocation.getUserId(), allocation.getJobId()});
+            allocationTableModel.addRow(new Object[]{allocation.getAllocationId(), allocation.getUserId(), allocation.getJobId(),
+                    allocation.getVin() != null ? allocation.getVin() : ""});
         }
     }
 
     private void loadScheduleData() {
         scheduleTableModel.setRowCount(0);
         Map<String, String> completionTimes = cloudControllerDAO.loadSchedule();
-        List<Job> jobs = jobDAO.getAllJobs();
-        // Sort jobs by creation timestamp for FIFO display
-        jobs.sort((a, b) -> a.getCreatedTimestamp().compareTo(b.getCreatedTimestamp()));
-
-        // Running total for completion time calculation
-        long runningTotalMinutes = 0;
+        // Show jobs in the order they run under the current policy
+        List<Job> jobs = cloudControllerDAO.orderJobs(jobDAO.getAllJobs());
 
         for (Job job : jobs) {
-            // Calculate job duration in minutes
-            long durationMinutes = 0;
-            try {
-                String[] timeParts = job.getDuration().split(":");
-                int hours = Integer.parseInt(timeParts[0]);
-                int minutes = Integer.parseInt(timeParts[1]);
-                int seconds = Integer.parseInt(timeParts[2]);
-
-                durationMinutes = hours * 60 + minutes + (seconds > 0 ? 1 : 0); // Round up seconds
-            } catch (Exception e) {
-                durationMinutes = 60; // Default to 1 hour if parsing fails
-            }
-
-            // Add current job duration to running total (for FIFO calculation)
-            if (!job.getStatus().equals(CloudControllerDAO.STATE_COMPLETED)) {
-                runningTotalMinutes += durationMinutes;
-            }
-
-            // Format the running total as hours and minutes
-            long totalHours = runningTotalMinutes / 60;
-            long totalMinutes = runningTotalMinutes % 60;
-            String timeToComplete = totalHours > 0 ?
-                    String.format("%dh %dm", totalHours, totalMinutes) :
-                    String.format("%dm", totalMinutes);
-
             // Get completion time
             String completionTime = completionTimes.getOrDefault(job.getJobId(), "Not calculated");
 
+            // Jobs run in parallel across vehicles, so count down to each job's own completion
+            String timeToComplete = CloudControllerDAO.formatTimeUntil(completionTime);
+            if (timeToComplete == null) {
+                timeToComplete = "-";
+            }
+
             // Add row to table
             scheduleTableModel.addRow(new Object[]{
                     job.getJobId(),
@@ -314,7 +303,21 @@ public class CloudControllerDashboard extends JPanel {
     }
 
     /**
-     * Calculates completion times for all jobs using FIFO scheduling
+     * Switches the scheduling policy and recalculates the schedule in the new order
+     */
+    private void changeSchedulingPolicy(SchedulingPolicy policy) {
+        if (policy.getName().equals(CloudControllerDAO.getSchedulingPolicy().getName())) {
+            return;
+        }
+        CloudControllerDAO.setSchedulingPolicy(policy);
+        cloudControllerDAO.calculateCompletionTimes();
+        loadJobData();
+        loadScheduleData();
+        updateQueueStatus();
+    }
+
+    /**
+     * Calculates completion times for all jobs using the selected scheduling policy
      */
     private void calculateCompletionTimes() {
         Map<String, String> completionTimes = cloudControllerDAO.calculateCompletionTimes();
@@ -335,13 +338,13 @@ public class CloudControllerDashboard extends JPanel {
 
             JOptionPane.showMessageDialog(this,
                     scrollPane,
-                    "Job Scheduling Results (FIFO)",
+                    "Job Scheduling Results (" + CloudControllerDAO.getSchedulingPolicy().getName() + ")",
                     JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
     /**
-     * Assigns vehicles to jobs based on availability and FIFO order
+     * Assigns vehicles to jobs based on availability and the scheduling policy
      */
     private void assignVehiclesToJobs() {
         int assignmentCount = cloudControllerDAO.assignVehiclesToJobs();
@@ -469,8 +472,8 @@ public class CloudControllerDashboard extends JPanel {
                         loadJobData();
                         loadAllocationDropdowns();
 
-                        // Recalculate the schedule
-                        cloudControllerDAO.calculateCompletionTimes();
+                        // Add the job to the end of the schedule
+                        cloudControllerDAO.scheduleJobs(Collections.singletonList(job));
                         loadScheduleData();
                         updateQueueStatus();
                     } else {
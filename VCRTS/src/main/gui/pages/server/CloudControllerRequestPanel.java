@@ -1,8 +1,11 @@
 package gui.pages.server;
 
+import controller.ChangeFeed;
+import controller.PendingRequestQueue;
 import controller.ServerController;
 import models.Request;
 import models.User;
+import services.ChangeFeedWatcher;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -10,6 +13,8 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.List; // Explicitly import java.util.List
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Panel for viewing and approving/rejecting client requests in the Cloud Controller.
@@ -18,16 +23,19 @@ public class CloudControllerRequestPanel extends JPanel {
     private JTable requestTable;
     private DefaultTableModel tableModel;
     private JButton approveButton, rejectButton, refreshButton;
+    private JCheckBox autoProcessCheckBox;
     private JTextArea responseArea;
+    private JLabel summaryLabel;
     
     private ServerController serverController;
+    private ChangeFeedWatcher changeWatcher;
     
     public CloudControllerRequestPanel() {
         setLayout(new BorderLayout());
         serverController = ServerController.getInstance();
         
         // Create table for requests
-        String[] columnNames = {"Request ID", "Client ID", "Client Name", "Type", "Data", "Status", "Timestamp"};
+        String[] columnNames = {"Request ID", "Client ID", "Client Name", "Type", "Data", "Status", "Timestamp", "Priority"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override 
             public boolean isCellEditable(int row, int column) {
@@ -36,7 +44,7 @@ public class CloudControllerRequestPanel extends JPanel {
         };
         
         requestTable = new JTable(tableModel);
-        requestTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        requestTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         
         // Center-align table cells
         DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
@@ -67,13 +75,18 @@ public class CloudControllerRequestPanel extends JPanel {
         // Bottom part of control panel for buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
         
-        approveButton = new JButton("Approve Request");
-        rejectButton = new JButton("Reject Request");
+        approveButton = new JButton("Approve Selected");
+        rejectButton = new JButton("Reject Selected");
         refreshButton = new JButton("Refresh Requests");
         
+        // Requests that pass every rule are handled automatically; only exceptions stay listed here
+        autoProcessCheckBox = new JCheckBox("Auto-process requests", serverController.getAutoApprovalEngine().isEnabled());
+        autoProcessCheckBox.setToolTipText("Automatically approve or reject requests that match the approval rules");
+        
         buttonPanel.add(approveButton);
         buttonPanel.add(rejectButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(autoProcessCheckBox);
         
         controlPanel.add(buttonPanel, BorderLayout.SOUTH);
         add(controlPanel, BorderLayout.SOUTH);
@@ -83,7 +96,7 @@ public class CloudControllerRequestPanel extends JPanel {
         clientsPanel.setBorder(BorderFactory.createTitledBorder("Pending Requests Summary"));
         
         // Summary label
-        JLabel summaryLabel = new JLabel("Pending requests: 0", SwingConstants.CENTER);
+        summaryLabel = new JLabel("Pending requests: 0", SwingConstants.CENTER);
         summaryLabel.setFont(new Font("Arial", Font.BOLD, 14));
         clientsPanel.add(summaryLabel, BorderLayout.CENTER);
         
@@ -94,9 +107,11 @@ public class CloudControllerRequestPanel extends JPanel {
         add(splitPane, BorderLayout.CENTER);
         
         // Add action listeners
-        approveButton.addActionListener(e -> approveSelectedRequest());
-        rejectButton.addActionListener(e -> rejectSelectedRequest());
+        approveButton.addActionListener(e -> approveSelectedRequests());
+        rejectButton.addActionListener(e -> rejectSelectedRequests());
         refreshButton.addActionListener(e -> refreshRequests());
+        autoProcessCheckBox.addActionListener(e ->
+            serverController.getAutoApprovalEngine().setEnabled(autoProcessCheckBox.isSelected()));
         
         // Add selection listener to enable/disable buttons
         requestTable.getSelectionModel().addListSelectionListener(e -> {
@@ -107,24 +122,119 @@ public class CloudControllerRequestPanel extends JPanel {
         
         // Initial data load
         refreshRequests();
-        
-        // Start auto-refresh thread
-        new Thread(() -> {
-            try {
-                while (true) {
-                    // Refresh every 5 seconds
-                    Thread.sleep(5000);
-                    
-                    // Update UI on event dispatch thread
-                    SwingUtilities.invokeLater(() -> {
-                        refreshRequests();
-                        updateSummaryLabel(summaryLabel);
-                    });
+    }
+    
+    /**
+     * Starts following the change feed once the panel is shown, so the table
+     * refreshes only when a request is submitted or resolved.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (changeWatcher == null) {
+            changeWatcher = new ChangeFeedWatcher("request-panel-feed",
+                    (afterSeq, timeout) -> serverController.pollChanges(0, afterSeq, timeout),
+                    this::onChanges);
+            changeWatcher.start();
+        }
+    }
+    
+    @Override
+    public void removeNotify() {
+        if (changeWatcher != null) {
+            changeWatcher.close();
+            changeWatcher = null;
+        }
+        super.removeNotify();
+    }
+    
+    /**
+     * Applies a batch of changes: a resync or reload refreshes the whole
+     * table, and a submitted or resolved request only touches its own row.
+     */
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean reload = batch.isResync();
+        List<Request> changed = new ArrayList<>();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            if (!ChangeFeed.ENTITY_REQUEST.equals(change.getEntity())) {
+                continue;
+            }
+            if (ChangeFeed.ACTION_UPSERT.equals(change.getAction()) && change.getPayload() instanceof Request) {
+                changed.add((Request) change.getPayload());
+            } else {
+                reload = true;
+            }
+        }
+        if (reload) {
+            SwingUtilities.invokeLater(() -> {
+                refreshRequests();
+                updateSummaryLabel(summaryLabel);
+            });
+        } else if (!changed.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Request request : changed) {
+                    showRequest(request);
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                updateSummaryLabel(summaryLabel);
+            });
+        }
+    }
+    
+    /**
+     * Updates a request's row: a pending request is added or updated, and a
+     * resolved one is removed. A new request goes after the last request of
+     * its lane, roughly where the queue hands it out; a refresh gives the
+     * exact order.
+     */
+    private void showRequest(Request request) {
+        int row = rowOf(request.getRequestId());
+        if (!Request.STATUS_PENDING.equals(request.getStatus())) {
+            if (row != -1) {
+                tableModel.removeRow(row);
+            }
+            return;
+        }
+        
+        PendingRequestQueue.Priority priority = serverController.getPendingQueue().priorityOf(request);
+        Object[] values = rowValues(request, priority);
+        if (row != -1) {
+            for (int column = 0; column < values.length; column++) {
+                tableModel.setValueAt(values[column], row, column);
             }
-        }).start();
+            return;
+        }
+        int at = tableModel.getRowCount();
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            Object listed = tableModel.getValueAt(i, 7);
+            if (listed instanceof PendingRequestQueue.Priority
+                    && ((PendingRequestQueue.Priority) listed).ordinal() > priority.ordinal()) {
+                at = i;
+                break;
+            }
+        }
+        tableModel.insertRow(at, values);
+    }
+    
+    private int rowOf(int requestId) {
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if (((Integer) tableModel.getValueAt(i, 0)) == requestId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static Object[] rowValues(Request request, PendingRequestQueue.Priority priority) {
+        return new Object[] {
+            request.getRequestId(),
+            request.getClientId(),
+            request.getClientName(),
+            request.getRequestType(),
+            request.getRequestData(),
+            request.getStatus(),
+            request.getTimestamp(),
+            priority
+        };
     }
     
     /**
@@ -145,99 +255,117 @@ public class CloudControllerRequestPanel extends JPanel {
      * Refreshes the requests table with the latest data.
      */
     public void refreshRequests() {
-        new Thread(() -> {
-            final List<Request> requests = serverController.getPendingRequests();
+        // Pending requests are held in memory, so no background thread is needed.
+        // They arrive in the order the priority lanes hand them out.
+        final List<Request> requests = serverController.getPendingRequests();
+        final PendingRequestQueue queue = serverController.getPendingQueue();
+        
+        // Update UI on EDT
+        SwingUtilities.invokeLater(() -> {
+            tableModel.setRowCount(0);
             
-            // Update UI on EDT
-            SwingUtilities.invokeLater(() -> {
-                tableModel.setRowCount(0);
-                
-                if (requests == null || requests.isEmpty()) {
-                    // No requests found
-                    updateSummaryLabel(new JLabel("Pending requests: 0"));
-                    return;
-                }
-                
-                for (Request request : requests) {
-                    tableModel.addRow(new Object[] {
-                        request.getRequestId(),
-                        request.getClientId(),
-                        request.getClientName(),
-                        request.getRequestType(),
-                        request.getRequestData(),
-                        request.getStatus(),
-                        request.getTimestamp()
-                    });
-                }
-                
-                // Enable/disable buttons based on selection
-                boolean hasSelection = requestTable.getSelectedRow() != -1;
-                approveButton.setEnabled(hasSelection);
-                rejectButton.setEnabled(hasSelection);
-            });
-        }).start();
+            if (requests == null || requests.isEmpty()) {
+                // No requests found
+                updateSummaryLabel(new JLabel("Pending requests: 0"));
+                return;
+            }
+            
+            for (Request request : requests) {
+                tableModel.addRow(rowValues(request, queue.priorityOf(request)));
+            }
+            
+            // Enable/disable buttons based on selection
+            boolean hasSelection = requestTable.getSelectedRow() != -1;
+            approveButton.setEnabled(hasSelection);
+            rejectButton.setEnabled(hasSelection);
+        });
     }
     
     /**
-     * Approves the selected request.
+     * Collects the request IDs of all selected rows.
      */
-    private void approveSelectedRequest() {
-        int selectedRow = requestTable.getSelectedRow();
-        if (selectedRow == -1) {
+    private List<Integer> getSelectedRequestIds() {
+        List<Integer> requestIds = new ArrayList<>();
+        for (int selectedRow : requestTable.getSelectedRows()) {
+            requestIds.add((int) tableModel.getValueAt(selectedRow, 0));
+        }
+        return requestIds;
+    }
+    
+    /**
+     * Approves all selected requests in one batch.
+     */
+    private void approveSelectedRequests() {
+        final List<Integer> requestIds = getSelectedRequestIds();
+        if (requestIds.isEmpty()) {
             JOptionPane.showMessageDialog(this, 
-                "Please select a request to approve.", 
+                "Please select one or more requests to approve.", 
                 "No Selection", 
                 JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        int requestId = (int) tableModel.getValueAt(selectedRow, 0);
         String responseMessage = responseArea.getText().trim();
         
         if (responseMessage.isEmpty()) {
             responseMessage = "Request approved by Cloud Controller.";
         }
         
-        // Process approval in a separate thread
+        // Process approval on the server's worker pool
         final String finalResponseMessage = responseMessage;
-        final int finalRequestId = requestId;
         
-        new Thread(() -> {
-            boolean success = serverController.approveRequest(finalRequestId, finalResponseMessage);
+        serverController.approveAllAsync(requestIds, finalResponseMessage).whenComplete((result, error) -> {
+            final List<Integer> approvedIds = error == null ? result.getApprovedIds() : new ArrayList<>();
+            final Map<Integer, String> rejected = error == null ? result.getRejected() : new LinkedHashMap<>();
             
             // Update UI on EDT
             SwingUtilities.invokeLater(() -> {
-                if (success) {
+                // Jobs turned away for missing their deadline were handled, just not approved
+                StringBuilder rejectedText = new StringBuilder();
+                for (Map.Entry<Integer, String> entry : rejected.entrySet()) {
+                    rejectedText.append("\nRequest #").append(entry.getKey()).append(": ").append(entry.getValue());
+                }
+                int unprocessed = requestIds.size() - approvedIds.size() - rejected.size();
+                
+                if (unprocessed == 0 && rejected.isEmpty()) {
                     JOptionPane.showMessageDialog(CloudControllerRequestPanel.this, 
-                        "Request approved successfully.", 
+                        approvedIds.size() + " request(s) approved successfully.", 
                         "Success", 
                         JOptionPane.INFORMATION_MESSAGE);
-                    refreshRequests();
+                    responseArea.setText("");
+                } else if (unprocessed == 0) {
+                    JOptionPane.showMessageDialog(CloudControllerRequestPanel.this, 
+                        "Approved " + approvedIds.size() + " request(s). " +
+                        rejected.size() + " job request(s) were rejected because they cannot meet their deadline:" +
+                        rejectedText, 
+                        "Some Requests Rejected", 
+                        JOptionPane.WARNING_MESSAGE);
                     responseArea.setText("");
                 } else {
                     JOptionPane.showMessageDialog(CloudControllerRequestPanel.this, 
-                        "Failed to approve request. Please try again.", 
+                        "Approved " + approvedIds.size() + " of " + requestIds.size() + " request(s). " +
+                        (rejected.isEmpty() ? "" : rejected.size() + " were rejected because they cannot meet their deadline:" + rejectedText + "\n") +
+                        unprocessed + " could not be processed. Please try again.", 
                         "Error", 
                         JOptionPane.ERROR_MESSAGE);
                 }
             });
-        }).start();
+        });
     }
     
     /**
-     * Rejects the selected request.
+     * Rejects all selected requests in one batch.
      */
-    private void rejectSelectedRequest() {
-        int selectedRow = requestTable.getSelectedRow();
-        if (selectedRow == -1) {
+    private void rejectSelectedRequests() {
+        final List<Integer> requestIds = getSelectedRequestIds();
+        if (requestIds.isEmpty()) {
             JOptionPane.showMessageDialog(this, 
-                "Please select a request to reject.", 
+                "Please select one or more requests to reject.", 
                 "No Selection", 
                 JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        int requestId = (int) tableModel.getValueAt(selectedRow, 0);
         String responseMessage = responseArea.getText().trim();
         
         if (responseMessage.isEmpty()) {
@@ -248,29 +376,28 @@ public class CloudControllerRequestPanel extends JPanel {
             return;
         }
         
-        // Process rejection in a separate thread
+        // Process rejection on the server's worker pool
         final String finalResponseMessage = responseMessage;
-        final int finalRequestId = requestId;
         
-        new Thread(() -> {
-            boolean success = serverController.rejectRequest(finalRequestId, finalResponseMessage);
+        serverController.rejectAllAsync(requestIds, finalResponseMessage).whenComplete((result, error) -> {
+            final List<Integer> rejectedIds = error == null ? result : new ArrayList<>();
             
             // Update UI on EDT
             SwingUtilities.invokeLater(() -> {
-                if (success) {
+                if (rejectedIds.size() == requestIds.size()) {
                     JOptionPane.showMessageDialog(CloudControllerRequestPanel.this, 
-                        "Request rejected successfully.", 
+                        rejectedIds.size() + " request(s) rejected successfully.", 
                         "Success", 
                         JOptionPane.INFORMATION_MESSAGE);
-                    refreshRequests();
                     responseArea.setText("");
                 } else {
                     JOptionPane.showMessageDialog(CloudControllerRequestPanel.this, 
-                        "Failed to reject request. Please try again.", 
+                        "Rejected " + rejectedIds.size() + " of " + requestIds.size() + " request(s). " +
+                        "The rest could not be processed. Please try again.", 
                         "Error", 
                         JOptionPane.ERROR_MESSAGE);
                 }
             });
-        }).start();
+        });
     }
 }
@@ -5,11 +5,15 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import controller.ChangeFeed;
+import controller.ServerController;
 import dao.VehicleDAO;
 import models.Vehicle;
+import services.ChangeFeedWatcher;
 import services.RequestNotificationService;
 
 public class OwnerDashboard extends JPanel {
@@ -19,6 +23,7 @@ public class OwnerDashboard extends JPanel {
     private String ownerName;
     private VehicleDAO vehicleDAO = new VehicleDAO();
     private RequestNotificationService notificationService;
+    private ChangeFeedWatcher changeWatcher;
 
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -124,11 +129,89 @@ public class OwnerDashboard extends JPanel {
         controlPanel.add(refreshButton);
         panel.add(controlPanel, BorderLayout.SOUTH);
 
-        new Timer(10000, e -> refreshVehicleTable()).start();
         refreshVehicleTable();
         return panel;
     }
 
+    /**
+     * Starts following the change feed once the dashboard is shown, so the
+     * vehicle table only changes when one of this owner's vehicles does.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (changeWatcher == null) {
+            ServerController serverController = ServerController.getInstance();
+            changeWatcher = new ChangeFeedWatcher("server-owner-dashboard-feed",
+                    (afterSeq, timeout) -> serverController.pollChanges(ownerId, afterSeq, timeout),
+                    this::onChanges);
+            changeWatcher.start();
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (changeWatcher != null) {
+            changeWatcher.close();
+            changeWatcher = null;
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Applies a batch of changes: a resync or reload refreshes the whole
+     * table, and a registered vehicle only touches its own row.
+     */
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean reload = batch.isResync();
+        List<Vehicle> upserted = new ArrayList<>();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            if (!ChangeFeed.ENTITY_VEHICLE.equals(change.getEntity())) {
+                continue;
+            }
+            if (ChangeFeed.ACTION_UPSERT.equals(change.getAction()) && change.getPayload() instanceof Vehicle) {
+                upserted.add((Vehicle) change.getPayload());
+            } else {
+                reload = true;
+            }
+        }
+        if (reload) {
+            SwingUtilities.invokeLater(this::refreshVehicleTable);
+        } else if (!upserted.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                for (Vehicle vehicle : upserted) {
+                    if (vehicle.getOwnerId() == ownerId) {
+                        showVehicle(vehicle);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Updates the vehicle's row, or adds one if it is not listed yet.
+     */
+    private void showVehicle(Vehicle v) {
+        Object[] row = {
+                v.getOwnerId(),
+                v.getModel(),
+                v.getMake(),
+                v.getYear(),
+                v.getVin(),
+                v.getResidencyTime(),
+                v.getRegisteredTimestamp()
+        };
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if (v.getVin().equals(tableModel.getValueAt(i, 4))) {
+                for (int column = 0; column < row.length; column++) {
+                    tableModel.setValueAt(row[column], i, column);
+                }
+                return;
+            }
+        }
+        tableModel.addRow(row);
+    }
+
     public void refreshVehicleTable() {
         try {
             tableModel.setRowCount(0);
@@ -4,6 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List; // Explicitly import java.util.List
+import java.util.UUID;
 import controller.ServerController;
 import models.Request;
 import models.Vehicle;
@@ -14,6 +15,8 @@ public class OwnerForm extends JPanel {
     private JTextField modelField, makeField, yearField, vinField;
     private JSpinner hoursSpinner, minutesSpinner, secondsSpinner;
     private JLabel statusLabel;
+    // Identifies the registration being filled in, so a double-click or retry submits it only once
+    private String draftKey = UUID.randomUUID().toString();
     
     private ServerController serverController;
     private DefaultListModel<String> requestListModel;
@@ -221,18 +224,18 @@ public class OwnerForm extends JPanel {
         
         // Create and submit the request
         Request request = new Request(ownerId, ownerName, Request.TYPE_REGISTER_VEHICLE, requestData);
+        request.setIdempotencyKey(draftKey);
         
-        // Submit the request in a separate thread
-        new Thread(() -> {
-            boolean success = serverController.submitRequest(request);
-            
+        // Submit the request on the server's worker pool
+        serverController.submitRequestAsync(request).thenAccept(success -> {
             // Update UI on the event dispatch thread
             SwingUtilities.invokeLater(() -> {
                 if (success) {
                     statusLabel.setText("Request submitted successfully! Awaiting approval.");
                     statusLabel.setForeground(new Color(0, 128, 0)); // Dark green
                     
-                    // Clear fields after successful submission
+                    // Clear fields after successful submission and start a new draft
+                    draftKey = UUID.randomUUID().toString();
                     modelField.setText("");
                     makeField.setText("");
                     yearField.setText("");
@@ -248,17 +251,15 @@ public class OwnerForm extends JPanel {
                     statusLabel.setForeground(Color.RED);
                 }
             });
-        }).start();
+        });
     }
     
     /**
      * Refreshes the request status list.
      */
     private void refreshRequestStatus(DefaultListModel<String> model) {
-        // Use a separate thread for fetching request data
-        new Thread(() -> {
-            List<Request> requests = serverController.getClientRequests(ownerId);
-            
+        // Fetch request data on the server's worker pool
+        serverController.getClientRequestsAsync(ownerId).thenAccept(requests -> {
             // Update UI on the event dispatch thread
             SwingUtilities.invokeLater(() -> {
                 model.clear();
@@ -278,6 +279,8 @@ public class OwnerForm extends JPanel {
                         statusText = "APPROVED - " + request.getResponseMessage();
                     } else if (Request.STATUS_REJECTED.equals(status)) {
                         statusText = "REJECTED - " + request.getResponseMessage();
+                    } else if (Request.STATUS_EXPIRED.equals(status)) {
+                        statusText = "EXPIRED - " + request.getResponseMessage();
                     }
                     
                     String requestType = request.getRequestType().equals(Request.TYPE_REGISTER_VEHICLE) ?
@@ -286,6 +289,6 @@ public class OwnerForm extends JPanel {
                     model.addElement("#" + request.getRequestId() + " - " + requestType + " - " + statusText);
                 }
             });
-        }).start();
+        });
     }
 }
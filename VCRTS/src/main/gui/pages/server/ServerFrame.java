@@ -3,9 +3,18 @@ package gui.pages.server;
 import javax.swing.*;
 
 import java.awt.*;
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import controller.ServerController;
+import services.JobAdvancementService;
+import services.RequestNotificationService;
 import models.User;
-import gui.pages.*;
+import net.BlockingRequestServer;
+import net.HttpApiServer;
+import net.NioRequestServer;
+import net.RequestProtocol;
+import net.RequestServer;
 
 public class ServerFrame extends JFrame {
     private static final Logger logger = Logger.getLogger(ServerFrame.class.getName());
@@ -73,11 +82,69 @@ public class ServerFrame extends JFrame {
      * Log out the current user and return to the startup page
      */
     public void logout() {
+        if (currentUser != null) {
+            RequestNotificationService.getInstance().stopMonitoring(currentUser.getUserId(), this);
+        }
         this.currentUser = null;
         showPage("startup");
     }
 
+    /**
+     * Starts the network endpoint remote clients connect to. It listens on
+     * vcrts.server.bind (loopback by default) and the vcrts.server.port system
+     * property, and vcrts.server.transport selects "nio" (default) or
+     * "blocking" (one virtual thread per connection). Remote approvals and
+     * rejections need the token in VCRTS_SERVER_TOKEN or vcrts.server.token;
+     * without one they are refused.
+     */
+    public static RequestServer startRequestServer() {
+        String host = System.getProperty("vcrts.server.bind", RequestProtocol.DEFAULT_BIND_HOST);
+        int port = Integer.getInteger("vcrts.server.port", RequestProtocol.DEFAULT_PORT);
+        String token = RequestProtocol.adminTokenFromEnvironment();
+        RequestServer server = "blocking".equals(System.getProperty("vcrts.server.transport"))
+                ? new BlockingRequestServer(ServerController.getInstance(), host, port, token)
+                : new NioRequestServer(ServerController.getInstance(), host, port, token);
+        try {
+            server.start();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not start request server on " + host + ":" + port, e);
+        }
+        return server;
+    }
+
+    /**
+     * Starts the HTTP/JSON API for ops tools and scripts. It listens on
+     * vcrts.http.host (loopback by default) and vcrts.http.port, and
+     * vcrts.http.threads sets the handler pool size (0, the default, runs each
+     * exchange on a virtual thread). Approving, rejecting and submitting need
+     * the token in the VCRTS_HTTP_TOKEN environment variable or the
+     * vcrts.http.token property; without one the API is read-only.
+     */
+    public static RequestServer startHttpApi() {
+        String host = System.getProperty("vcrts.http.host", HttpApiServer.DEFAULT_HOST);
+        int port = Integer.getInteger("vcrts.http.port", HttpApiServer.DEFAULT_PORT);
+        int threads = Integer.getInteger("vcrts.http.threads", 0);
+        String token = System.getenv("VCRTS_HTTP_TOKEN");
+        if (token == null) {
+            token = System.getProperty("vcrts.http.token");
+        }
+        RequestServer server = new HttpApiServer(ServerController.getInstance(), host, port,
+                HttpApiServer.createExecutor(threads), token);
+        try {
+            server.start();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not start HTTP API on " + host + ":" + port, e);
+        }
+        return server;
+    }
+
     public static void main(String[] args) {
+        startRequestServer();
+        // The HTTP API is only started when asked for with -Dvcrts.http.enabled=true
+        if (Boolean.getBoolean("vcrts.http.enabled")) {
+            startHttpApi();
+        }
+        JobAdvancementService.getInstance().start();
         SwingUtilities.invokeLater(() -> new ServerFrame().setVisible(true));
     }
 }
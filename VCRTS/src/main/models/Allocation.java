@@ -4,6 +4,7 @@ public class Allocation {
     private int allocationId; // auto-generated
     private String userId;
     private String jobId;
+    private String vin; // vehicle the job runs on, or null for a manual allocation
 
     // Constructor without allocationId (for inserting new records)
     public Allocation(String userId, String jobId) {
@@ -11,6 +12,13 @@ public class Allocation {
         this.jobId = jobId;
     }
 
+    // Constructor for a job assigned to a vehicle by the scheduler
+    public Allocation(String userId, String jobId, String vin) {
+        this.userId = userId;
+        this.jobId = jobId;
+        this.vin = vin;
+    }
+
     // Constructor with allocationId (for records read from the DB)
     public Allocation(int allocationId, String userId, String jobId) {
         this.allocationId = allocationId;
@@ -25,4 +33,6 @@ public class Allocation {
     public void setUserId(String userId) { this.userId = userId; }
     public String getJobId() { return jobId; }
     public void setJobId(String jobId) { this.jobId = jobId; }
+    public String getVin() { return vin; }
+    public void setVin(String vin) { this.vin = vin; }
 }
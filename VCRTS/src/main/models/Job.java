@@ -11,6 +11,7 @@ public class Job {
     private String deadline;
     private String status;
     private String createdTimestamp;
+    private int replicas = 1; // how many vehicles run the job at once
 
     private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -50,6 +51,8 @@ public class Job {
     public void setStatus(String status) { this.status = status; }
     public String getCreatedTimestamp() { return createdTimestamp; }
     public void setCreatedTimestamp(String createdTimestamp) { this.createdTimestamp = createdTimestamp; }
+    public int getReplicas() { return replicas; }
+    public void setReplicas(int replicas) { this.replicas = Math.max(1, replicas); }
 
     public static String getCurrentTimestamp() {
         return LocalDateTime.now().format(TIMESTAMP_FORMATTER);
@@ -16,6 +16,8 @@ public class Request {
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_APPROVED = "APPROVED";
     public static final String STATUS_REJECTED = "REJECTED";
+    // Left pending past its time-to-live and closed automatically
+    public static final String STATUS_EXPIRED = "EXPIRED";
     
     private int requestId;
     private int clientId;
@@ -25,6 +27,8 @@ public class Request {
     private String status;
     private String timestamp;
     private String responseMessage;
+    // Client-chosen key that makes retried submissions of the same request harmless; not stored
+    private String idempotencyKey;
     
     private static final DateTimeFormatter TIMESTAMP_FORMATTER = 
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -75,4 +79,7 @@ public class Request {
     
     public String getResponseMessage() { return responseMessage; }
     public void setResponseMessage(String responseMessage) { this.responseMessage = responseMessage; }
+    
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
@@ -0,0 +1,156 @@
+package net;
+
+import controller.ServerApi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Blocking socket server that exposes a {@link ServerApi} over the
+ * {@link RequestProtocol}, running each connection on its own virtual thread.
+ * <p>
+ * This is the straightforward alternative to {@link NioRequestServer}: the
+ * per-connection code is a plain read-handle-write loop, and the JDK parks the
+ * virtual thread instead of a platform thread while it waits on the socket.
+ */
+public class BlockingRequestServer implements RequestServer {
+    private static final Logger logger = Logger.getLogger(BlockingRequestServer.class.getName());
+
+    private final ServerApi api;
+    private final String host;
+    private final int port;
+    private final String adminToken;
+    private final ExecutorService connections;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    /**
+     * Creates a server on the loopback interface that refuses admin operations.
+     */
+    public BlockingRequestServer(ServerApi api, int port) {
+        this(api, RequestProtocol.DEFAULT_BIND_HOST, port, null);
+    }
+
+    /**
+     * @param host The address to listen on.
+     * @param adminToken The token admin operations must present, or null to refuse them.
+     */
+    public BlockingRequestServer(ServerApi api, String host, int port, String adminToken) {
+        this.api = api;
+        this.host = host;
+        this.port = port;
+        this.adminToken = adminToken;
+        this.connections = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vcrts-connection-", 0).factory());
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(host, port), RequestProtocol.ACCEPT_BACKLOG);
+
+        running = true;
+        acceptThread = new Thread(this::acceptLoop, "vcrts-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        logger.info("Blocking request server listening on " + host + ":" + getPort());
+    }
+
+    @Override
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                openSockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    logger.log(Level.WARNING, "Error accepting connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads frames from one client until it disconnects, answering each in turn.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (running) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return; // Client closed the connection
+                }
+                if (length <= 0 || length > RequestProtocol.MAX_FRAME_SIZE) {
+                    logger.warning("Closing connection with invalid frame length " + length);
+                    return;
+                }
+                // Read in chunks rather than trusting the header with one big allocation
+                byte[] payload = in.readNBytes(length);
+                if (payload.length < length) {
+                    return; // Client closed the connection mid-frame
+                }
+
+                byte[] response = RequestProtocol.handle(api, payload, adminToken);
+                out.writeInt(response.length);
+                out.write(response);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (running) {
+                logger.log(Level.FINE, "Connection closed with error", e);
+            }
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error closing server socket", e);
+        }
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing connection", e);
+            }
+        }
+        connections.shutdown();
+    }
+}
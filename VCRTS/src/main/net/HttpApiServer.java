@@ -0,0 +1,648 @@
+package net;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.ChangeFeed;
+import controller.PendingRequestQueue;
+import controller.ServerController;
+import controller.SubmissionLimiter;
+import dao.CloudControllerDAO;
+import dao.JobDAO;
+import dao.VehicleDAO;
+import models.Job;
+import models.Request;
+import models.Vehicle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HTTP/JSON front end for the Cloud Controller, built on the JDK's
+ * com.sun.net.httpserver so ops tools and scripts can reach VCRTS without Swing.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>GET /api/jobs[?clientId=&amp;status=]</li>
+ *   <li>GET /api/vehicles[?ownerId=]</li>
+ *   <li>GET /api/requests[?clientId=]</li>
+ *   <li>GET /api/requests/pending, in the order the priority lanes hand them out</li>
+ *   <li>GET /api/schedule</li>
+ *   <li>GET /api/changes?since=[&amp;clientId=&amp;timeout=] long-polls the change feed</li>
+ *   <li>GET /api/changes/stream[?since=&amp;clientId=] streams the change feed as server-sent events</li>
+ *   <li>GET /api/metrics/submissions</li>
+ *   <li>POST /api/requests with {"clientId", "clientName", "requestType", "requestData"}
+ *       and an optional Idempotency-Key header or "idempotencyKey"</li>
+ *   <li>POST /api/requests/{id}/approve and /api/requests/{id}/reject with an optional {"message"}</li>
+ * </ul>
+ * List responses are streamed as they are encoded and carry an ETag; a GET
+ * whose If-None-Match still matches gets 304 Not Modified without the data
+ * being loaded.
+ * <p>
+ * The change feed endpoints return changes newer than the caller's last seen
+ * sequence number. A response with "resync" set means the cursor was too old
+ * to be served from the feed, and the caller should reload everything it shows.
+ * <p>
+ * A submission refused by the rate limiter gets 429 Too Many Requests, and
+ * one refused because the pending queue is full gets 503; both carry a
+ * Retry-After header.
+ * <p>
+ * The server listens on the loopback interface unless another host is given.
+ * Every POST must carry an "Authorization: Bearer &lt;token&gt;" header that
+ * matches the admin token; without a configured token the POST endpoints are
+ * refused outright, leaving the API read-only. Event streams each run on a
+ * thread of their own rather than the exchange executor, and at most
+ * {@link #MAX_STREAMS} are open at once.
+ */
+public class HttpApiServer implements RequestServer {
+    private static final Logger logger = Logger.getLogger(HttpApiServer.class.getName());
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int MAX_STREAMS = 64;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+    private static final long DEFAULT_POLL_TIMEOUT = 25_000;
+    private static final long MAX_POLL_TIMEOUT = 60_000;
+    // A comment line is sent on an idle event stream this often so proxies keep it open
+    private static final long STREAM_KEEPALIVE = 15_000;
+
+    private final ServerController controller;
+    private final String host;
+    private final int port;
+    private final Executor executor;
+    private final byte[] adminToken;
+    private final Semaphore streamSlots = new Semaphore(MAX_STREAMS);
+    private final Set<Thread> streams = ConcurrentHashMap.newKeySet();
+    private final JobDAO jobDAO = new JobDAO();
+    private final VehicleDAO vehicleDAO = new VehicleDAO();
+    private final CloudControllerDAO cloudControllerDAO = new CloudControllerDAO();
+
+    // Makes ETags from an earlier run of the server stop matching after a restart
+    private final String instanceTag = Long.toHexString(System.currentTimeMillis());
+
+    private HttpServer server;
+
+    /**
+     * Creates a read-only server on the loopback interface that handles each
+     * exchange on its own virtual thread.
+     */
+    public HttpApiServer(ServerController controller, int port) {
+        this(controller, DEFAULT_HOST, port, createExecutor(0), null);
+    }
+
+    /**
+     * Creates a server that handles exchanges on the given executor.
+     *
+     * @param host The address to listen on.
+     * @param adminToken The bearer token POST requests must present, or null to refuse them all.
+     */
+    public HttpApiServer(ServerController controller, String host, int port, Executor executor, String adminToken) {
+        this.controller = controller;
+        this.host = host;
+        this.port = port;
+        this.executor = executor;
+        this.adminToken = adminToken == null || adminToken.isEmpty()
+                ? null : adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an executor for handling exchanges.
+     *
+     * @param threads The number of platform threads, or 0 for one virtual thread per exchange.
+     */
+    public static ExecutorService createExecutor(int threads) {
+        if (threads <= 0) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vcrts-http-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("vcrts-http-", 0).daemon().factory());
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), RequestProtocol.ACCEPT_BACKLOG);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("HTTP API listening on " + host + ":" + getPort()
+                + (adminToken == null ? " (read-only, no admin token set)" : ""));
+    }
+
+    @Override
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        server = null;
+        for (Thread stream : streams) {
+            stream.interrupt();
+        }
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        // An event stream owns the exchange once its thread is started, and closes it itself
+        boolean streaming = false;
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if ("GET".equals(method) && path.length == 2 && path[0].equals("changes") && path[1].equals("stream")) {
+                streaming = openStream(exchange, query);
+            } else if ("GET".equals(method)) {
+                handleGet(exchange, path, query);
+            } else if ("POST".equals(method)) {
+                if (authorized(exchange)) {
+                    handlePost(exchange, path);
+                }
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Error writing HTTP response", e);
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error handling " + exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            if (!streaming) {
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Checks the bearer token on a request that changes state, answering 401
+     * or 403 if it is missing or wrong.
+     *
+     * @return true if the request may go ahead.
+     */
+    private boolean authorized(HttpExchange exchange) {
+        if (adminToken == null) {
+            sendError(exchange, 403, "This API is read-only; no admin token is configured");
+            return false;
+        }
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        byte[] presented = header != null && header.startsWith("Bearer ")
+                ? header.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        // Compared in constant time so the token cannot be guessed byte by byte
+        if (!MessageDigest.isEqual(presented, adminToken)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            sendError(exchange, 401, "A valid admin token is required");
+            return false;
+        }
+        return true;
+    }
+
+    private void handleGet(HttpExchange exchange, String[] path, Map<String, String> query) throws IOException {
+        String resource = path[0];
+        if (path.length == 1 && resource.equals("jobs")) {
+            if (notModified(exchange, "jobs-" + jobDAO.getDataVersion())) {
+                return;
+            }
+            String status = query.getOrDefault("status", "All");
+            List<Job> jobs = query.containsKey("clientId")
+                    ? jobDAO.getJobsByClient(parseInt(query.get("clientId"), "clientId"), status)
+                    : filterByStatus(jobDAO.getAllJobs(), status);
+            JsonWriter json = beginJson(exchange);
+            json.beginArray();
+            for (Job job : jobs) {
+                writeJob(json, job);
+            }
+            json.endArray();
+            json.close();
+        } else if (path.length == 1 && resource.equals("vehicles")) {
+            if (notModified(exchange, "vehicles-" + vehicleDAO.getDataVersion())) {
+                return;
+            }
+            List<Vehicle> vehicles = query.containsKey("ownerId")
+                    ? vehicleDAO.getVehiclesByOwner(parseInt(query.get("ownerId"), "ownerId"))
+                    : vehicleDAO.getAllVehicles();
+            JsonWriter json = beginJson(exchange);
+            json.beginArray();
+            for (Vehicle vehicle : vehicles) {
+                writeVehicle(json, vehicle);
+            }
+            json.endArray();
+            json.close();
+        } else if (resource.equals("requests") && (path.length == 1 || (path.length == 2 && path[1].equals("pending")))) {
+            if (notModified(exchange, "requests-" + controller.getStateVersion())) {
+                return;
+            }
+            List<Request> requests;
+            if (path.length == 2) {
+                requests = controller.getPendingRequests();
+            } else if (query.containsKey("clientId")) {
+                requests = controller.getClientRequests(parseInt(query.get("clientId"), "clientId"));
+            } else {
+                requests = controller.getAllRequests();
+            }
+            JsonWriter json = beginJson(exchange);
+            json.beginArray();
+            for (Request request : requests) {
+                writeRequest(json, request);
+            }
+            json.endArray();
+            json.close();
+        } else if (path.length == 1 && resource.equals("schedule")) {
+            if (notModified(exchange, "schedule-" + cloudControllerDAO.getScheduleVersion())) {
+                return;
+            }
+            JsonWriter json = beginJson(exchange);
+            json.beginArray();
+            for (Map.Entry<String, String> entry : cloudControllerDAO.loadSchedule().entrySet()) {
+                json.beginObject()
+                        .field("jobId", entry.getKey())
+                        .field("completionTime", entry.getValue())
+                        .endObject();
+            }
+            json.endArray();
+            json.close();
+        } else if (path.length == 1 && resource.equals("changes")) {
+            pollChanges(exchange, query);
+        } else if (path.length == 2 && resource.equals("metrics") && path[1].equals("submissions")) {
+            SubmissionLimiter limiter = controller.getSubmissionLimiter();
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            JsonWriter json = beginJson(exchange);
+            json.beginObject()
+                    .field("pending", controller.getPendingRequests().size())
+                    .field("maxPending", limiter.getMaxPending())
+                    .field("accepted", limiter.getAcceptedCount())
+                    .field("rateLimited", limiter.getRateLimitedCount())
+                    .field("queueFull", limiter.getQueueFullCount())
+                    .field("expired", controller.getExpiredCount())
+                    .field("workerQueueDepth", controller.getWorkerQueueDepth())
+                    .name("pendingByPriority").beginObject();
+            for (Map.Entry<PendingRequestQueue.Priority, Integer> entry
+                    : controller.getPendingQueue().countByPriority().entrySet()) {
+                json.field(entry.getKey().name(), entry.getValue());
+            }
+            json.endObject()
+                    .name("rateLimitedByClient").beginObject();
+            for (Map.Entry<Integer, Long> entry : limiter.getRateLimitedByClient().entrySet()) {
+                json.field(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            json.endObject().endObject();
+            json.close();
+        } else {
+            sendError(exchange, 404, "Not found");
+        }
+    }
+
+    /**
+     * Answers once there are changes after the caller's cursor, or with an empty
+     * list and an advanced cursor when the timeout passes first.
+     */
+    private void pollChanges(HttpExchange exchange, Map<String, String> query) throws IOException {
+        long since = parseLong(query.getOrDefault("since", "0"), "since");
+        int clientId = query.containsKey("clientId") ? parseInt(query.get("clientId"), "clientId") : 0;
+        long timeout = query.containsKey("timeout")
+                ? Math.min(Math.max(parseLong(query.get("timeout"), "timeout"), 0), MAX_POLL_TIMEOUT)
+                : DEFAULT_POLL_TIMEOUT;
+
+        ChangeFeed.Batch batch = controller.pollChanges(clientId, since, timeout);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        JsonWriter json = beginJson(exchange);
+        json.beginObject()
+                .field("lastSeq", batch.getLastSeq())
+                .field("resync", batch.isResync())
+                .name("changes").beginArray();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            writeChange(json, change);
+        }
+        json.endArray().endObject();
+        json.close();
+    }
+
+    /**
+     * Hands an event stream to a virtual thread of its own, so a long-lived
+     * connection does not hold one of the exchange executor's threads. When
+     * {@link #MAX_STREAMS} are already open the caller gets 503 instead.
+     *
+     * @return true if the stream thread took over the exchange.
+     */
+    private boolean openStream(HttpExchange exchange, Map<String, String> query) {
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        long cursor = lastEventId != null
+                ? parseLong(lastEventId, "Last-Event-ID")
+                : parseLong(query.getOrDefault("since", "0"), "since");
+        int clientId = query.containsKey("clientId") ? parseInt(query.get("clientId"), "clientId") : 0;
+
+        if (!streamSlots.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(STREAM_KEEPALIVE / 1000));
+            sendError(exchange, 503, "Too many open event streams");
+            return false;
+        }
+        Thread.ofVirtual().name("vcrts-http-stream-" + clientId).start(() -> {
+            streams.add(Thread.currentThread());
+            try {
+                streamChanges(exchange, cursor, clientId);
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Event stream closed", e);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Error streaming changes", e);
+            } finally {
+                streams.remove(Thread.currentThread());
+                streamSlots.release();
+                exchange.close();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Keeps the exchange open and writes each change as a server-sent event until
+     * the client disconnects. A reconnecting EventSource resumes from its
+     * Last-Event-ID header.
+     */
+    private void streamChanges(HttpExchange exchange, long cursor, int clientId) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/event-stream; charset=utf-8");
+        headers.set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8));
+
+        while (!Thread.currentThread().isInterrupted()) {
+            ChangeFeed.Batch batch = controller.pollChanges(clientId, cursor, STREAM_KEEPALIVE);
+            if (batch.isResync()) {
+                out.write("id: " + batch.getLastSeq() + "\nevent: resync\ndata: {\"lastSeq\":" + batch.getLastSeq() + "}\n\n");
+            } else if (batch.getChanges().isEmpty()) {
+                out.write(": keepalive\n\n");
+            } else {
+                for (ChangeFeed.Change change : batch.getChanges()) {
+                    StringWriter data = new StringWriter();
+                    JsonWriter json = new JsonWriter(data);
+                    writeChange(json, change);
+                    out.write("id: " + change.getSeq() + "\nevent: change\ndata: " + data + "\n\n");
+                }
+            }
+            // A write to a client that has gone away fails here and ends the stream
+            out.flush();
+            cursor = batch.getLastSeq();
+        }
+    }
+
+    private void handlePost(HttpExchange exchange, String[] path) throws IOException {
+        if (!path[0].equals("requests")) {
+            sendError(exchange, 404, "Not found");
+            return;
+        }
+
+        Map<String, String> body = readBody(exchange);
+        if (path.length == 1) {
+            int clientId = parseInt(body.get("clientId"), "clientId");
+            String requestType = body.get("requestType");
+            String requestData = body.get("requestData");
+            if (!Request.TYPE_ADD_JOB.equals(requestType) && !Request.TYPE_REGISTER_VEHICLE.equals(requestType)) {
+                throw new IllegalArgumentException("requestType must be " + Request.TYPE_ADD_JOB
+                        + " or " + Request.TYPE_REGISTER_VEHICLE);
+            }
+            if (requestData == null || requestData.isEmpty()) {
+                throw new IllegalArgumentException("requestData is required");
+            }
+
+            Request request = new Request(clientId, body.getOrDefault("clientName", ""), requestType, requestData);
+            String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            request.setIdempotencyKey(idempotencyKey != null ? idempotencyKey : body.get("idempotencyKey"));
+            SubmissionLimiter.Result result = controller.submit(request);
+            if (!result.isAccepted()) {
+                int status = result.getDecision() == SubmissionLimiter.Decision.RATE_LIMITED ? 429 : 503;
+                long retryAfterSeconds = Math.max(1, (result.getRetryAfterMillis() + 999) / 1000);
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+                sendError(exchange, status, result.getMessage());
+                return;
+            }
+            // A repeated key gets the original request back rather than a new one
+            sendJson(exchange, result.getDecision() == SubmissionLimiter.Decision.DUPLICATE ? 200 : 201, request);
+        } else if (path.length == 3 && (path[2].equals("approve") || path[2].equals("reject"))) {
+            int requestId = parseInt(path[1], "request ID");
+            boolean approve = path[2].equals("approve");
+            String message = body.getOrDefault("message", approve ? "Approved via API" : "Rejected via API");
+
+            boolean resolved = approve
+                    ? controller.approveRequest(requestId, message)
+                    : controller.rejectRequest(requestId, message);
+            if (!resolved) {
+                sendError(exchange, 409, "Request #" + requestId + " is not pending or could not be processed");
+                return;
+            }
+            JsonWriter json = beginJson(exchange, 200);
+            json.beginObject()
+                    .field("requestId", requestId)
+                    .field("status", approve ? Request.STATUS_APPROVED : Request.STATUS_REJECTED)
+                    .field("responseMessage", message)
+                    .endObject();
+            json.close();
+        } else {
+            sendError(exchange, 404, "Not found");
+        }
+    }
+
+    /**
+     * Sets the ETag header and, if the client already has this version, answers 304.
+     *
+     * @return true if a 304 was sent and the handler should stop.
+     */
+    private boolean notModified(HttpExchange exchange, String version) throws IOException {
+        String etag = "\"" + instanceTag + "-" + version + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals(etag) || tag.equals("*")) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private JsonWriter beginJson(HttpExchange exchange) throws IOException {
+        return beginJson(exchange, 200);
+    }
+
+    /**
+     * Starts a chunked JSON response and returns a writer that streams into it.
+     */
+    private JsonWriter beginJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Request request) throws IOException {
+        JsonWriter json = beginJson(exchange, status);
+        writeRequest(json, request);
+        json.close();
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            Headers headers = exchange.getResponseHeaders();
+            headers.remove("ETag");
+            JsonWriter json = beginJson(exchange, status);
+            json.beginObject().field("error", message).endObject();
+            json.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Error sending HTTP error response", e);
+        }
+    }
+
+    private Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_SIZE + 1);
+            if (bytes.length > MAX_BODY_SIZE) {
+                throw new IllegalArgumentException("Request body too large");
+            }
+            String text = new String(bytes, StandardCharsets.UTF_8).trim();
+            return text.isEmpty() ? new HashMap<>() : JsonParser.parseObject(text);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int parseInt(String value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static long parseLong(String value, String name) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    private static List<Job> filterByStatus(List<Job> jobs, String status) {
+        if (status.equalsIgnoreCase("All")) {
+            return jobs;
+        }
+        List<Job> filtered = new ArrayList<>();
+        for (Job job : jobs) {
+            if (job.getStatus().equalsIgnoreCase(status)) {
+                filtered.add(job);
+            }
+        }
+        return filtered;
+    }
+
+    private static void writeJob(JsonWriter json, Job job) throws IOException {
+        json.beginObject()
+                .field("jobId", job.getJobId())
+                .field("jobName", job.getJobName())
+                .field("jobOwnerId", job.getJobOwnerId())
+                .field("duration", job.getDuration())
+                .field("deadline", job.getDeadline())
+                .field("status", job.getStatus())
+                .field("createdTimestamp", job.getCreatedTimestamp())
+                .field("replicas", job.getReplicas())
+                .endObject();
+    }
+
+    private static void writeVehicle(JsonWriter json, Vehicle vehicle) throws IOException {
+        json.beginObject()
+                .field("ownerId", vehicle.getOwnerId())
+                .field("model", vehicle.getModel())
+                .field("make", vehicle.getMake())
+                .field("year", vehicle.getYear())
+                .field("vin", vehicle.getVin())
+                .field("residencyTime", vehicle.getResidencyTime())
+                .field("registeredTimestamp", vehicle.getRegisteredTimestamp())
+                .endObject();
+    }
+
+    private static void writeChange(JsonWriter json, ChangeFeed.Change change) throws IOException {
+        json.beginObject()
+                .field("seq", change.getSeq())
+                .field("entity", change.getEntity())
+                .field("action", change.getAction())
+                .field("key", change.getKey())
+                .field("ownerId", change.getOwnerId())
+                .name("data");
+        Object payload = change.getPayload();
+        if (payload instanceof Request) {
+            writeRequest(json, (Request) payload);
+        } else if (payload instanceof Job) {
+            writeJob(json, (Job) payload);
+        } else if (payload instanceof Vehicle) {
+            writeVehicle(json, (Vehicle) payload);
+        } else {
+            json.value((String) null);
+        }
+        json.endObject();
+    }
+
+    private static void writeRequest(JsonWriter json, Request request) throws IOException {
+        json.beginObject()
+                .field("requestId", request.getRequestId())
+                .field("clientId", request.getClientId())
+                .field("clientName", request.getClientName())
+                .field("requestType", request.getRequestType())
+                .field("requestData", request.getRequestData())
+                .field("status", request.getStatus())
+                .field("timestamp", request.getTimestamp())
+                .field("responseMessage", request.getResponseMessage())
+                .endObject();
+    }
+}
@@ -0,0 +1,274 @@
+package net;
+
+import controller.ServerApi;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking socket server that exposes a {@link ServerApi} over the
+ * {@link RequestProtocol}.
+ * <p>
+ * A single selector thread accepts connections and moves bytes. Each complete
+ * frame is handed to a virtual-thread executor, chained per connection so
+ * responses come back in the order requests were sent. Finished responses are
+ * queued on the connection and the selector is woken to write them.
+ * <p>
+ * A frame's body buffer starts small and grows as its bytes arrive, so a
+ * header claiming a large frame costs nothing until the bytes are really sent.
+ */
+public class NioRequestServer implements RequestServer {
+    private static final Logger logger = Logger.getLogger(NioRequestServer.class.getName());
+    private static final int INITIAL_BODY_SIZE = 8 * 1024;
+
+    private final ServerApi api;
+    private final String host;
+    private final int port;
+    private final String adminToken;
+    private final ExecutorService handlers;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * Creates a server on the loopback interface that refuses admin operations.
+     */
+    public NioRequestServer(ServerApi api, int port) {
+        this(api, RequestProtocol.DEFAULT_BIND_HOST, port, null);
+    }
+
+    /**
+     * @param host The address to listen on.
+     * @param adminToken The token admin operations must present, or null to refuse them.
+     */
+    public NioRequestServer(ServerApi api, String host, int port, String adminToken) {
+        this.api = api;
+        this.host = host;
+        this.port = port;
+        this.adminToken = adminToken;
+        this.handlers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("vcrts-nio-handler-", 0).factory());
+    }
+
+    @Override
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(new InetSocketAddress(host, port), RequestProtocol.ACCEPT_BACKLOG);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        selectorThread = new Thread(this::runSelectorLoop, "vcrts-nio-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        logger.info("Request server listening on " + host + ":" + getPort());
+    }
+
+    @Override
+    public int getPort() {
+        try {
+            if (serverChannel != null && serverChannel.isOpen()) {
+                return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error reading local address", e);
+        }
+        return port;
+    }
+
+    private void runSelectorLoop() {
+        while (running) {
+            try {
+                selector.select();
+
+                Connection ready;
+                while ((ready = pendingWrites.poll()) != null) {
+                    ready.enableWrites();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            ((Connection) key.attachment()).read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            ((Connection) key.attachment()).write();
+                        }
+                    } catch (IOException | CancelledKeyException e) {
+                        Object attachment = key.attachment();
+                        if (attachment instanceof Connection) {
+                            ((Connection) attachment).close();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    logger.log(Level.SEVERE, "Selector loop failed", e);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            selector.wakeup();
+            selectorThread.join(1000);
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error closing request server", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handlers.shutdown();
+    }
+
+    /**
+     * Per-connection framing state. Only the selector thread touches the
+     * buffers; handler threads only append to the write queue.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(4);
+        private final Queue<ByteBuffer> writes = new ConcurrentLinkedQueue<>();
+        private ByteBuffer body;
+        private int bodyLength;
+        private SelectionKey key;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            while (true) {
+                if (body == null) {
+                    if (channel.read(header) < 0) {
+                        close();
+                        return;
+                    }
+                    if (header.hasRemaining()) {
+                        return;
+                    }
+                    header.flip();
+                    int length = header.getInt();
+                    header.clear();
+                    if (length <= 0 || length > RequestProtocol.MAX_FRAME_SIZE) {
+                        logger.warning("Closing connection with invalid frame length " + length);
+                        close();
+                        return;
+                    }
+                    bodyLength = length;
+                    body = ByteBuffer.allocate(Math.min(length, INITIAL_BODY_SIZE));
+                }
+
+                if (channel.read(body) < 0) {
+                    close();
+                    return;
+                }
+                if (body.hasRemaining()) {
+                    return;
+                }
+                if (body.capacity() < bodyLength) {
+                    ByteBuffer larger = ByteBuffer.allocate((int) Math.min(bodyLength, 2L * body.capacity()));
+                    body = larger.put(body.flip());
+                    continue;
+                }
+                dispatch(body.array());
+                body = null;
+            }
+        }
+
+        private void dispatch(byte[] payload) {
+            tail = tail.thenRunAsync(() -> {
+                writes.add(RequestProtocol.frame(RequestProtocol.handle(api, payload, adminToken)));
+                pendingWrites.add(this);
+                selector.wakeup();
+            }, handlers).whenComplete((ignored, error) -> {
+                // Later frames would wait forever behind a failed one, so give up on the connection
+                if (error != null) {
+                    logger.log(Level.WARNING, "Error handling request; closing connection", error);
+                    close();
+                }
+            });
+        }
+
+        void enableWrites() {
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        void write() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = writes.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                writes.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            // A response may have been queued after the peek above
+            if (!writes.isEmpty()) {
+                enableWrites();
+            }
+        }
+
+        void close() {
+            try {
+                key.cancel();
+                channel.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Error closing connection", e);
+            }
+        }
+    }
+}
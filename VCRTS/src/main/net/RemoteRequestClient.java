@@ -0,0 +1,312 @@
+package net;
+
+import controller.ChangeFeed;
+import controller.ServerApi;
+import models.Job;
+import models.Request;
+import models.Vehicle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Client-side stub for the Cloud Controller. Implements {@link ServerApi} by
+ * sending {@link RequestProtocol} frames over a socket, so client screens work
+ * the same whether the controller is local or on another machine.
+ * <p>
+ * Calls are synchronous and serialized over one connection; change-feed long
+ * polls use a second connection so they never hold up ordinary calls. Network
+ * failures are logged and reported the same way the DAOs report file errors:
+ * a false result or an empty list. A dropped connection is re-opened on the
+ * next call.
+ * <p>
+ * Every call has a read timeout, so a server that stops answering fails the
+ * call instead of hanging the caller. Admin operations send the token the
+ * client was created with.
+ */
+public class RemoteRequestClient implements ServerApi, Closeable {
+    private static final Logger logger = Logger.getLogger(RemoteRequestClient.class.getName());
+
+    public static final String HOST_PROPERTY = "vcrts.server.host";
+    public static final String PORT_PROPERTY = "vcrts.server.port";
+    public static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    public static final int READ_TIMEOUT_MILLIS = 10_000;
+
+    private final String host;
+    private final int port;
+    private final String adminToken;
+    private final Connection connection = new Connection();
+    // Long polls get their own socket so they never hold up ordinary calls
+    private final Connection feedConnection = new Connection();
+
+    public RemoteRequestClient(String host, int port) {
+        this(host, port, null);
+    }
+
+    /**
+     * @param adminToken The token to send with approvals and rejections, or null.
+     */
+    public RemoteRequestClient(String host, int port, String adminToken) {
+        this.host = host;
+        this.port = port;
+        this.adminToken = adminToken;
+    }
+
+    /**
+     * Creates a client for the server named by the vcrts.server.host and
+     * vcrts.server.port system properties, defaulting to the local machine.
+     * The admin token comes from {@link RequestProtocol#adminTokenFromEnvironment()}.
+     */
+    public static RemoteRequestClient fromSystemProperties() {
+        String host = System.getProperty(HOST_PROPERTY, "localhost");
+        int port = Integer.getInteger(PORT_PROPERTY, RequestProtocol.DEFAULT_PORT);
+        return new RemoteRequestClient(host, port, RequestProtocol.adminTokenFromEnvironment());
+    }
+
+    @Override
+    public boolean submitRequest(Request request) {
+        try {
+            DataInputStream in = call(out -> {
+                out.writeByte(RequestProtocol.OP_SUBMIT_REQUEST);
+                RequestProtocol.writeRequest(out, request);
+                RequestProtocol.writeString(out, request.getIdempotencyKey());
+            });
+            boolean success = in.readBoolean();
+            request.setRequestId(in.readInt());
+            request.setStatus(RequestProtocol.readString(in));
+            request.setResponseMessage(RequestProtocol.readString(in));
+            return success;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error submitting request to server", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<Request> getPendingRequests() {
+        try {
+            return RequestProtocol.readRequests(call(out ->
+                    out.writeByte(RequestProtocol.OP_GET_PENDING_REQUESTS)));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error loading pending requests from server", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<Request> getClientRequests(int clientId) {
+        try {
+            return RequestProtocol.readRequests(call(out -> {
+                out.writeByte(RequestProtocol.OP_GET_CLIENT_REQUESTS);
+                out.writeInt(clientId);
+            }));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error loading client requests from server", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public boolean approveRequest(int requestId, String responseMessage) {
+        return resolve(RequestProtocol.OP_APPROVE_REQUEST, requestId, responseMessage);
+    }
+
+    @Override
+    public boolean rejectRequest(int requestId, String responseMessage) {
+        return resolve(RequestProtocol.OP_REJECT_REQUEST, requestId, responseMessage);
+    }
+
+    private boolean resolve(byte op, int requestId, String responseMessage) {
+        try {
+            return call(out -> {
+                out.writeByte(op);
+                RequestProtocol.writeString(out, adminToken);
+                out.writeInt(requestId);
+                RequestProtocol.writeString(out, responseMessage);
+            }).readBoolean();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error resolving request " + requestId + " on server", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByOwner(int ownerId) {
+        try {
+            return RequestProtocol.readVehicles(call(out -> {
+                out.writeByte(RequestProtocol.OP_GET_VEHICLES_BY_OWNER);
+                out.writeInt(ownerId);
+            }));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error loading vehicles from server", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public List<Job> getJobsByClient(int clientId, String status) {
+        try {
+            return RequestProtocol.readJobs(call(out -> {
+                out.writeByte(RequestProtocol.OP_GET_JOBS_BY_CLIENT);
+                out.writeInt(clientId);
+                RequestProtocol.writeString(out, status);
+            }));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error loading jobs from server", e);
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public ChangeFeed.Batch pollChanges(int clientId, long afterSeq, long timeoutMillis) {
+        try {
+            // The server holds a long poll open for up to its timeout before answering
+            int readTimeout = (int) Math.min(Integer.MAX_VALUE, READ_TIMEOUT_MILLIS + Math.max(0, timeoutMillis));
+            return RequestProtocol.readBatch(call(feedConnection, readTimeout, out -> {
+                out.writeByte(RequestProtocol.OP_POLL_CHANGES);
+                out.writeInt(clientId);
+                out.writeLong(afterSeq);
+                out.writeLong(timeoutMillis);
+            }));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Error polling changes from server", e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RequestWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Sends one request frame on the main connection and returns a reader
+     * positioned after the OK status.
+     */
+    private DataInputStream call(RequestWriter writer) throws IOException {
+        return call(connection, READ_TIMEOUT_MILLIS, writer);
+    }
+
+    private DataInputStream call(Connection target, int readTimeoutMillis, RequestWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                target.exchange(bytes.toByteArray(), readTimeoutMillis)));
+        if (in.readByte() != RequestProtocol.STATUS_OK) {
+            throw new IOException("Server error: " + RequestProtocol.readString(in));
+        }
+        return in;
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        feedConnection.close();
+    }
+
+    /**
+     * One socket to the server, used for one request/response exchange at a time.
+     */
+    private class Connection {
+        // A lock rather than synchronized so virtual-thread callers do not pin their carrier while waiting on the socket
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+
+        /**
+         * Sends a payload and waits for the response payload. Retries once on a
+         * fresh connection if the current one has gone away, but not after a
+         * timeout, since the server may still be working on the first attempt.
+         */
+        byte[] exchange(byte[] payload, int readTimeoutMillis) throws IOException {
+            lock.lock();
+            try {
+                try {
+                    return send(payload, readTimeoutMillis);
+                } catch (SocketTimeoutException e) {
+                    disconnect();
+                    throw e;
+                } catch (IOException e) {
+                    disconnect();
+                    return send(payload, readTimeoutMillis);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private byte[] send(byte[] payload, int readTimeoutMillis) throws IOException {
+            if (socket == null || socket.isClosed()) {
+                Socket opened = new Socket();
+                opened.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                opened.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(opened.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(opened.getOutputStream()));
+                socket = opened;
+            }
+            socket.setSoTimeout(readTimeoutMillis);
+
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.flush();
+
+            int length = in.readInt();
+            if (length <= 0 || length > RequestProtocol.MAX_FRAME_SIZE) {
+                throw new IOException("Invalid response length " + length);
+            }
+            byte[] body = in.readNBytes(length);
+            if (body.length < length) {
+                throw new EOFException("Server closed the connection");
+            }
+            return body;
+        }
+
+        private void disconnect() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Error closing connection", e);
+                }
+                socket = null;
+            }
+        }
+
+        void close() {
+            // Closing the socket first unblocks a thread waiting on a long poll
+            Socket current = socket;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "Error closing connection", e);
+                }
+            }
+            lock.lock();
+            try {
+                disconnect();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
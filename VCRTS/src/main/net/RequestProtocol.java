@@ -0,0 +1,399 @@
+package net;
+
+import controller.ChangeFeed;
+import controller.ServerApi;
+import models.Job;
+import models.Request;
+import models.Vehicle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compact binary protocol between remote clients and the Cloud Controller.
+ * <p>
+ * Every message is a frame: a 4-byte big-endian length followed by that many
+ * payload bytes. A request payload starts with a one-byte operation code
+ * followed by its arguments; a response payload starts with a one-byte
+ * status followed by the result. Strings are written as a 4-byte length
+ * (-1 for null) and UTF-8 bytes.
+ * <p>
+ * Approving and rejecting requests are admin operations: their arguments
+ * start with the admin token, which must match the one the server was started
+ * with. A server without a token refuses them.
+ */
+public final class RequestProtocol {
+    private static final Logger logger = Logger.getLogger(RequestProtocol.class.getName());
+
+    public static final int DEFAULT_PORT = 5555;
+    public static final String DEFAULT_BIND_HOST = "127.0.0.1";
+    public static final String ADMIN_TOKEN_PROPERTY = "vcrts.server.token";
+    public static final String ADMIN_TOKEN_ENV = "VCRTS_SERVER_TOKEN";
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+    public static final int ACCEPT_BACKLOG = 1024;
+
+    // Operation codes
+    public static final byte OP_SUBMIT_REQUEST = 1;
+    public static final byte OP_GET_PENDING_REQUESTS = 2;
+    public static final byte OP_GET_CLIENT_REQUESTS = 3;
+    public static final byte OP_APPROVE_REQUEST = 4;
+    public static final byte OP_REJECT_REQUEST = 5;
+    public static final byte OP_GET_VEHICLES_BY_OWNER = 6;
+    public static final byte OP_GET_JOBS_BY_CLIENT = 7;
+    public static final byte OP_POLL_CHANGES = 8;
+
+    // Change payload types
+    private static final byte PAYLOAD_NONE = 0;
+    private static final byte PAYLOAD_REQUEST = 1;
+    private static final byte PAYLOAD_JOB = 2;
+    private static final byte PAYLOAD_VEHICLE = 3;
+
+    // Response status codes
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+
+    private RequestProtocol() {
+    }
+
+    /**
+     * Wraps a payload in a length-prefixed frame ready to be written.
+     */
+    public static ByteBuffer frame(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Gets the admin token from the VCRTS_SERVER_TOKEN environment variable or
+     * the vcrts.server.token system property, or null if neither is set.
+     */
+    public static String adminTokenFromEnvironment() {
+        String token = System.getenv(ADMIN_TOKEN_ENV);
+        return token != null ? token : System.getProperty(ADMIN_TOKEN_PROPERTY);
+    }
+
+    /**
+     * Executes one request payload against the API and builds the response payload.
+     * Malformed requests and server-side failures produce an error response
+     * instead of an exception, so one bad client cannot break the connection loop.
+     *
+     * @param api The API to call.
+     * @param requestPayload The request payload, without its length prefix.
+     * @param adminToken The token admin operations must present, or null to refuse them.
+     * @return The response payload, without its length prefix.
+     */
+    public static byte[] handle(ServerApi api, byte[] requestPayload, String adminToken) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(requestPayload));
+            byte op = in.readByte();
+            out.writeByte(STATUS_OK);
+
+            switch (op) {
+                case OP_SUBMIT_REQUEST: {
+                    Request request = readRequest(in);
+                    request.setIdempotencyKey(readString(in));
+                    boolean success = api.submitRequest(request);
+                    out.writeBoolean(success);
+                    out.writeInt(request.getRequestId());
+                    // A refused request carries the reason, such as a rate limit, back to the client
+                    writeString(out, request.getStatus());
+                    writeString(out, request.getResponseMessage());
+                    break;
+                }
+                case OP_GET_PENDING_REQUESTS:
+                    writeRequests(out, api.getPendingRequests());
+                    break;
+                case OP_GET_CLIENT_REQUESTS:
+                    writeRequests(out, api.getClientRequests(in.readInt()));
+                    break;
+                case OP_APPROVE_REQUEST:
+                    if (!isAdmin(in, adminToken)) {
+                        return error("Not authorized to approve requests");
+                    }
+                    out.writeBoolean(api.approveRequest(in.readInt(), readString(in)));
+                    break;
+                case OP_REJECT_REQUEST:
+                    if (!isAdmin(in, adminToken)) {
+                        return error("Not authorized to reject requests");
+                    }
+                    out.writeBoolean(api.rejectRequest(in.readInt(), readString(in)));
+                    break;
+                case OP_GET_VEHICLES_BY_OWNER:
+                    writeVehicles(out, api.getVehiclesByOwner(in.readInt()));
+                    break;
+                case OP_GET_JOBS_BY_CLIENT:
+                    writeJobs(out, api.getJobsByClient(in.readInt(), readString(in)));
+                    break;
+                case OP_POLL_CHANGES: {
+                    ChangeFeed.Batch batch = api.pollChanges(in.readInt(), in.readLong(), in.readLong());
+                    if (batch == null) {
+                        return error("Change feed unavailable");
+                    }
+                    writeBatch(out, batch);
+                    break;
+                }
+                default:
+                    return error("Unknown operation: " + op);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Error handling request", e);
+            return error(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the token at the start of an admin operation's arguments and checks
+     * it against the server's, in constant time.
+     */
+    private static boolean isAdmin(DataInputStream in, String adminToken) throws IOException {
+        String presented = readString(in);
+        return adminToken != null && !adminToken.isEmpty() && presented != null
+                && MessageDigest.isEqual(presented.getBytes(StandardCharsets.UTF_8),
+                        adminToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds an error response payload.
+     */
+    public static byte[] error(String message) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(STATUS_ERROR);
+            writeString(out, message);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Writing to a byte array cannot fail
+            return new byte[] { STATUS_ERROR };
+        }
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}. The length is checked
+     * against the bytes left in the payload before anything is allocated, so a
+     * bogus length fails with an IOException rather than exhausting the heap.
+     */
+    public static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_FRAME_SIZE || length > in.available()) {
+            throw new IOException("String length " + length + " exceeds the " + in.available() + " bytes left");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a list size, checking it the same way as a string length: every
+     * element takes at least one byte, so a count above the bytes left is bogus.
+     */
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("List size " + count + " exceeds the " + in.available() + " bytes left");
+        }
+        return count;
+    }
+
+    public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        out.writeInt(request.getRequestId());
+        out.writeInt(request.getClientId());
+        writeString(out, request.getClientName());
+        writeString(out, request.getRequestType());
+        writeString(out, request.getRequestData());
+        writeString(out, request.getStatus());
+        writeString(out, request.getTimestamp());
+        writeString(out, request.getResponseMessage());
+    }
+
+    public static Request readRequest(DataInputStream in) throws IOException {
+        return new Request(
+                in.readInt(),       // requestId
+                in.readInt(),       // clientId
+                readString(in),     // clientName
+                readString(in),     // requestType
+                readString(in),     // requestData
+                readString(in),     // status
+                readString(in),     // timestamp
+                readString(in)      // responseMessage
+        );
+    }
+
+    public static void writeRequests(DataOutputStream out, List<Request> requests) throws IOException {
+        out.writeInt(requests.size());
+        for (Request request : requests) {
+            writeRequest(out, request);
+        }
+    }
+
+    public static List<Request> readRequests(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<Request> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(readRequest(in));
+        }
+        return requests;
+    }
+
+    public static void writeVehicle(DataOutputStream out, Vehicle vehicle) throws IOException {
+        out.writeInt(vehicle.getOwnerId());
+        writeString(out, vehicle.getModel());
+        writeString(out, vehicle.getMake());
+        writeString(out, vehicle.getYear());
+        writeString(out, vehicle.getVin());
+        writeString(out, vehicle.getResidencyTime());
+        writeString(out, vehicle.getRegisteredTimestamp());
+    }
+
+    public static Vehicle readVehicle(DataInputStream in) throws IOException {
+        return new Vehicle(
+                in.readInt(),       // ownerId
+                readString(in),     // model
+                readString(in),     // make
+                readString(in),     // year
+                readString(in),     // vin
+                readString(in),     // residencyTime
+                readString(in)      // registeredTimestamp
+        );
+    }
+
+    public static void writeVehicles(DataOutputStream out, List<Vehicle> vehicles) throws IOException {
+        out.writeInt(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            writeVehicle(out, vehicle);
+        }
+    }
+
+    public static List<Vehicle> readVehicles(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<Vehicle> vehicles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(readVehicle(in));
+        }
+        return vehicles;
+    }
+
+    public static void writeJob(DataOutputStream out, Job job) throws IOException {
+        writeString(out, job.getJobId());
+        writeString(out, job.getJobName());
+        out.writeInt(job.getJobOwnerId());
+        writeString(out, job.getDuration());
+        writeString(out, job.getDeadline());
+        writeString(out, job.getStatus());
+        writeString(out, job.getCreatedTimestamp());
+        out.writeInt(job.getReplicas());
+    }
+
+    public static Job readJob(DataInputStream in) throws IOException {
+        Job job = new Job(
+                readString(in),     // jobId
+                readString(in),     // jobName
+                in.readInt(),       // jobOwnerId
+                readString(in),     // duration
+                readString(in),     // deadline
+                readString(in),     // status
+                readString(in)      // createdTimestamp
+        );
+        job.setReplicas(in.readInt());
+        return job;
+    }
+
+    public static void writeJobs(DataOutputStream out, List<Job> jobs) throws IOException {
+        out.writeInt(jobs.size());
+        for (Job job : jobs) {
+            writeJob(out, job);
+        }
+    }
+
+    public static List<Job> readJobs(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            jobs.add(readJob(in));
+        }
+        return jobs;
+    }
+
+    public static void writeBatch(DataOutputStream out, ChangeFeed.Batch batch) throws IOException {
+        out.writeLong(batch.getLastSeq());
+        out.writeBoolean(batch.isResync());
+        out.writeInt(batch.getChanges().size());
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            out.writeLong(change.getSeq());
+            writeString(out, change.getEntity());
+            writeString(out, change.getAction());
+            writeString(out, change.getKey());
+            out.writeInt(change.getOwnerId());
+
+            Object payload = change.getPayload();
+            if (payload instanceof Request) {
+                out.writeByte(PAYLOAD_REQUEST);
+                writeRequest(out, (Request) payload);
+            } else if (payload instanceof Job) {
+                out.writeByte(PAYLOAD_JOB);
+                writeJob(out, (Job) payload);
+            } else if (payload instanceof Vehicle) {
+                out.writeByte(PAYLOAD_VEHICLE);
+                writeVehicle(out, (Vehicle) payload);
+            } else {
+                out.writeByte(PAYLOAD_NONE);
+            }
+        }
+    }
+
+    public static ChangeFeed.Batch readBatch(DataInputStream in) throws IOException {
+        long lastSeq = in.readLong();
+        boolean resync = in.readBoolean();
+        int count = readCount(in);
+        List<ChangeFeed.Change> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long seq = in.readLong();
+            String entity = readString(in);
+            String action = readString(in);
+            String key = readString(in);
+            int ownerId = in.readInt();
+
+            Object payload;
+            byte payloadType = in.readByte();
+            switch (payloadType) {
+                case PAYLOAD_REQUEST: payload = readRequest(in); break;
+                case PAYLOAD_JOB: payload = readJob(in); break;
+                case PAYLOAD_VEHICLE: payload = readVehicle(in); break;
+                default: payload = null;
+            }
+            changes.add(new ChangeFeed.Change(seq, entity, action, key, ownerId, payload));
+        }
+        return new ChangeFeed.Batch(changes, lastSeq, resync);
+    }
+}
@@ -0,0 +1,29 @@
+package net;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A network endpoint that exposes the Cloud Controller to remote clients
+ * using the {@link RequestProtocol}.
+ */
+public interface RequestServer extends Closeable {
+
+    /**
+     * Binds the listening socket and starts serving connections.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    void start() throws IOException;
+
+    /**
+     * Gets the port the server is bound to.
+     */
+    int getPort();
+
+    /**
+     * Stops accepting connections and closes open ones.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,133 @@
+package net;
+
+import controller.ServerController;
+import models.Request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load generator for the request servers. Starts a server in front of the
+ * real ServerController, connects many simulated clients at once, and has
+ * each submit one job request and then poll its request status. Prints
+ * throughput and latency percentiles.
+ * <p>
+ * Usage: {@code java net.RequestServerBenchmark [nio|blocking] [clients] [callsPerClient]}
+ * <p>
+ * The controller writes to the data directory, so run this from a scratch
+ * working directory. Each client holds a socket on both ends of the loopback,
+ * so the open file limit must be at least twice the client count.
+ */
+public class RequestServerBenchmark {
+    private static final int DEFAULT_CLIENTS = 10000;
+    private static final int DEFAULT_CALLS_PER_CLIENT = 10;
+
+    public static void main(String[] args) throws Exception {
+        String transport = args.length > 0 ? args[0] : "blocking";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CLIENTS;
+        int callsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CALLS_PER_CLIENT;
+
+        ServerController controller = ServerController.getInstance();
+        // Keep the pending set stable while we measure the transport
+        controller.getAutoApprovalEngine().setEnabled(false);
+        // Every client submits, well past the pending cap, and the rate limits are not under test
+        controller.getSubmissionLimiter().setEnabled(false);
+
+        RequestServer server = "nio".equals(transport)
+                ? new NioRequestServer(controller, 0)
+                : new BlockingRequestServer(controller, 0);
+        server.start();
+
+        long[][] latencies = new long[clients][];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        List<RemoteRequestClient> stubs = new ArrayList<>(clients);
+
+        long elapsedNanos;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int clientId = 1_000_000 + i;
+                int slot = i;
+                RemoteRequestClient stub = new RemoteRequestClient("localhost", server.getPort());
+                stubs.add(stub);
+                pool.execute(() -> {
+                    try {
+                        // Open the connection before the timed phase
+                        stub.getClientRequests(clientId);
+                        connected.countDown();
+                        go.await();
+                        latencies[slot] = runClient(stub, clientId, callsPerClient, failures);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            connected.await();
+            System.out.println(clients + " clients connected over " + transport + "; starting");
+            long start = System.nanoTime();
+            go.countDown();
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.HOURS);
+            elapsedNanos = System.nanoTime() - start;
+        } finally {
+            for (RemoteRequestClient stub : stubs) {
+                stub.close();
+            }
+            server.close();
+        }
+
+        report(transport, clients, latencies, elapsedNanos, failures.get());
+        controller.shutdown();
+        System.exit(0);
+    }
+
+    private static long[] runClient(RemoteRequestClient stub, int clientId, int calls, AtomicInteger failures) {
+        long[] samples = new long[calls];
+        for (int call = 0; call < calls; call++) {
+            long start = System.nanoTime();
+            if (call == 0) {
+                String requestData = "BENCH-" + clientId + "|Benchmark job|" + clientId
+                        + "|01:00:00|2099-12-31|Queued";
+                Request request = new Request(clientId, "bench-" + clientId, Request.TYPE_ADD_JOB, requestData);
+                if (!stub.submitRequest(request)) {
+                    failures.incrementAndGet();
+                }
+            } else {
+                stub.getClientRequests(clientId);
+            }
+            samples[call] = System.nanoTime() - start;
+        }
+        return samples;
+    }
+
+    private static void report(String transport, int clients, long[][] latencies, long elapsedNanos, int failures) {
+        long[] all = Arrays.stream(latencies)
+                .filter(samples -> samples != null)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        if (all.length == 0) {
+            System.out.println("No calls completed");
+            return;
+        }
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("transport=%s clients=%d calls=%d failures=%d%n", transport, clients, all.length, failures);
+        System.out.printf("elapsed=%.2fs throughput=%.0f calls/s%n", seconds, all.length / seconds);
+        System.out.printf("latency p50=%.2fms p99=%.2fms max=%.2fms%n",
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,101 @@
+package services;
+
+import controller.ChangeFeed;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Follows a change feed on a background thread and hands each batch of
+ * changes to a listener, replacing the fixed-interval refresh loops the
+ * dashboards used to run.
+ * <p>
+ * The watcher starts with no cursor, so the first batch it delivers is a
+ * resync; listeners treat a resync as "reload everything", which also covers
+ * the initial load. The listener is called on the watcher thread, so Swing
+ * callers should hand the work to the event dispatch thread.
+ */
+public class ChangeFeedWatcher implements Closeable {
+    private static final Logger logger = Logger.getLogger(ChangeFeedWatcher.class.getName());
+
+    private static final long POLL_TIMEOUT = 25_000;
+    private static final long RETRY_DELAY = 5_000;
+
+    /**
+     * Where the watcher reads changes from, such as the local ServerController
+     * or a remote connection.
+     */
+    @FunctionalInterface
+    public interface ChangeSource {
+        /**
+         * Waits for changes after the given sequence number.
+         *
+         * @return The changes, or null if the source could not be reached.
+         */
+        ChangeFeed.Batch poll(long afterSeq, long timeoutMillis);
+    }
+
+    private final ChangeSource source;
+    private final Consumer<ChangeFeed.Batch> listener;
+    private final Thread thread;
+    private volatile boolean running;
+    private long cursor;
+
+    /**
+     * Creates a watcher. Call {@link #start()} to begin following the feed.
+     *
+     * @param name The name of the watcher thread.
+     * @param source Where to read changes from.
+     * @param listener Called with every batch that has changes or is a resync.
+     */
+    public ChangeFeedWatcher(String name, ChangeSource source, Consumer<ChangeFeed.Batch> listener) {
+        this.source = source;
+        this.listener = listener;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops the watcher. A listener call already in progress is allowed to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            ChangeFeed.Batch batch = source.poll(cursor, POLL_TIMEOUT);
+            if (!running) {
+                break;
+            }
+            if (batch == null) {
+                // Source unreachable; start over with a resync once it is back
+                cursor = 0;
+                try {
+                    Thread.sleep(RETRY_DELAY);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                continue;
+            }
+
+            cursor = batch.getLastSeq();
+            if (batch.isResync() || !batch.getChanges().isEmpty()) {
+                try {
+                    listener.accept(batch);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Error handling change feed batch", e);
+                }
+            }
+        }
+    }
+}
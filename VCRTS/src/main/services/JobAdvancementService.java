@@ -0,0 +1,161 @@
+package services;
+
+import controller.ChangeFeed;
+import controller.ServerController;
+import dao.CloudControllerDAO;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves the job queue along in real time, so jobs complete without anyone
+ * pressing "advance". A single timer is set for the earliest completion time
+ * of a running job; when it fires, the due jobs are completed and the jobs
+ * planned next start on the vehicles they free (see
+ * {@link CloudControllerDAO#completeDueJobs()}), and the timer is set again
+ * for the next completion. Nothing is checked in between.
+ * <p>
+ * The timer is also reset whenever the change feed reports a job change,
+ * since a new or reordered job can start or finish sooner. A vehicle change
+ * reschedules the queue first, because a new vehicle can take jobs that had
+ * none long enough.
+ */
+public class JobAdvancementService implements Closeable {
+    private static final Logger logger = Logger.getLogger(JobAdvancementService.class.getName());
+    private static JobAdvancementService instance;
+
+    private final CloudControllerDAO cloudControllerDAO;
+    private final ScheduledExecutorService executor;
+    private final ChangeFeedWatcher changeWatcher;
+    // Only touched on the executor thread
+    private ScheduledFuture<?> pending;
+    private LocalDateTime armedFor;
+    private LocalDateTime lastAdvanced = LocalDateTime.MIN;
+
+    /**
+     * Creates a service. Call {@link #start()} to set the first timer.
+     *
+     * @param cloudControllerDAO The scheduler to advance.
+     * @param changes Where to hear about job and vehicle changes.
+     */
+    public JobAdvancementService(CloudControllerDAO cloudControllerDAO, ChangeFeedWatcher.ChangeSource changes) {
+        this.cloudControllerDAO = cloudControllerDAO;
+        this.executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofVirtual().name("vcrts-job-advancer").factory());
+        this.changeWatcher = new ChangeFeedWatcher("job-advancer-feed", changes, this::onChanges);
+    }
+
+    /**
+     * Gets the service for the local ServerController.
+     */
+    public static synchronized JobAdvancementService getInstance() {
+        if (instance == null) {
+            ServerController serverController = ServerController.getInstance();
+            instance = new JobAdvancementService(new CloudControllerDAO(),
+                    (afterSeq, timeout) -> serverController.pollChanges(0, afterSeq, timeout));
+        }
+        return instance;
+    }
+
+    public void start() {
+        changeWatcher.start();
+        rearm();
+    }
+
+    /**
+     * Stops the timer. A completion already in progress is allowed to finish.
+     */
+    @Override
+    public void close() {
+        changeWatcher.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Sets the timer again from the current schedule, for callers that change
+     * jobs without going through the change feed.
+     */
+    public void rearm() {
+        submit(this::arm);
+    }
+
+    private void onChanges(ChangeFeed.Batch batch) {
+        boolean jobsChanged = batch.isResync();
+        boolean vehiclesChanged = batch.isResync();
+        for (ChangeFeed.Change change : batch.getChanges()) {
+            if (ChangeFeed.ENTITY_JOB.equals(change.getEntity())) {
+                jobsChanged = true;
+            } else if (ChangeFeed.ENTITY_VEHICLE.equals(change.getEntity())) {
+                vehiclesChanged = true;
+            }
+        }
+        if (vehiclesChanged) {
+            submit(() -> {
+                cloudControllerDAO.calculateCompletionTimes();
+                arm();
+            });
+        } else if (jobsChanged) {
+            rearm();
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (!executor.isShutdown()) {
+            executor.execute(guarded(task));
+        }
+    }
+
+    /**
+     * Wraps a task so an error is logged instead of silently ending it.
+     */
+    private static Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Error advancing the job queue", e);
+            }
+        };
+    }
+
+    /**
+     * Points the timer at the next completion time, leaving it alone if it
+     * is already set for that time.
+     */
+    private void arm() {
+        LocalDateTime next = cloudControllerDAO.getNextCompletionTime();
+        if (next != null && !next.isAfter(lastAdvanced)) {
+            // Still due right after a pass; give the schedule a second to move on
+            next = lastAdvanced.plusSeconds(1);
+        }
+        if (pending != null && !pending.isDone() && next != null && next.equals(armedFor)) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        armedFor = next;
+        if (next != null && !executor.isShutdown()) {
+            long delay = Math.max(0, Duration.between(LocalDateTime.now(), next).toMillis());
+            pending = executor.schedule(guarded(this::advance), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void advance() {
+        lastAdvanced = LocalDateTime.now().withNano(0);
+        List<String> completed = cloudControllerDAO.completeDueJobs();
+        if (!completed.isEmpty()) {
+            logger.info("Completed job(s) " + String.join(", ", completed));
+        }
+        arm();
+    }
+}
@@ -1,28 +1,33 @@
 package services;
 
+import controller.RequestStatusListener;
 import controller.ServerController;
 import models.Request;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.*;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Shows a popup when one of a user's requests is approved or rejected.
+ * Status changes are pushed from the ServerController's event bus, so
+ * nothing is read from disk while the user waits.
+ * <p>
+ * Each logged-in frame gets its own {@link Session}, so several users can be
+ * monitored at once. A session only remembers the user's requests that are
+ * still pending and drops each one as soon as it is resolved.
+ */
 public class RequestNotificationService {
     private static RequestNotificationService instance;
     private ServerController serverController;
-    private Map<Integer, Set<Integer>> monitoredRequestIds;
-    private Map<Integer, String> lastKnownStatus;
-    private JFrame parentFrame;
-    private int userId;
-    private javax.swing.Timer refreshTimer;
-    private static final int REFRESH_INTERVAL = 2000; // 2 seconds
+    private final Map<Integer, List<Session>> sessionsByUser = new ConcurrentHashMap<>();
 
     private RequestNotificationService() {
         serverController = ServerController.getInstance();
-        monitoredRequestIds = new ConcurrentHashMap<>();
-        lastKnownStatus = new ConcurrentHashMap<>();
     }
 
     public static synchronized RequestNotificationService getInstance() {
@@ -32,77 +37,127 @@ public class RequestNotificationService {
         return instance;
     }
 
-    public void startMonitoring(int userId, JFrame parentFrame) {
-        this.userId = userId;
-        this.parentFrame = parentFrame;
-        
-        // Initialize the set of monitored request IDs for this user if needed
-        monitoredRequestIds.putIfAbsent(userId, new HashSet<>());
-        
-        // Update the list of monitored requests
-        updateMonitoredRequests();
-        
-        // Start the refresh timer if not already running
-        if (refreshTimer == null || !refreshTimer.isRunning()) {
-            refreshTimer = new javax.swing.Timer(REFRESH_INTERVAL, e -> checkForStatusChanges());
-            refreshTimer.start();
+    /**
+     * Starts monitoring a user's requests for one frame. Calling this again for
+     * the same user and frame returns the existing session.
+     *
+     * @param userId The user whose requests to monitor.
+     * @param parentFrame The frame that owns the popups, or null.
+     * @return The monitoring session.
+     */
+    public synchronized Session startMonitoring(int userId, JFrame parentFrame) {
+        List<Session> sessions = sessionsByUser.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        for (Session session : sessions) {
+            if (session.parentFrame == parentFrame) {
+                return session;
+            }
+        }
+
+        Session session = new Session(userId, parentFrame);
+        serverController.getEventBus().subscribe(userId, session.listener);
+
+        // Seed from the in-memory queue; events from here on keep the set current
+        for (Request request : serverController.getPendingRequests()) {
+            if (request.getClientId() == userId && Request.STATUS_PENDING.equals(request.getStatus())) {
+                session.outstandingIds.add(request.getRequestId());
+            }
         }
+        sessions.add(session);
+        return session;
     }
 
-    public void stopMonitoring() {
-        if (refreshTimer != null) {
-            refreshTimer.stop();
-            refreshTimer = null;
+    /**
+     * Stops a single monitoring session.
+     */
+    public synchronized void stopMonitoring(Session session) {
+        serverController.getEventBus().unsubscribe(session.userId, session.listener);
+        session.outstandingIds.clear();
+        sessionsByUser.computeIfPresent(session.userId, (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Stops the session for a user in one frame, if there is one.
+     */
+    public synchronized void stopMonitoring(int userId, JFrame parentFrame) {
+        List<Session> sessions = sessionsByUser.get(userId);
+        if (sessions == null) {
+            return;
+        }
+        for (Session session : sessions) {
+            if (session.parentFrame == parentFrame) {
+                stopMonitoring(session);
+            }
         }
     }
 
-    private void updateMonitoredRequests() {
-        List<Request> requests = serverController.getClientRequests(userId);
-        Set<Integer> requestIds = monitoredRequestIds.get(userId);
-        
-        if (requests != null) {
-            for (Request request : requests) {
-                int requestId = request.getRequestId();
-                
-                // Add this request to the monitored set
-                requestIds.add(requestId);
-                
-                // Update last known status if not already tracked
-                if (!lastKnownStatus.containsKey(requestId)) {
-                    lastKnownStatus.put(requestId, request.getStatus());
-                }
+    /**
+     * Stops every monitoring session.
+     */
+    public synchronized void stopMonitoring() {
+        for (List<Session> sessions : sessionsByUser.values()) {
+            for (Session session : sessions) {
+                stopMonitoring(session);
             }
         }
     }
 
-    private void checkForStatusChanges() {
-        updateMonitoredRequests(); // Update our list first
-        
-        List<Request> currentRequests = serverController.getClientRequests(userId);
-        if (currentRequests == null || currentRequests.isEmpty()) {
-            return;
+    /**
+     * Monitoring state for one user in one frame.
+     */
+    public class Session {
+        private final int userId;
+        private final JFrame parentFrame;
+        // Only requests still awaiting a decision; resolved ones are evicted
+        private final Set<Integer> outstandingIds = ConcurrentHashMap.newKeySet();
+        private final RequestStatusListener listener = this::onStatusChanged;
+        private long seenVersion;
+
+        private Session(int userId, JFrame parentFrame) {
+            this.userId = userId;
+            this.parentFrame = parentFrame;
+            this.seenVersion = serverController.getClientVersion(userId);
         }
-        
-        for (Request request : currentRequests) {
+
+        public int getUserId() {
+            return userId;
+        }
+
+        /**
+         * Gets the number of the user's requests still awaiting a decision.
+         */
+        public int getOutstandingCount() {
+            return outstandingIds.size();
+        }
+
+        /**
+         * Checks in constant time whether any of the user's requests were
+         * submitted or resolved since the last call.
+         *
+         * @return true if the user's requests changed.
+         */
+        public synchronized boolean hasUpdates() {
+            long version = serverController.getClientVersion(userId);
+            if (version == seenVersion) {
+                return false;
+            }
+            seenVersion = version;
+            return true;
+        }
+
+        private void onStatusChanged(Request request) {
             int requestId = request.getRequestId();
-            String currentStatus = request.getStatus();
-            String previousStatus = lastKnownStatus.get(requestId);
-            
-            // Check if status changed from PENDING to something else
-            if (previousStatus != null && 
-                Request.STATUS_PENDING.equals(previousStatus) && 
-                !Request.STATUS_PENDING.equals(currentStatus)) {
-                
-                // Status changed - notify the user with an invasive popup
-                showNotificationPopup(request);
-                
-                // Update the last known status
-                lastKnownStatus.put(requestId, currentStatus);
+            if (Request.STATUS_PENDING.equals(request.getStatus())) {
+                outstandingIds.add(requestId);
+            } else if (outstandingIds.remove(requestId)) {
+                showNotificationPopup(request, parentFrame);
             }
         }
     }
 
-    private void showNotificationPopup(Request request) {
+    private void showNotificationPopup(Request request, JFrame parentFrame) {
         SwingUtilities.invokeLater(() -> {
             // Create a custom dialog for more invasive appearance
             JDialog dialog = new JDialog(parentFrame);
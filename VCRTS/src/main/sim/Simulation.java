@@ -0,0 +1,454 @@
+package sim;
+
+import dao.CloudControllerDAO;
+import dao.SchedulingPolicy;
+import models.Job;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Discrete-event simulation of the vehicular cloud, entirely in memory. A
+ * virtual clock jumps from event to event in a priority queue; the events are
+ * vehicle arrivals and departures, job submissions and job completions, fed
+ * by a synthetic {@link Workload}.
+ * <p>
+ * Scheduling is a simplified, greedy model of CloudControllerDAO, meant for
+ * comparing policies rather than reproducing production plans. What it
+ * shares: waiting jobs are ordered by the same {@link SchedulingPolicy}
+ * (ties by creation time, then ID), with date-dependent policies moved to
+ * each simulated day, and a job only starts on a vehicle that stays long
+ * enough to finish it. Where it differs:
+ * <ul>
+ * <li>Jobs are only placed when a vehicle is idle. Production books every
+ * queued job, in policy order, onto the free time vehicles will have later
+ * (VehiclePool.bestFit); here a freed vehicle takes the first waiting job in
+ * policy order that fits it, which lets a shorter job overtake a longer one
+ * that would have been booked ahead of it.</li>
+ * <li>A submitted job starts on the idle vehicle leaving first that fits it,
+ * not the best fit across all vehicles' future free time.</li>
+ * <li>Vehicles leave exactly when their residency ends, so no job is ever
+ * cut off, and there is no checkpointing, migration or replication.</li>
+ * <li>Jobs run exactly their duration; there is no file I/O, and deadlines
+ * count to the end of the deadline day.</li>
+ * </ul>
+ * <p>
+ * Each event frees at most one vehicle or adds one job, and waiting time only
+ * shrinks the windows idle vehicles have left, so nothing waiting can fit an
+ * idle vehicle it did not fit before. A submitted job therefore only needs the
+ * idle vehicle leaving first that fits it, and a freed vehicle only the first
+ * waiting job in policy order that fits it. Waiting jobs are grouped by
+ * duration (jobs never run a day or longer, see {@link Workload}), and a
+ * tree over the durations keeps the first job in policy order of each range
+ * of them, so that job is found exactly in a few dozen comparisons however
+ * long the queue grows.
+ * <p>
+ * Jobs are real {@link Job} objects so the policies see what they see in
+ * production; their dates count from today. A simulation runs once and is
+ * not thread-safe.
+ */
+public class Simulation {
+    // Leaves of the fit tree; the first power of two above the longest job in seconds
+    private static final int DURATION_SLOTS = 1 << 17;
+
+    // Event kinds, in the order they are handled when they fall on the same second
+    private static final int JOB_COMPLETION = 0;
+    private static final int VEHICLE_DEPARTURE = 1;
+    private static final int VEHICLE_ARRIVAL = 2;
+    private static final int JOB_SUBMIT = 3;
+
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final int kind;
+        final long sequence;
+        final SimVehicle vehicle;
+        final SimJob job;
+
+        Event(long time, int kind, long sequence, SimVehicle vehicle, SimJob job) {
+            this.time = time;
+            this.kind = kind;
+            this.sequence = sequence;
+            this.vehicle = vehicle;
+            this.job = job;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+            if (kind != other.kind) {
+                return Integer.compare(kind, other.kind);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class SimVehicle {
+        final long arrival;
+        final long departure;
+        boolean busy;
+        boolean departed;
+
+        SimVehicle(long arrival, long departure) {
+            this.arrival = arrival;
+            this.departure = departure;
+        }
+    }
+
+    private static final class SimJob {
+        final Job job;
+        final long submitted;
+        final long durationSeconds;
+        final long deadline; // end of the deadline day, in simulated seconds
+        long started;
+
+        SimJob(Job job, long submitted, long durationSeconds, long deadline) {
+            this.job = job;
+            this.submitted = submitted;
+            this.durationSeconds = durationSeconds;
+            this.deadline = deadline;
+        }
+    }
+
+    private final SchedulingPolicy policy;
+    private final Workload workload;
+    private final LocalDate startDate = LocalDate.now();
+    private final List<String> datePrefixes = new ArrayList<>();
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    // The policy as of the current simulated day, and the job order it gives
+    private SchedulingPolicy datedPolicy;
+    private Comparator<SimJob> order;
+    private long orderDay;
+    // Waiting jobs by duration, each duration's jobs in policy order
+    private final TreeMap<Long, TreeSet<SimJob>> waiting = new TreeMap<>();
+    // Segment tree over durations: leaf DURATION_SLOTS + d holds the first waiting job
+    // of duration d, and each node the first of its two children in policy order
+    private final SimJob[] firstFitting = new SimJob[2 * DURATION_SLOTS];
+    private int waitingCount;
+    // Idle vehicles by departure time
+    private final TreeMap<Long, ArrayDeque<SimVehicle>> idle = new TreeMap<>();
+    private long now;
+    private long sequence;
+    private boolean ran;
+
+    // Statistics
+    private long processed;
+    private long vehiclesArrived;
+    private long jobsSubmitted;
+    private long jobsCompleted;
+    private long deadlineMisses;
+    private long busySeconds;
+    private long presentSeconds;
+    private int[] turnarounds = new int[1024];
+    private int peakQueueLength;
+
+    /**
+     * @param policy The policy waiting jobs are ordered by.
+     * @param workload The workload; it is copied, so the caller's stays unchanged.
+     */
+    public Simulation(SchedulingPolicy policy, Workload workload) {
+        this.policy = policy;
+        this.workload = workload.copy();
+        this.datedPolicy = policy.asOf(startDate);
+        this.order = orderOf(datedPolicy);
+    }
+
+    public Simulation(Workload workload) {
+        this(new CloudControllerDAO.FifoPolicy(), workload);
+    }
+
+    /**
+     * Runs the simulation from an empty lot.
+     *
+     * @param durationSeconds How much simulated time to cover.
+     * @return The results.
+     */
+    public SimulationReport run(long durationSeconds) {
+        if (ran) {
+            throw new IllegalStateException("A simulation can only be run once");
+        }
+        ran = true;
+
+        long startNanos = System.nanoTime();
+        schedule(workload.nextVehicleGapSeconds(), VEHICLE_ARRIVAL, null, null);
+        schedule(workload.nextJobGapSeconds(), JOB_SUBMIT, null, null);
+
+        while (!events.isEmpty() && events.peek().time <= durationSeconds) {
+            Event event = events.poll();
+            now = event.time;
+            if (now / 86400 != orderDay) {
+                redate(now / 86400);
+            }
+            processed++;
+            switch (event.kind) {
+                case VEHICLE_ARRIVAL:
+                    arrive();
+                    break;
+                case VEHICLE_DEPARTURE:
+                    depart(event.vehicle);
+                    break;
+                case JOB_SUBMIT:
+                    submit();
+                    break;
+                default:
+                    complete(event.job, event.vehicle);
+                    break;
+            }
+        }
+        now = durationSeconds;
+        return finish(System.nanoTime() - startNanos);
+    }
+
+    private void arrive() {
+        vehiclesArrived++;
+        SimVehicle vehicle = new SimVehicle(now, now + workload.nextResidencySeconds());
+        schedule(vehicle.departure, VEHICLE_DEPARTURE, vehicle, null);
+        schedule(now + workload.nextVehicleGapSeconds(), VEHICLE_ARRIVAL, null, null);
+        offer(vehicle);
+    }
+
+    private void depart(SimVehicle vehicle) {
+        vehicle.departed = true;
+        presentSeconds += vehicle.departure - vehicle.arrival;
+        if (!vehicle.busy) {
+            ArrayDeque<SimVehicle> leaving = idle.get(vehicle.departure);
+            leaving.remove(vehicle);
+            if (leaving.isEmpty()) {
+                idle.remove(vehicle.departure);
+            }
+        }
+    }
+
+    private void submit() {
+        jobsSubmitted++;
+        long seconds = workload.nextJobSeconds();
+        int deadlineDays = workload.nextDeadlineDays();
+        Job job = new Job("J" + jobsSubmitted, "Simulated job", 0, hms(seconds),
+                startDate.plusDays(now / 86400 + deadlineDays).toString(), CloudControllerDAO.STATE_QUEUED,
+                timestamp(now));
+        long deadline = (now / 86400 + deadlineDays + 1) * 86400;
+        schedule(now + workload.nextJobGapSeconds(), JOB_SUBMIT, null, null);
+
+        SimJob submitted = new SimJob(job, now, seconds, deadline);
+        Map.Entry<Long, ArrayDeque<SimVehicle>> fit = idle.ceilingEntry(now + seconds);
+        if (fit == null) {
+            enqueue(submitted);
+            peakQueueLength = Math.max(peakQueueLength, waitingCount);
+            return;
+        }
+        SimVehicle vehicle = fit.getValue().poll();
+        if (fit.getValue().isEmpty()) {
+            idle.remove(fit.getKey());
+        }
+        start(submitted, vehicle);
+    }
+
+    private void complete(SimJob job, SimVehicle vehicle) {
+        jobsCompleted++;
+        busySeconds += job.durationSeconds;
+        if (now > job.deadline) {
+            deadlineMisses++;
+        }
+        if (jobsCompleted > turnarounds.length) {
+            turnarounds = Arrays.copyOf(turnarounds, turnarounds.length * 2);
+        }
+        turnarounds[(int) jobsCompleted - 1] = (int) (now - job.submitted);
+
+        vehicle.busy = false;
+        if (!vehicle.departed) {
+            offer(vehicle);
+        }
+    }
+
+    /**
+     * Gives a freed vehicle the first waiting job in policy order that it can
+     * finish, or parks it idle if none fits.
+     */
+    private void offer(SimVehicle vehicle) {
+        SimJob job = firstFitting(vehicle.departure - now);
+        if (job == null) {
+            idle.computeIfAbsent(vehicle.departure, departure -> new ArrayDeque<>()).add(vehicle);
+            return;
+        }
+        dequeue(job);
+        start(job, vehicle);
+    }
+
+    private static Comparator<SimJob> orderOf(SchedulingPolicy policy) {
+        Comparator<Job> jobOrder = policy.thenComparing(Job::getCreatedTimestamp).thenComparing(Job::getJobId);
+        return (a, b) -> jobOrder.compare(a.job, b.job);
+    }
+
+    /**
+     * Moves the policy to a new simulated day. If that changes the order, as
+     * it does for a policy that weighs deadlines by the days left, the
+     * waiting jobs are re-sorted.
+     */
+    private void redate(long day) {
+        orderDay = day;
+        SchedulingPolicy dated = policy.asOf(startDate.plusDays(day));
+        if (dated == datedPolicy) {
+            return;
+        }
+        datedPolicy = dated;
+        order = orderOf(dated);
+        for (Map.Entry<Long, TreeSet<SimJob>> sameDuration : waiting.entrySet()) {
+            TreeSet<SimJob> resorted = new TreeSet<>(order);
+            resorted.addAll(sameDuration.getValue());
+            sameDuration.setValue(resorted);
+            updateFirst(sameDuration.getKey().intValue(), resorted.first());
+        }
+    }
+
+    private void enqueue(SimJob job) {
+        TreeSet<SimJob> sameDuration = waiting.computeIfAbsent(job.durationSeconds, duration -> new TreeSet<>(order));
+        sameDuration.add(job);
+        waitingCount++;
+        updateFirst((int) job.durationSeconds, sameDuration.first());
+    }
+
+    private void dequeue(SimJob job) {
+        TreeSet<SimJob> sameDuration = waiting.get(job.durationSeconds);
+        sameDuration.remove(job);
+        waitingCount--;
+        if (sameDuration.isEmpty()) {
+            waiting.remove(job.durationSeconds);
+            updateFirst((int) job.durationSeconds, null);
+        } else {
+            updateFirst((int) job.durationSeconds, sameDuration.first());
+        }
+    }
+
+    /**
+     * Sets the first job of a duration and recomputes the nodes above it.
+     */
+    private void updateFirst(int duration, SimJob job) {
+        int node = DURATION_SLOTS + duration;
+        firstFitting[node] = job;
+        for (node /= 2; node > 0; node /= 2) {
+            firstFitting[node] = first(firstFitting[2 * node], firstFitting[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Finds the first waiting job in policy order that takes no longer than
+     * the window, or null if there is none.
+     */
+    private SimJob firstFitting(long window) {
+        SimJob found = null;
+        int left = DURATION_SLOTS;
+        int right = DURATION_SLOTS + (int) Math.min(window, DURATION_SLOTS - 1) + 1;
+        while (left < right) {
+            if ((left & 1) == 1) {
+                found = first(found, firstFitting[left++]);
+            }
+            if ((right & 1) == 1) {
+                found = first(found, firstFitting[--right]);
+            }
+            left /= 2;
+            right /= 2;
+        }
+        return found;
+    }
+
+    private SimJob first(SimJob a, SimJob b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return order.compare(a, b) <= 0 ? a : b;
+    }
+
+    private void start(SimJob job, SimVehicle vehicle) {
+        vehicle.busy = true;
+        job.started = now;
+        schedule(now + job.durationSeconds, JOB_COMPLETION, vehicle, job);
+    }
+
+    private void schedule(long time, int kind, SimVehicle vehicle, SimJob job) {
+        events.add(new Event(time, kind, sequence++, vehicle, job));
+    }
+
+    /**
+     * Closes the books at the end of the run: time still to come for parked
+     * vehicles and running jobs is cut off, and jobs past their deadline that
+     * have not finished count as misses.
+     */
+    private SimulationReport finish(long wallNanos) {
+        for (Event event : events) {
+            if (event.kind == VEHICLE_DEPARTURE) {
+                presentSeconds += now - event.vehicle.arrival;
+            } else if (event.kind == JOB_COMPLETION) {
+                busySeconds += now - event.job.started;
+                if (event.job.deadline < now) {
+                    deadlineMisses++;
+                }
+            }
+        }
+        for (TreeSet<SimJob> sameDuration : waiting.values()) {
+            for (SimJob job : sameDuration) {
+                if (job.deadline < now) {
+                    deadlineMisses++;
+                }
+            }
+        }
+
+        int completed = (int) jobsCompleted;
+        long total = 0;
+        for (int i = 0; i < completed; i++) {
+            total += turnarounds[i];
+        }
+        long p95 = 0;
+        if (completed > 0) {
+            int[] sorted = Arrays.copyOf(turnarounds, completed);
+            Arrays.sort(sorted);
+            p95 = sorted[(int) Math.ceil(0.95 * completed) - 1];
+        }
+
+        return new SimulationReport(policy.getName(), now, processed, wallNanos, vehiclesArrived,
+                jobsSubmitted, jobsCompleted, jobsSubmitted - jobsCompleted, deadlineMisses,
+                busySeconds, presentSeconds, completed > 0 ? (double) total / completed : 0, p95,
+                peakQueueLength);
+    }
+
+    /**
+     * Formats a simulated time as a timestamp (yyyy-MM-dd HH:mm:ss) counting from today.
+     */
+    private String timestamp(long seconds) {
+        int day = (int) (seconds / 86400);
+        while (datePrefixes.size() <= day) {
+            datePrefixes.add(startDate.plusDays(datePrefixes.size()) + " ");
+        }
+        return datePrefixes.get(day) + hms(seconds % 86400);
+    }
+
+    /**
+     * Formats seconds under a day as HH:mm:ss.
+     */
+    private static String hms(long seconds) {
+        char[] digits = new char[8];
+        twoDigits(digits, 0, seconds / 3600);
+        digits[2] = ':';
+        twoDigits(digits, 3, seconds / 60 % 60);
+        digits[5] = ':';
+        twoDigits(digits, 6, seconds % 60);
+        return new String(digits);
+    }
+
+    private static void twoDigits(char[] digits, int at, long value) {
+        digits[at] = (char) ('0' + value / 10);
+        digits[at + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,100 @@
+package sim;
+
+/**
+ * The results of one {@link Simulation} run.
+ */
+public class SimulationReport {
+    private final String policyName;
+    private final long simulatedSeconds;
+    private final long events;
+    private final long wallNanos;
+    private final long vehiclesArrived;
+    private final long jobsSubmitted;
+    private final long jobsCompleted;
+    private final long jobsWaiting;
+    private final long deadlineMisses;
+    private final long busyVehicleSeconds;
+    private final long presentVehicleSeconds;
+    private final double meanTurnaroundSeconds;
+    private final long p95TurnaroundSeconds;
+    private final int peakQueueLength;
+
+    SimulationReport(String policyName, long simulatedSeconds, long events, long wallNanos,
+                     long vehiclesArrived, long jobsSubmitted, long jobsCompleted, long jobsWaiting,
+                     long deadlineMisses, long busyVehicleSeconds, long presentVehicleSeconds,
+                     double meanTurnaroundSeconds, long p95TurnaroundSeconds, int peakQueueLength) {
+        this.policyName = policyName;
+        this.simulatedSeconds = simulatedSeconds;
+        this.events = events;
+        this.wallNanos = wallNanos;
+        this.vehiclesArrived = vehiclesArrived;
+        this.jobsSubmitted = jobsSubmitted;
+        this.jobsCompleted = jobsCompleted;
+        this.jobsWaiting = jobsWaiting;
+        this.deadlineMisses = deadlineMisses;
+        this.busyVehicleSeconds = busyVehicleSeconds;
+        this.presentVehicleSeconds = presentVehicleSeconds;
+        this.meanTurnaroundSeconds = meanTurnaroundSeconds;
+        this.p95TurnaroundSeconds = p95TurnaroundSeconds;
+        this.peakQueueLength = peakQueueLength;
+    }
+
+    public String getPolicyName() { return policyName; }
+    public long getSimulatedSeconds() { return simulatedSeconds; }
+    public long getEvents() { return events; }
+    public long getWallNanos() { return wallNanos; }
+    public long getVehiclesArrived() { return vehiclesArrived; }
+    public long getJobsSubmitted() { return jobsSubmitted; }
+    public long getJobsCompleted() { return jobsCompleted; }
+
+    /**
+     * Returns how many submitted jobs had not finished when the run ended.
+     */
+    public long getJobsWaiting() { return jobsWaiting; }
+
+    /**
+     * Returns how many jobs finished after their deadline, or were still
+     * unfinished at the end of the run with their deadline already past.
+     */
+    public long getDeadlineMisses() { return deadlineMisses; }
+
+    public double getMeanTurnaroundSeconds() { return meanTurnaroundSeconds; }
+    public long getP95TurnaroundSeconds() { return p95TurnaroundSeconds; }
+    public int getPeakQueueLength() { return peakQueueLength; }
+
+    public double getEventsPerSecond() {
+        return wallNanos > 0 ? events * 1e9 / wallNanos : 0;
+    }
+
+    /**
+     * Returns completed jobs per simulated hour.
+     */
+    public double getThroughputPerHour() {
+        return simulatedSeconds > 0 ? jobsCompleted * 3600.0 / simulatedSeconds : 0;
+    }
+
+    /**
+     * Returns the share of parked vehicle time spent running jobs.
+     */
+    public double getUtilization() {
+        return presentVehicleSeconds > 0 ? (double) busyVehicleSeconds / presentVehicleSeconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        output.append("Simulation (").append(policyName).append(")\n");
+        output.append(String.format("  Simulated:      %.1f days, %d events in %.0f ms (%.2fM events/s)%n",
+                simulatedSeconds / 86400.0, events, wallNanos / 1e6, getEventsPerSecond() / 1e6));
+        output.append(String.format("  Vehicles:       %d arrived, %.1f%% utilized%n",
+                vehiclesArrived, 100 * getUtilization()));
+        output.append(String.format("  Jobs:           %d submitted, %d completed, %d waiting (peak queue %d)%n",
+                jobsSubmitted, jobsCompleted, jobsWaiting, peakQueueLength));
+        output.append(String.format("  Throughput:     %.1f jobs/hour%n", getThroughputPerHour()));
+        output.append(String.format("  Turnaround:     mean %.0f min, p95 %d min%n",
+                meanTurnaroundSeconds / 60, p95TurnaroundSeconds / 60));
+        output.append(String.format("  Deadline misses: %d (%.1f%% of submitted)%n", deadlineMisses,
+                jobsSubmitted > 0 ? 100.0 * deadlineMisses / jobsSubmitted : 0));
+        return output.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package sim;
+
+import dao.CloudControllerDAO;
+import dao.SchedulingPolicy;
+
+/**
+ * Runs every scheduling policy against the same synthetic workload and
+ * prints each one's throughput, utilization and deadline misses.
+ * <p>
+ * Usage: {@code java sim.SimulationRunner [days] [vehiclesPerHour] [jobsPerHour] [seed]}
+ * <p>
+ * Everything happens in memory; nothing in the data directory is read or written.
+ */
+public class SimulationRunner {
+    private static final int DEFAULT_DAYS = 365;
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DAYS;
+        Workload workload = new Workload();
+        if (args.length > 1) {
+            workload.setVehiclesPerHour(Double.parseDouble(args[1]));
+        }
+        if (args.length > 2) {
+            workload.setJobsPerHour(Double.parseDouble(args[2]));
+        }
+        if (args.length > 3) {
+            workload.setSeed(Long.parseLong(args[3]));
+        }
+
+        System.out.printf("%d days, %.1f vehicles/hour, %.1f jobs/hour, seed %d%n%n", days,
+                workload.getVehiclesPerHour(), workload.getJobsPerHour(), workload.getSeed());
+        for (SchedulingPolicy policy : CloudControllerDAO.getAvailablePolicies()) {
+            System.out.println(new Simulation(policy, workload).run(days * 86400L));
+        }
+    }
+}
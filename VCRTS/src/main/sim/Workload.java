@@ -0,0 +1,122 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic workload for a {@link Simulation}: vehicles and jobs arrive as
+ * Poisson processes, each vehicle stays for a residency time drawn uniformly
+ * from a range, and each job gets a duration and a deadline a whole number of
+ * days out. The same seed always gives the same workload, so policies can be
+ * compared on identical input.
+ */
+public class Workload {
+    public static final double DEFAULT_VEHICLES_PER_HOUR = 12;
+    public static final double DEFAULT_JOBS_PER_HOUR = 30;
+
+    private double vehiclesPerHour = DEFAULT_VEHICLES_PER_HOUR;
+    private long minResidencySeconds = 2 * 3600;
+    private long maxResidencySeconds = 10 * 3600;
+    private double jobsPerHour = DEFAULT_JOBS_PER_HOUR;
+    private long minJobSeconds = 10 * 60;
+    private long maxJobSeconds = 4 * 3600;
+    private int maxDeadlineDays = 3;
+    private long seed = 1;
+
+    private SplittableRandom random = new SplittableRandom(seed);
+
+    public double getVehiclesPerHour() { return vehiclesPerHour; }
+    public void setVehiclesPerHour(double vehiclesPerHour) { this.vehiclesPerHour = positive(vehiclesPerHour); }
+    public double getJobsPerHour() { return jobsPerHour; }
+    public void setJobsPerHour(double jobsPerHour) { this.jobsPerHour = positive(jobsPerHour); }
+    public int getMaxDeadlineDays() { return maxDeadlineDays; }
+    public void setMaxDeadlineDays(int days) { this.maxDeadlineDays = Math.max(0, days); }
+    public long getSeed() { return seed; }
+
+    /**
+     * Sets the seed and restarts the random sequence from it.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public void setResidencyRange(long minSeconds, long maxSeconds) {
+        checkRange(minSeconds, maxSeconds);
+        this.minResidencySeconds = minSeconds;
+        this.maxResidencySeconds = maxSeconds;
+    }
+
+    /**
+     * Sets the range job durations are drawn from. Durations must be under 24
+     * hours, the longest a job's HH:mm:ss duration can express.
+     */
+    public void setJobDurationRange(long minSeconds, long maxSeconds) {
+        checkRange(minSeconds, maxSeconds);
+        if (maxSeconds >= 24 * 3600) {
+            throw new IllegalArgumentException("Job durations must be under 24 hours");
+        }
+        this.minJobSeconds = minSeconds;
+        this.maxJobSeconds = maxSeconds;
+    }
+
+    /**
+     * Gets a fresh copy with the same settings, starting the random sequence
+     * from the seed again.
+     */
+    public Workload copy() {
+        Workload copy = new Workload();
+        copy.vehiclesPerHour = vehiclesPerHour;
+        copy.minResidencySeconds = minResidencySeconds;
+        copy.maxResidencySeconds = maxResidencySeconds;
+        copy.jobsPerHour = jobsPerHour;
+        copy.minJobSeconds = minJobSeconds;
+        copy.maxJobSeconds = maxJobSeconds;
+        copy.maxDeadlineDays = maxDeadlineDays;
+        copy.setSeed(seed);
+        return copy;
+    }
+
+    long nextVehicleGapSeconds() {
+        return exponential(vehiclesPerHour);
+    }
+
+    long nextResidencySeconds() {
+        return uniform(minResidencySeconds, maxResidencySeconds);
+    }
+
+    long nextJobGapSeconds() {
+        return exponential(jobsPerHour);
+    }
+
+    long nextJobSeconds() {
+        return uniform(minJobSeconds, maxJobSeconds);
+    }
+
+    int nextDeadlineDays() {
+        return random.nextInt(maxDeadlineDays + 1);
+    }
+
+    /**
+     * Draws a Poisson-process gap, at least one second so time always moves on.
+     */
+    private long exponential(double perHour) {
+        return Math.max(1, Math.round(-Math.log(1 - random.nextDouble()) * 3600 / perHour));
+    }
+
+    private long uniform(long min, long max) {
+        return min == max ? min : random.nextLong(min, max + 1);
+    }
+
+    private static double positive(double rate) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive");
+        }
+        return rate;
+    }
+
+    private static void checkRange(long min, long max) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Range must be positive with min <= max");
+        }
+    }
+}
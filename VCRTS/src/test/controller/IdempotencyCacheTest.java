@@ -0,0 +1,76 @@
+package controller;
+
+import models.Request;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    private static Request request() {
+        return new Request(1, "Test Client", Request.TYPE_ADD_JOB, "J1|Test job|1|01:00:00|2030-01-01|Queued");
+    }
+
+    @Test
+    void firstClaimOwnsTheKeyAndRetriesGetItsRequest() {
+        IdempotencyCache cache = new IdempotencyCache();
+        IdempotencyCache.Claim first = cache.claim("1|key");
+        IdempotencyCache.Claim retry = cache.claim("1|key");
+        assertTrue(first.isOwner());
+        assertFalse(retry.isOwner());
+
+        Request request = request();
+        first.complete(request);
+        assertSame(request, retry.awaitOriginal());
+        assertFalse(cache.claim("1|key").isOwner());
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        IdempotencyCache cache = new IdempotencyCache();
+        IdempotencyCache.Claim first = cache.claim("1|key");
+        IdempotencyCache.Claim retry = cache.claim("1|key");
+
+        first.release();
+        assertNull(retry.awaitOriginal());
+        assertTrue(cache.claim("1|key").isOwner());
+    }
+
+    @Test
+    void retryWaitsForAnOwnerStillInProgress() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache();
+        IdempotencyCache.Claim first = cache.claim("1|key");
+        CompletableFuture<Request> waiting = CompletableFuture.supplyAsync(() -> cache.claim("1|key").awaitOriginal());
+
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        Request request = request();
+        first.complete(request);
+        assertSame(request, waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void expiredKeysAreClaimedAfresh() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(100, 20);
+        cache.claim("1|key").complete(request());
+        Thread.sleep(40);
+        assertTrue(cache.claim("1|key").isOwner());
+    }
+
+    @Test
+    void oldestKeysAreDroppedOverCapacity() {
+        IdempotencyCache cache = new IdempotencyCache(2, TimeUnit.MINUTES.toMillis(10));
+        cache.claim("1|a").complete(request());
+        cache.claim("1|b").complete(request());
+        cache.claim("1|c").complete(request());
+        assertEquals(2, cache.size());
+        assertTrue(cache.claim("1|a").isOwner());
+    }
+}
@@ -0,0 +1,164 @@
+package controller;
+
+import models.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PendingRequestQueueTest {
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private PendingRequestQueue queue;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        queue = new PendingRequestQueue();
+        // Long enough that nothing ages during a test
+        queue.setAgingStepMillis(TimeUnit.HOURS.toMillis(1));
+        nextId = 1;
+    }
+
+    private Request job(int clientId, int dueInDays) {
+        return stamped(new Request(clientId, "Client " + clientId, Request.TYPE_ADD_JOB,
+                "J" + nextId + "|Test job|" + clientId + "|01:00:00|" + LocalDate.now().plusDays(dueInDays) + "|Queued"));
+    }
+
+    private Request vehicle(int clientId) {
+        return stamped(new Request(clientId, "Client " + clientId, Request.TYPE_REGISTER_VEHICLE,
+                clientId + "|Model|Make|2020|VIN" + nextId + "|08:00:00"));
+    }
+
+    private Request stamped(Request request) {
+        request.setRequestId(nextId++);
+        return request;
+    }
+
+    private String lanes(List<Request> order, int count) {
+        StringBuilder lanes = new StringBuilder();
+        for (Request request : order.subList(0, count)) {
+            lanes.append(queue.priorityOf(request).name().charAt(0));
+        }
+        return lanes.toString();
+    }
+
+    @Test
+    void lanesComeFromTypeDeadlineAndTier() {
+        Request urgent = job(1, 0);
+        Request normal = job(1, 30);
+        Request bulk = vehicle(1);
+        queue.setClientTier(2, PendingRequestQueue.ClientTier.PRIORITY);
+        Request promoted = vehicle(2);
+        queue.addAll(List.of(urgent, normal, bulk, promoted));
+
+        assertEquals(PendingRequestQueue.Priority.URGENT, queue.priorityOf(urgent));
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(normal));
+        assertEquals(PendingRequestQueue.Priority.BULK, queue.priorityOf(bulk));
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(promoted));
+    }
+
+    @Test
+    void lanesShareTheQueueByWeight() {
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(job(1, 0));
+        }
+        for (int i = 0; i < 4; i++) {
+            requests.add(job(1, 30));
+        }
+        requests.add(vehicle(1));
+        requests.add(vehicle(1));
+        queue.addAll(requests);
+
+        List<Request> order = queue.snapshot();
+        assertEquals(requests.size(), order.size());
+        // Smooth weighted round-robin over weights 6, 3 and 1
+        assertEquals("UNUUNUBUNU", lanes(order, 10));
+    }
+
+    @Test
+    void requestsWithinALaneKeepSubmissionOrder() {
+        Request first = job(1, 30);
+        Request second = job(2, 30);
+        Request third = job(1, 30);
+        queue.addAll(List.of(third, first, second));
+
+        assertEquals(List.of(first, second, third), queue.snapshot());
+    }
+
+    @Test
+    void waitingRequestsAgeIntoHigherLanes() {
+        queue.setAgingStepMillis(TimeUnit.MINUTES.toMillis(2));
+        Request old = vehicle(1);
+        old.setTimestamp(LocalDateTime.now().minusMinutes(3).format(TIMESTAMP_FORMATTER));
+        Request fresh = vehicle(1);
+        queue.addAll(List.of(old, fresh));
+
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(old));
+        assertEquals(PendingRequestQueue.Priority.BULK, queue.priorityOf(fresh));
+        assertEquals(old, queue.snapshot().get(0));
+    }
+
+    @Test
+    void agingStopsAtTheNormalLane() {
+        queue.setAgingStepMillis(TimeUnit.MINUTES.toMillis(2));
+        Request ancient = vehicle(1);
+        ancient.setTimestamp(LocalDateTime.now().minusHours(1).format(TIMESTAMP_FORMATTER));
+        Request oldJob = job(1, 30);
+        oldJob.setTimestamp(LocalDateTime.now().minusHours(1).format(TIMESTAMP_FORMATTER));
+        Request dueSoon = job(1, 0);
+        queue.addAll(List.of(ancient, oldJob, dueSoon));
+
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(ancient));
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(oldJob));
+        assertEquals(PendingRequestQueue.Priority.URGENT, queue.priorityOf(dueSoon));
+        assertEquals(dueSoon, queue.snapshot().get(0));
+    }
+
+    @Test
+    void changingTheUrgentDeadlineReclassifiesQueuedJobs() {
+        Request dueSoon = job(1, 3);
+        queue.add(dueSoon);
+        assertEquals(PendingRequestQueue.Priority.NORMAL, queue.priorityOf(dueSoon));
+
+        queue.setUrgentDeadlineDays(5);
+        assertEquals(PendingRequestQueue.Priority.URGENT, queue.priorityOf(dueSoon));
+    }
+
+    @Test
+    void removeClaimsARequestOnlyOnce() {
+        Request request = job(1, 30);
+        queue.add(request);
+        queue.add(request);
+        assertEquals(1, queue.size());
+
+        assertTrue(queue.remove(request));
+        assertFalse(queue.remove(request));
+        assertTrue(queue.isEmpty());
+        assertNull(queue.priorityOf(request));
+    }
+
+    @Test
+    void reservationsCountTowardsTheLimit() {
+        queue.add(job(1, 30));
+        assertTrue(queue.tryReserve(2));
+        assertFalse(queue.tryReserve(2));
+
+        queue.release();
+        assertTrue(queue.tryReserve(2));
+        queue.addReserved(job(1, 30));
+        assertEquals(2, queue.size());
+        assertFalse(queue.tryReserve(2));
+    }
+}
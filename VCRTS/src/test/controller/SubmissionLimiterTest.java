@@ -0,0 +1,105 @@
+package controller;
+
+import models.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubmissionLimiterTest {
+    private SubmissionLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new SubmissionLimiter();
+        // One a minute, so the bucket does not refill during a test
+        limiter.setLimit(Request.TYPE_ADD_JOB, new SubmissionLimiter.Limit(1, 3));
+    }
+
+    private static Request job(int clientId) {
+        return new Request(clientId, "Client " + clientId, Request.TYPE_ADD_JOB,
+                "J1|Test job|" + clientId + "|01:00:00|2030-01-01|Queued");
+    }
+
+    @Test
+    void burstIsAllowedThenRateLimitedWithARetryHint() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.admit(job(1), 0).isAccepted());
+        }
+        SubmissionLimiter.Result refused = limiter.admit(job(1), 0);
+        assertEquals(SubmissionLimiter.Decision.RATE_LIMITED, refused.getDecision());
+        assertTrue(refused.getRetryAfterMillis() > 0);
+        assertNotNull(refused.getMessage());
+        assertEquals(3, limiter.getAcceptedCount());
+        assertEquals(1, limiter.getRateLimitedCount());
+        assertEquals(1, limiter.getRateLimitedByClient().get(1).longValue());
+    }
+
+    @Test
+    void clientsAndRequestTypesHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.admit(job(1), 0);
+        }
+        assertTrue(limiter.admit(job(2), 0).isAccepted());
+        Request vehicle = new Request(1, "Client 1", Request.TYPE_REGISTER_VEHICLE, "1|m|mk|2020|VIN|01:00:00");
+        assertTrue(limiter.admit(vehicle, 0).isAccepted());
+    }
+
+    @Test
+    void fullQueueRefusesBeforeTakingAToken() {
+        limiter.setMaxPending(10);
+        SubmissionLimiter.Result refused = limiter.admit(job(1), 10);
+        assertEquals(SubmissionLimiter.Decision.QUEUE_FULL, refused.getDecision());
+        assertEquals(1, limiter.getQueueFullCount());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.admit(job(1), 9).isAccepted());
+        }
+    }
+
+    @Test
+    void admittingAgainstTheQueueReservesAndReleasesRoom() {
+        limiter.setMaxPending(2);
+        PendingRequestQueue queue = new PendingRequestQueue();
+
+        assertTrue(limiter.admit(job(1), queue).isAccepted());
+        assertTrue(limiter.admit(job(2), queue).isAccepted());
+        // Both places are held even though nothing has been added yet
+        assertEquals(SubmissionLimiter.Decision.QUEUE_FULL, limiter.admit(job(3), queue).getDecision());
+
+        queue.release();
+        for (int i = 0; i < 3; i++) {
+            limiter.admit(job(4), 0);
+        }
+        // A rate-limited request gives its place back
+        assertEquals(SubmissionLimiter.Decision.RATE_LIMITED, limiter.admit(job(4), queue).getDecision());
+        assertTrue(limiter.admit(job(5), queue).isAccepted());
+    }
+
+    @Test
+    void reservedRoomTurnsIntoAQueuedRequest() {
+        limiter.setMaxPending(1);
+        PendingRequestQueue queue = new PendingRequestQueue();
+        Request request = job(1);
+        assertTrue(limiter.admit(request, queue).isAccepted());
+        request.setRequestId(1);
+        queue.addReserved(request);
+
+        assertEquals(1, queue.size());
+        assertEquals(SubmissionLimiter.Decision.QUEUE_FULL, limiter.admit(job(2), queue).getDecision());
+        queue.remove(request);
+        assertTrue(limiter.admit(job(2), queue).isAccepted());
+    }
+
+    @Test
+    void disabledLimiterAcceptsEverything() {
+        limiter.setEnabled(false);
+        limiter.setMaxPending(1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.admit(job(1), 100).isAccepted());
+        }
+        assertFalse(limiter.getRateLimitedCount() > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+    private static final long START = 1_000_000;
+
+    @Test
+    void firesOnTheTickTheDeadlineRoundsUpTo() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, START);
+        wheel.schedule("a", START + 250);
+        assertTrue(wheel.advance(START + 299).isEmpty());
+        assertEquals(Collections.singletonList("a"), wheel.advance(START + 300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, START);
+        wheel.schedule("late", START - 5000);
+        assertTrue(wheel.advance(START + 99).isEmpty());
+        assertEquals(Collections.singletonList("late"), wheel.advance(START + 100));
+    }
+
+    @Test
+    void timersMoreThanOneRevolutionAheadWaitTheirRounds() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 4, START);
+        // Same slot as a timer one tick away, but two revolutions later
+        wheel.schedule("near", START + 100);
+        wheel.schedule("far", START + 900);
+        assertEquals(Collections.singletonList("near"), wheel.advance(START + 100));
+        assertTrue(wheel.advance(START + 800).isEmpty());
+        assertEquals(Collections.singletonList("far"), wheel.advance(START + 900));
+    }
+
+    @Test
+    void longGapFiresEverythingDueAndKeepsTheRest() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 4, START);
+        wheel.schedule("a", START + 200);
+        wheel.schedule("b", START + 1500);
+        wheel.schedule("c", START + 5000);
+
+        assertEquals(Arrays.asList("a", "b"), wheel.advance(START + 2000));
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(START + 4900).isEmpty());
+        assertEquals(Collections.singletonList("c"), wheel.advance(START + 5000));
+    }
+
+    @Test
+    void dueItemsComeBackOldestTickFirst() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 16, START);
+        for (int i = 5; i >= 1; i--) {
+            wheel.schedule(i, START + i * 10);
+        }
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), wheel.advance(START + 50));
+    }
+
+    @Test
+    void rejectsNonPositiveSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 8, START));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(100, 0, START));
+    }
+}
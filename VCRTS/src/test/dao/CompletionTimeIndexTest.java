@@ -0,0 +1,102 @@
+package dao;
+
+import models.Job;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTimeIndexTest {
+    private CompletionTimeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CompletionTimeIndex(Comparator.comparing(Job::getCreatedTimestamp));
+    }
+
+    private static Job job(String jobId, int second) {
+        return new Job(jobId, "Test job", 1, "01:00:00", "2030-01-01", CloudControllerDAO.STATE_QUEUED,
+                String.format("2030-01-01 00:00:%02d", second));
+    }
+
+    @Test
+    void offsetsAreRunningTotalsInRunOrder() {
+        assertTrue(index.append(job("A", 0), 60, false));
+        assertTrue(index.append(job("B", 1), 120, false));
+        assertTrue(index.append(job("C", 2), 30, false));
+
+        assertEquals(60, index.offsetOf("A"));
+        assertEquals(180, index.offsetOf("B"));
+        assertEquals(210, index.offsetOf("C"));
+        assertEquals("A", index.firstUnfinished());
+    }
+
+    @Test
+    void appendRefusesDuplicatesAndOutOfOrderJobs() {
+        assertTrue(index.append(job("A", 5), 60, false));
+        assertFalse(index.append(job("A", 6), 60, false));
+        assertFalse(index.append(job("B", 4), 60, false));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void finishedJobsAddNoTime() {
+        index.append(job("A", 0), 60, true);
+        index.append(job("B", 1), 120, false);
+        assertEquals(120, index.offsetOf("B"));
+        assertEquals("B", index.firstUnfinished());
+
+        index.setFinished("B", true);
+        assertNull(index.firstUnfinished());
+
+        index.setFinished("A", false);
+        assertEquals("A", index.firstUnfinished());
+        assertEquals(60, index.offsetOf("B"));
+    }
+
+    @Test
+    void durationChangesMoveLaterOffsets() {
+        index.append(job("A", 0), 60, false);
+        index.append(job("B", 1), 120, false);
+        index.setDuration("A", 600);
+        assertEquals(600, index.offsetOf("A"));
+        assertEquals(720, index.offsetOf("B"));
+        assertEquals(600, index.durationOf("A"));
+    }
+
+    @Test
+    void offsetBeforeFindsThePlaceOfAJobNotIndexed() {
+        index.append(job("A", 1), 60, false);
+        index.append(job("C", 3), 30, false);
+        assertEquals(0, index.offsetBefore(job("Z", 0)));
+        assertEquals(60, index.offsetBefore(job("B", 2)));
+        assertEquals(90, index.offsetBefore(job("D", 4)));
+        // A tie runs after the job already indexed
+        assertEquals(60, index.offsetBefore(job("E", 1)));
+    }
+
+    @Test
+    void removalSurvivesCompactionAndGrowth() {
+        for (int i = 0; i < 40; i++) {
+            index.append(job("J" + i, i), 10, false);
+        }
+        for (int i = 0; i < 30; i++) {
+            index.remove("J" + i);
+        }
+        assertEquals(10, index.size());
+        assertFalse(index.contains("J0"));
+        assertEquals("J30", index.firstUnfinished());
+        assertEquals(10, index.offsetOf("J30"));
+        assertEquals(100, index.offsetOf("J39"));
+        assertEquals(Arrays.asList("J38", "J39"), index.jobIdsFrom("J38"));
+
+        assertTrue(index.append(job("J40", 40), 5, false));
+        assertEquals(105, index.offsetOf("J40"));
+    }
+}
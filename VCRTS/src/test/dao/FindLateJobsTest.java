@@ -0,0 +1,139 @@
+package dao;
+
+import db.FileManager;
+import models.Job;
+import models.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against a temporary data directory, created before and deleted
+ * after each test.
+ */
+class FindLateJobsTest {
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JobDAO jobDAO = new JobDAO();
+    private final VehicleDAO vehicleDAO = new VehicleDAO();
+    private final CloudControllerDAO cloudControllerDAO = new CloudControllerDAO();
+    private Path dataDir;
+    private String previousDataDir;
+    private LocalDateTime created;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("vcrts-test-data");
+        previousDataDir = System.getProperty(FileManager.DATA_DIR_PROPERTY);
+        System.setProperty(FileManager.DATA_DIR_PROPERTY, dataDir.toString());
+        // Before now, so new jobs sort after the queue in FIFO order
+        created = LocalDateTime.now().minusDays(1).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (previousDataDir != null) {
+            System.setProperty(FileManager.DATA_DIR_PROPERTY, previousDataDir);
+        } else {
+            System.clearProperty(FileManager.DATA_DIR_PROPERTY);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dataDir);
+    }
+
+    private Job job(String jobId, String duration, int dueInDays) {
+        created = created.plusSeconds(1);
+        return new Job(jobId, "Test job", 1, duration, LocalDate.now().plusDays(dueInDays).toString(),
+                CloudControllerDAO.STATE_QUEUED, created.format(TIMESTAMP_FORMATTER));
+    }
+
+    /**
+     * A vehicle without a readable registration time is treated as never leaving.
+     */
+    private void parkVehicleThatNeverLeaves() {
+        vehicleDAO.addVehicle(new Vehicle(1, "Model", "Make", "2020", "VIN0", "08:00:00", "unknown"));
+    }
+
+    private void parkVehicles(int count, String residency) {
+        List<Vehicle> vehicles = new ArrayList<>();
+        String now = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+        for (int i = 0; i < count; i++) {
+            vehicles.add(new Vehicle(1, "Model", "Make", "2020", "VIN" + i, residency, now));
+        }
+        vehicleDAO.addVehicles(vehicles);
+    }
+
+    @Test
+    void jobsBehindALongQueueAreLate() {
+        parkVehicleThatNeverLeaves();
+        jobDAO.addJobs(Arrays.asList(job("Q1", "20:00:00", 30), job("Q2", "20:00:00", 30), job("Q3", "20:00:00", 30)));
+        cloudControllerDAO.calculateCompletionTimes();
+
+        Job tooSoon = job("N1", "01:00:00", 1);
+        Job plentyOfTime = job("N2", "01:00:00", 10);
+        Map<String, LocalDateTime> late = cloudControllerDAO.findLateJobs(Arrays.asList(tooSoon, plentyOfTime));
+
+        assertEquals(Collections.singleton("N1"), late.keySet());
+        // At least the 60 hours already queued, plus its own hour
+        assertFalse(late.get("N1").isBefore(LocalDateTime.now().withNano(0).plusHours(61).minusMinutes(1)));
+        // The candidates were only estimated, not added
+        assertEquals(3, jobDAO.getAllJobs().size());
+    }
+
+    @Test
+    void lateJobTakesNoTimeFromTheJobsAfterIt() {
+        parkVehicleThatNeverLeaves();
+        cloudControllerDAO.calculateCompletionTimes();
+
+        // 20 hours from now is always by the end of tomorrow, but not after 46 more
+        Job overdue = job("N1", "23:00:00", -1);
+        Job alsoOverdue = job("N2", "23:00:00", -1);
+        Job onTime = job("N3", "20:00:00", 1);
+        Map<String, LocalDateTime> late = cloudControllerDAO.findLateJobs(Arrays.asList(overdue, alsoOverdue, onTime));
+
+        assertEquals(Arrays.asList("N1", "N2"), new ArrayList<>(late.keySet()));
+    }
+
+    @Test
+    void jobsOnSeveralVehiclesGoToTheirBestFit() {
+        parkVehicles(2, "23:00:00");
+        cloudControllerDAO.calculateCompletionTimes();
+
+        Job overdue = job("N1", "01:00:00", -1);
+        Job onTime = job("N2", "01:00:00", 5);
+        Job tooLong = job("N3", "23:30:00", -1);
+        Map<String, LocalDateTime> late = cloudControllerDAO.findLateJobs(Arrays.asList(overdue, onTime, tooLong));
+
+        // No vehicle stays long enough for N3, so it waits for one instead of counting as late
+        assertEquals(Collections.singleton("N1"), late.keySet());
+    }
+
+    @Test
+    void nothingIsLateWithoutVehicles() {
+        cloudControllerDAO.calculateCompletionTimes();
+        Map<String, LocalDateTime> late = cloudControllerDAO.findLateJobs(
+                Collections.singletonList(job("N1", "01:00:00", -1)));
+        assertTrue(late.isEmpty());
+    }
+}
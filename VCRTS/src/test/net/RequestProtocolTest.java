@@ -0,0 +1,281 @@
+package net;
+
+import controller.ChangeFeed;
+import controller.ServerApi;
+import models.Job;
+import models.Request;
+import models.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestProtocolTest {
+    private static final String TOKEN = "secret";
+
+    /**
+     * Records calls and answers with canned data.
+     */
+    private static class FakeApi implements ServerApi {
+        final List<String> calls = new ArrayList<>();
+        Request submitted;
+
+        @Override
+        public boolean submitRequest(Request request) {
+            submitted = request;
+            request.setRequestId(42);
+            request.setStatus(Request.STATUS_PENDING);
+            return true;
+        }
+
+        @Override
+        public List<Request> getPendingRequests() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Request> getClientRequests(int clientId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean approveRequest(int requestId, String responseMessage) {
+            calls.add("approve " + requestId + " " + responseMessage);
+            return true;
+        }
+
+        @Override
+        public boolean rejectRequest(int requestId, String responseMessage) {
+            calls.add("reject " + requestId + " " + responseMessage);
+            return true;
+        }
+
+        @Override
+        public List<Vehicle> getVehiclesByOwner(int ownerId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Job> getJobsByClient(int clientId, String status) {
+            return Collections.singletonList(new Job("J1", "Test job", clientId, "01:00:00", "2030-01-01",
+                    "Queued", "2030-01-01 00:00:00"));
+        }
+
+        @Override
+        public ChangeFeed.Batch pollChanges(int clientId, long afterSeq, long timeoutMillis) {
+            return new ChangeFeed.Batch(Collections.emptyList(), afterSeq, false);
+        }
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] bytes(Writer writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writer.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void stringsRoundTripIncludingNullAndUnicode() throws IOException {
+        byte[] payload = bytes(out -> {
+            RequestProtocol.writeString(out, "héllo");
+            RequestProtocol.writeString(out, null);
+            RequestProtocol.writeString(out, "");
+        });
+        DataInputStream in = input(payload);
+        assertEquals("héllo", RequestProtocol.readString(in));
+        assertNull(RequestProtocol.readString(in));
+        assertEquals("", RequestProtocol.readString(in));
+    }
+
+    @Test
+    void requestsRoundTrip() throws IOException {
+        Request request = new Request(7, 3, "Client", Request.TYPE_ADD_JOB, "J1|Test job|3|01:00:00|2030-01-01|Queued",
+                Request.STATUS_PENDING, "2030-01-01 00:00:00", null);
+        List<Request> read = RequestProtocol.readRequests(input(bytes(out ->
+                RequestProtocol.writeRequests(out, Arrays.asList(request, request)))));
+
+        assertEquals(2, read.size());
+        Request copy = read.get(1);
+        assertEquals(7, copy.getRequestId());
+        assertEquals(3, copy.getClientId());
+        assertEquals("Client", copy.getClientName());
+        assertEquals(Request.TYPE_ADD_JOB, copy.getRequestType());
+        assertEquals(request.getRequestData(), copy.getRequestData());
+        assertEquals(Request.STATUS_PENDING, copy.getStatus());
+        assertEquals("2030-01-01 00:00:00", copy.getTimestamp());
+        assertNull(copy.getResponseMessage());
+    }
+
+    @Test
+    void jobsRoundTripWithReplicas() throws IOException {
+        Job job = new Job("J1", "Test job", 3, "01:30:00", "2030-01-01", "Queued", "2030-01-01 00:00:00");
+        job.setReplicas(3);
+        Job copy = RequestProtocol.readJobs(input(bytes(out ->
+                RequestProtocol.writeJobs(out, Collections.singletonList(job))))).get(0);
+
+        assertEquals("J1", copy.getJobId());
+        assertEquals(3, copy.getJobOwnerId());
+        assertEquals("01:30:00", copy.getDuration());
+        assertEquals("2030-01-01", copy.getDeadline());
+        assertEquals("2030-01-01 00:00:00", copy.getCreatedTimestamp());
+        assertEquals(3, copy.getReplicas());
+    }
+
+    @Test
+    void vehiclesRoundTrip() throws IOException {
+        Vehicle vehicle = new Vehicle(5, "Model", "Make", "2020", "VIN123", "08:00:00", "2030-01-01 00:00:00");
+        Vehicle copy = RequestProtocol.readVehicles(input(bytes(out ->
+                RequestProtocol.writeVehicles(out, Collections.singletonList(vehicle))))).get(0);
+
+        assertEquals(5, copy.getOwnerId());
+        assertEquals("VIN123", copy.getVin());
+        assertEquals("08:00:00", copy.getResidencyTime());
+        assertEquals("2030-01-01 00:00:00", copy.getRegisteredTimestamp());
+    }
+
+    @Test
+    void batchesRoundTripWithTheirPayloads() throws IOException {
+        Job job = new Job("J1", "Test job", 3, "01:00:00", "2030-01-01", "Queued", "2030-01-01 00:00:00");
+        List<ChangeFeed.Change> changes = Arrays.asList(
+                new ChangeFeed.Change(1, ChangeFeed.ENTITY_JOB, ChangeFeed.ACTION_UPSERT, "J1", 3, job),
+                new ChangeFeed.Change(2, ChangeFeed.ENTITY_VEHICLE, ChangeFeed.ACTION_RELOAD, null, 0, null));
+        ChangeFeed.Batch copy = RequestProtocol.readBatch(input(bytes(out ->
+                RequestProtocol.writeBatch(out, new ChangeFeed.Batch(changes, 2, false)))));
+
+        assertEquals(2, copy.getLastSeq());
+        assertFalse(copy.isResync());
+        assertEquals(2, copy.getChanges().size());
+        assertEquals("J1", ((Job) copy.getChanges().get(0).getPayload()).getJobId());
+        assertEquals(ChangeFeed.ACTION_RELOAD, copy.getChanges().get(1).getAction());
+        assertNull(copy.getChanges().get(1).getKey());
+        assertNull(copy.getChanges().get(1).getPayload());
+    }
+
+    @Test
+    void stringLengthBeyondThePayloadIsRejected() throws IOException {
+        byte[] payload = bytes(out -> {
+            out.writeInt(1000);
+            out.write(new byte[10]);
+        });
+        assertThrows(IOException.class, () -> RequestProtocol.readString(input(payload)));
+
+        byte[] huge = bytes(out -> out.writeInt(Integer.MAX_VALUE));
+        assertThrows(IOException.class, () -> RequestProtocol.readString(input(huge)));
+    }
+
+    @Test
+    void listSizeBeyondThePayloadIsRejected() throws IOException {
+        byte[] payload = bytes(out -> out.writeInt(Integer.MAX_VALUE));
+        assertThrows(IOException.class, () -> RequestProtocol.readRequests(input(payload)));
+        assertThrows(IOException.class, () -> RequestProtocol.readJobs(input(payload)));
+        assertThrows(IOException.class, () -> RequestProtocol.readVehicles(input(payload)));
+
+        byte[] negative = bytes(out -> out.writeInt(-5));
+        assertThrows(IOException.class, () -> RequestProtocol.readRequests(input(negative)));
+    }
+
+    @Test
+    void frameIsPrefixedWithItsLength() {
+        ByteBuffer frame = RequestProtocol.frame(new byte[] { 1, 2, 3 });
+        assertEquals(7, frame.remaining());
+        assertEquals(3, frame.getInt());
+        assertEquals(1, frame.get());
+    }
+
+    @Test
+    void submitPassesTheIdempotencyKeyAndReturnsTheOutcome() throws IOException {
+        FakeApi api = new FakeApi();
+        Request request = new Request(3, "Client", Request.TYPE_ADD_JOB, "J1|Test job|3|01:00:00|2030-01-01|Queued");
+        byte[] response = RequestProtocol.handle(api, bytes(out -> {
+            out.writeByte(RequestProtocol.OP_SUBMIT_REQUEST);
+            RequestProtocol.writeRequest(out, request);
+            RequestProtocol.writeString(out, "key-1");
+        }), TOKEN);
+
+        assertEquals("key-1", api.submitted.getIdempotencyKey());
+        DataInputStream in = input(response);
+        assertEquals(RequestProtocol.STATUS_OK, in.readByte());
+        assertTrue(in.readBoolean());
+        assertEquals(42, in.readInt());
+        assertEquals(Request.STATUS_PENDING, RequestProtocol.readString(in));
+    }
+
+    @Test
+    void adminOperationsNeedTheServerToken() throws IOException {
+        FakeApi api = new FakeApi();
+        byte[] wrongToken = bytes(out -> {
+            out.writeByte(RequestProtocol.OP_APPROVE_REQUEST);
+            RequestProtocol.writeString(out, "guess");
+            out.writeInt(1);
+            RequestProtocol.writeString(out, "ok");
+        });
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, wrongToken, TOKEN)[0]);
+
+        byte[] rightToken = bytes(out -> {
+            out.writeByte(RequestProtocol.OP_REJECT_REQUEST);
+            RequestProtocol.writeString(out, TOKEN);
+            out.writeInt(1);
+            RequestProtocol.writeString(out, "no");
+        });
+        // A server started without a token refuses every admin operation
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, rightToken, null)[0]);
+        assertTrue(api.calls.isEmpty());
+
+        byte[] response = RequestProtocol.handle(api, rightToken, TOKEN);
+        assertEquals(RequestProtocol.STATUS_OK, response[0]);
+        assertEquals(Collections.singletonList("reject 1 no"), api.calls);
+    }
+
+    @Test
+    void malformedPayloadsGetAnErrorResponse() throws IOException {
+        FakeApi api = new FakeApi();
+        byte[] bogusLength = bytes(out -> {
+            out.writeByte(RequestProtocol.OP_GET_JOBS_BY_CLIENT);
+            out.writeInt(3);
+            out.writeInt(RequestProtocol.MAX_FRAME_SIZE);
+        });
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, bogusLength, TOKEN)[0]);
+
+        byte[] truncated = { RequestProtocol.OP_GET_CLIENT_REQUESTS, 0 };
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, truncated, TOKEN)[0]);
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, new byte[0], TOKEN)[0]);
+        assertEquals(RequestProtocol.STATUS_ERROR, RequestProtocol.handle(api, new byte[] { 99 }, TOKEN)[0]);
+    }
+
+    @Test
+    void jobsByClientRoundTripThroughHandle() throws IOException {
+        byte[] response = RequestProtocol.handle(new FakeApi(), bytes(out -> {
+            out.writeByte(RequestProtocol.OP_GET_JOBS_BY_CLIENT);
+            out.writeInt(3);
+            RequestProtocol.writeString(out, "All");
+        }), TOKEN);
+        DataInputStream in = input(response);
+        assertEquals(RequestProtocol.STATUS_OK, in.readByte());
+        List<Job> jobs = RequestProtocol.readJobs(in);
+        assertEquals(1, jobs.size());
+        assertEquals(3, jobs.get(0).getJobOwnerId());
+    }
+}